@@ -18,6 +18,7 @@ public final class RobocodeProperties {
 	// These properties can only be set at startup
 	private static final boolean NO_SECURITY = System.getProperty("NOSECURITY", "false").equals("true");
 	private static final boolean DEBUG = System.getProperty("debug", "false").equals("true");
+	private static final boolean NO_ROBOT_OUTPUT = System.getProperty("NOROBOTOUTPUT", "false").equals("true");
 
 	private RobocodeProperties() {}
 
@@ -53,6 +54,15 @@ public final class RobocodeProperties {
 		return DEBUG;
 	}
 
+	/**
+	 * Checks if the console output of robots is discarded, i.e. that the <code>NOROBOTOUTPUT</code> property has been
+	 * set to <code>true</code>.
+	 * @return true if the output of robots is discarded; false if the output of robots is kept.
+	 */
+	public static boolean isRobotOutputOff() {
+		return NO_ROBOT_OUTPUT;
+	}
+
 	/**
 	 * Sets the testing flag.
 	 * @param enabled true if testing is being enabled; false if testing is being disabled.
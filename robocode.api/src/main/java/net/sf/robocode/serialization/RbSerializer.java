@@ -25,6 +25,11 @@ import java.util.Map;
 
 
 /**
+ * Serializes the objects passed between robots and the battle.
+ * <p>
+ * An instance keeps the buffers it uses for encoding and decoding between calls, so it must only be used by a
+ * single thread at a time. The static methods use a serializer per thread.
+ *
  * @author Pavel Savara (original)
  */
 public final class RbSerializer {
@@ -80,8 +85,20 @@ public final class RbSerializer {
 	private final CharsetDecoder decoder;
 
 	private static final int BYTE_ORDER = 0xC0DEDEA1;
+	private static final int SIZEOF_HEADER = SIZEOF_INT + SIZEOF_INT + SIZEOF_INT;
 	private final int currentVersion;
 
+	private static final ThreadLocal<RbSerializer> threadSerializer = new ThreadLocal<RbSerializer>() {
+		@Override
+		protected RbSerializer initialValue() {
+			return new RbSerializer();
+		}
+	};
+
+	// Buffers reused between messages, which are only replaced by larger ones when a message does not fit
+	private ByteBuffer streamBuffer = ByteBuffer.allocate(1024);
+	private CharBuffer decodedChars = CharBuffer.allocate(256);
+
 	static {
 		charset = Charset.forName("UTF8"); // we will use it as UCS-2
 		register(null, TERMINATOR_TYPE); // reserved for end of (list) element
@@ -105,21 +122,23 @@ public final class RbSerializer {
 	public void serialize(OutputStream target, byte type, Object object) throws IOException {
 		int length = sizeOf(type, object);
 
-		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		streamBuffer = ensureCapacity(streamBuffer, SIZEOF_HEADER + length);
+		ByteBuffer buffer = streamBuffer;
 
+		buffer.clear();
+		buffer.limit(SIZEOF_HEADER + length);
+
+		// header
 		buffer.putInt(BYTE_ORDER);
 		buffer.putInt(currentVersion);
 		buffer.putInt(length);
-		target.write(buffer.array());
 
 		// body
-		buffer = ByteBuffer.allocate(length);
 		serialize(buffer, type, object);
 		if (buffer.remaining() != 0) {
 			throw new IOException("Serialization failed: bad size"); 
 		}
-		target.write(buffer.array());
+		target.write(buffer.array(), 0, buffer.limit());
 	}
 
 	public ByteBuffer serialize(byte type, Object object) throws IOException {
@@ -158,9 +177,11 @@ public final class RbSerializer {
 	}
 
 	public Object deserialize(InputStream source) throws IOException {
-		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		ByteBuffer buffer = streamBuffer;
 
+		// header
+		buffer.clear();
+		buffer.limit(SIZEOF_HEADER);
 		fillBuffer(source, buffer);
 		buffer.flip();
 		int bo = buffer.getInt();
@@ -175,8 +196,15 @@ public final class RbSerializer {
 		}
 		int length = buffer.getInt();
 
+		if (length < 0) {
+			throw new IOException("Wrong buffer size, " + length);
+		}
+
 		// body
-		buffer = ByteBuffer.allocate(length);
+		streamBuffer = ensureCapacity(streamBuffer, length);
+		buffer = streamBuffer;
+		buffer.clear();
+		buffer.limit(length);
 		fillBuffer(source, buffer);
 		buffer.flip();
 		final Object res = deserializeAny(buffer);
@@ -233,12 +261,31 @@ public final class RbSerializer {
 	public void serialize(ByteBuffer buffer, String data) {
 		if (data == null) {
 			buffer.putInt(-1);
-		} else {
-			ByteBuffer slice = encode(data);
+			return;
+		}
+		final int lengthPosition = buffer.position();
+
+		buffer.putInt(0);
+
+		final int start = buffer.position();
+		final int chars = data.length();
+		int i = 0;
 
-			buffer.putInt(slice.limit());
-			buffer.put(slice);
+		// Characters below 0x80 are encoded as themselves, which saves the encoder for most strings
+		while (i < chars) {
+			final char c = data.charAt(i);
+
+			if (c >= 0x80) {
+				break;
+			}
+			buffer.put((byte) c);
+			i++;
 		}
+		if (i < chars) {
+			encoder.reset();
+			encoder.encode(CharBuffer.wrap(data, i, chars), buffer, false);
+		}
+		buffer.putInt(lengthPosition, buffer.position() - start);
 	}
 
 	public void serialize(ByteBuffer buffer, byte[] data) {
@@ -335,18 +382,52 @@ public final class RbSerializer {
 		if (bytes == -1) {
 			return null;
 		}
-		final ByteBuffer slice = buffer.slice();
+		if (bytes < 0 || bytes > buffer.remaining()) {
+			throw new Error("Bad string length: " + bytes);
+		}
+		if (decodedChars.capacity() < bytes) {
+			decodedChars = CharBuffer.allocate(Math.max(bytes, decodedChars.capacity() * 2));
+		}
+		final CharBuffer chars = decodedChars;
+		final int start = buffer.position();
+		final int end = start + bytes;
+		int i = start;
 
-		slice.limit(bytes);
-		final String res;
+		chars.clear();
 
-		try {
-			res = decoder.decode(slice).toString();
-		} catch (CharacterCodingException e) {
-			throw new Error("Bad character", e);
+		// Bytes below 0x80 are the characters themselves, which saves the decoder for most strings
+		while (i < end) {
+			final byte b = buffer.get(i);
+
+			if (b < 0) {
+				break;
+			}
+			chars.put((char) b);
+			i++;
+		}
+		if (i < end) {
+			final int limit = buffer.limit();
+
+			buffer.position(i);
+			buffer.limit(end);
+			try {
+				decoder.reset();
+				CoderResult result = decoder.decode(buffer, chars, true);
+
+				if (!result.isError()) {
+					result = decoder.flush(chars);
+				}
+				if (result.isError()) {
+					result.throwException();
+				}
+			} catch (CharacterCodingException e) {
+				throw new Error("Bad character", e);
+			} finally {
+				buffer.limit(limit);
+			}
 		}
-		buffer.position(buffer.position() + bytes);
-		return res;
+		buffer.position(end);
+		return new String(chars.array(), 0, chars.position());
 	}
 
 	public byte[] deserializeBytes(ByteBuffer buffer) {
@@ -442,7 +523,7 @@ public final class RbSerializer {
 	}
 
 	public int sizeOf(String data) {
-		return (data == null) ? SIZEOF_INT : SIZEOF_INT + encode(data).limit();
+		return (data == null) ? SIZEOF_INT : SIZEOF_INT + encodedLength(data);
 	}
 
 	public int sizeOf(byte[] data) {
@@ -466,12 +547,38 @@ public final class RbSerializer {
 		return helper;
 	}
 
-	private ByteBuffer encode(String data) {
-		final ByteBuffer slice = ByteBuffer.allocate(data.length() * 3);
+	/**
+	 * Returns the number of bytes written by {@link #serialize(ByteBuffer, String)} for the characters of the
+	 * string, without encoding it. As with the encoder, the string ends at the first surrogate that is not part of
+	 * a surrogate pair.
+	 */
+	private static int encodedLength(String data) {
+		final int chars = data.length();
+		int length = 0;
+
+		for (int i = 0; i < chars; i++) {
+			final char c = data.charAt(i);
+
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+				length += 3;
+			} else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(data.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				break;
+			}
+		}
+		return length;
+	}
 
-		encoder.encode(CharBuffer.wrap(data), slice, false);
-		slice.flip();
-		return slice;
+	private static ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+		return (buffer.capacity() >= capacity)
+				? buffer
+				: ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
 	}
 
 	private void fillBuffer(InputStream source, ByteBuffer buffer) throws IOException {
@@ -508,7 +615,7 @@ public final class RbSerializer {
 	}
 
 	public static ByteBuffer serializeToBuffer(Object src) throws IOException {
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 		final Byte type = classToType.get(src.getClass());
 
 		return rbs.serialize(type, src);
@@ -516,7 +623,7 @@ public final class RbSerializer {
 
 	@SuppressWarnings({ "unchecked"})
 	public static <T> T deserializeFromBuffer(ByteBuffer buffer) throws IOException {
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 		final Object res = rbs.deserialize(buffer);
 
 		return (T) res;
@@ -524,7 +631,7 @@ public final class RbSerializer {
 
 	public static Object deepCopy(byte type, Object src) {
 		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 
 		try {
 			rbs.serialize(out, type, src);
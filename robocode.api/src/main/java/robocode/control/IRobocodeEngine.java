@@ -133,6 +133,29 @@ public interface IRobocodeEngine {
 	 */
 	void runBattle(BattleSpecification battleSpecification, String initialPositions, boolean waitTillOver);
 
+	/**
+	 * Runs the specified battles, where several battles are running at the same time, and blocks the caller
+	 * until all battles are over.
+	 * <p>
+	 * Every battle runs with its own robot instances and threads, and sends its events to its own listener only.
+	 * The listeners added with {@link #addBattleListener(IBattleListener) addBattleListener()} do not receive
+	 * the events of these battles, and the battles are not recorded. Every battle and its robots draw from their
+	 * own random number generator, which is seeded the same for every battle when the RANDOMSEED system property
+	 * is set. Hence the battles are deterministic, as long as the robots do not use {@link Math#random()}.
+	 *
+	 * @param battleSpecifications the specifications of the battles to run.
+	 * @param battleListeners the listeners for the battles, where the listener at an index receives the events
+	 *                        of the battle at the same index, e.g. the
+	 *                        {@link robocode.control.events.BattleCompletedEvent} with the results of the battle.
+	 *                        The array and the listeners in it can be {@code null}.
+	 * @param maxConcurrentBattles the maximum number of battles that run at the same time, or 0 for the
+	 *                             number of available processors.
+	 * @see #runBattle(robocode.control.BattleSpecification)
+	 * @see #abortCurrentBattle()
+	 * @since 1.9.3.2
+	 */
+	void runBattles(BattleSpecification[] battleSpecifications, IBattleListener[] battleListeners, int maxConcurrentBattles);
+
 	/**
 	 * Will block caller until current battle is over.
 	 * @see #runBattle(robocode.control.BattleSpecification)
@@ -142,7 +165,8 @@ public interface IRobocodeEngine {
 	void waitTillBattleOver();
 
 	/**
-	 * Aborts the current battle if it is running.
+	 * Aborts the current battle if it is running, and all battles started by
+	 * {@link #runBattles(BattleSpecification[], IBattleListener[], int) runBattles()}.
 	 *
 	 * @see #runBattle(robocode.control.BattleSpecification)
 	 */
@@ -19,6 +19,11 @@ import java.util.Random;
  * The RandomFactory is used for controlling the generation of random numbers,
  * and supports generating random numbers that are deterministic, which is
  * useful for testing purposes.
+ * <p>
+ * A thread can be given its own random number generator, which is then also used
+ * by the threads it starts. This way every battle and its robots can draw from
+ * their own stream of random numbers, even when several battles are running at
+ * the same time.
  *
  * @author Pavel Savara (original)
  *
@@ -27,8 +32,11 @@ import java.util.Random;
 public class RandomFactory {
 	private static Random randomNumberGenerator;
 
+	private static final InheritableThreadLocal<Random> threadRandomNumberGenerator = new InheritableThreadLocal<Random>();
+
 	private static boolean warningNotSupportedLogged;
-	private static boolean isDeterministic;
+	private static volatile boolean isDeterministic;
+	private static volatile long deterministicSeed;
 
 	static {
 		randomNumberGenerator = new Random();
@@ -40,12 +48,19 @@ public class RandomFactory {
 
 	/**
 	 * Returns the random number generator used for generating a stream of
-	 * random numbers.
+	 * random numbers. This is the generator set for the current thread with
+	 * {@link #setThreadRandom(Random)}, if any, and otherwise the generator
+	 * shared by all threads.
 	 *
 	 * @return a {@link java.util.Random} instance.
 	 * @see java.util.Random
 	 */
 	public static Random getRandom() {
+		final Random threadRandom = threadRandomNumberGenerator.get();
+
+		if (threadRandom != null) {
+			return threadRandom;
+		}
 		if (randomNumberGenerator == null) {
 			try {
 				Math.random();
@@ -100,9 +115,41 @@ public class RandomFactory {
 	 */
 	public static void resetDeterministic(long seed) {
 		setRandom(new Random(seed));
+		deterministicSeed = seed;
 		isDeterministic = true;
 	}
 
+	/**
+	 * Sets the random number generator used by the current thread, and by the
+	 * threads started by the current thread after this call.
+	 *
+	 * @param random a {@link java.util.Random} instance, or {@code null} to use
+	 *               the generator shared by all threads again.
+	 * @see #getRandom()
+	 * @since 1.9.3.2
+	 */
+	public static void setThreadRandom(Random random) {
+		if (random == null) {
+			threadRandomNumberGenerator.remove();
+		} else {
+			threadRandomNumberGenerator.set(random);
+		}
+	}
+
+	/**
+	 * Creates a new random number generator, which is independent of the
+	 * generator returned by {@link #getRandom()}. If the random numbers have
+	 * been made deterministic with {@link #resetDeterministic(long)}, the new
+	 * generator is seeded with the same seed, so that it generates the same
+	 * stream of random numbers every time.
+	 *
+	 * @return a new {@link java.util.Random} instance.
+	 * @since 1.9.3.2
+	 */
+	public static Random createRandom() {
+		return isDeterministic ? new Random(deterministicSeed) : new Random();
+	}
+
 	/**
 	 * Logs a warning that the deterministic random feature is not supported by the JVM.
 	 */
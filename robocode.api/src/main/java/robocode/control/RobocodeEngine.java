@@ -255,6 +255,14 @@ public class RobocodeEngine implements IRobocodeEngine {
 				waitTillOver, false);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public void runBattles(BattleSpecification[] battleSpecifications, IBattleListener[] battleListeners, int maxConcurrentBattles) {
+		ContainerBase.getComponent(IBattleManagerBase.class).runBattles(battleSpecifications, battleListeners,
+				maxConcurrentBattles);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -33,6 +33,11 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	// Maximum turns to display the battle when battle ended
 	protected final static int TURNS_DISPLAYED_AFTER_ENDING = 30;
 
+	// Number of battles that have been initialized and not cleaned up yet. Jar files of robots may only be
+	// closed when no battle is running, as battles can run concurrently.
+	private final static Object runningBattlesLock = new Object();
+	private static int runningBattles;
+
 	// Objects we use
 	private Thread battleThread;
 	IBattleManager battleManager;
@@ -57,6 +62,7 @@ public abstract class BaseBattle implements IBattle, Runnable {
 
 	// Battle state
 	private final AtomicBoolean isRunning = new AtomicBoolean(false);
+	private boolean isCountedAsRunning;
 	protected boolean isAborted;
 
 	// Battle control
@@ -145,8 +151,25 @@ public abstract class BaseBattle implements IBattle, Runnable {
 			pendingCommands.clear();
 			// don't pendingCommands = null;
 		}
-		URLJarCollector.enableGc(true);
-		URLJarCollector.gc();
+		synchronized (runningBattlesLock) {
+			if (isCountedAsRunning) {
+				isCountedAsRunning = false;
+				runningBattles--;
+			}
+			if (runningBattles == 0) {
+				URLJarCollector.enableGc(true);
+				URLJarCollector.gc();
+			}
+		}
+	}
+
+	/**
+	 * Checks if any battle is running, including battles that are running concurrently with this one.
+	 */
+	protected static boolean isAnyBattleRunning() {
+		synchronized (runningBattlesLock) {
+			return runningBattles > 0;
+		}
 	}
 
 	public void waitTillStarted() {
@@ -215,7 +238,13 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	}
 
 	protected void initializeBattle() {
-		URLJarCollector.enableGc(false);
+		synchronized (runningBattlesLock) {
+			if (!isCountedAsRunning) {
+				isCountedAsRunning = true;
+				runningBattles++;
+			}
+			URLJarCollector.enableGc(false);
+		}
 		roundNum = 0;
 		totalTurns = 0;
 
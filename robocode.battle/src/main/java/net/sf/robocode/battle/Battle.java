@@ -12,6 +12,7 @@ import net.sf.robocode.battle.events.BattleEventDispatcher;
 import net.sf.robocode.battle.peer.BulletPeer;
 import net.sf.robocode.battle.peer.ContestantPeer;
 import net.sf.robocode.battle.peer.RobotPeer;
+import net.sf.robocode.battle.peer.SpatialGrid;
 import net.sf.robocode.battle.peer.TeamPeer;
 import net.sf.robocode.battle.snapshot.TurnSnapshot;
 import net.sf.robocode.host.ICpuManager;
@@ -53,8 +54,12 @@ public final class Battle extends BaseBattle {
 
 	private static final int DEBUG_TURN_WAIT_MILLIS = 10 * 60 * 1000; // 10 seconds
 
+	// The elapsed time a robot may take for its CPU time with CPUTIME=true, compared to the normal wait time
+	private static final int CPU_TIME_MAX_WAIT_FACTOR = 2;
+
 	private final IHostManager hostManager;
 	private final long cpuConstant;
+	private final String turnHandoff;
 
 	// Inactivity related items
 	private int inactiveTurnCount;
@@ -62,6 +67,7 @@ public final class Battle extends BaseBattle {
 
 	// Turn skip related items
 	private boolean parallelOn;
+	private boolean cpuTimeOn;
 	private long millisWait;
 	private int nanoWait;
 
@@ -71,6 +77,10 @@ public final class Battle extends BaseBattle {
 	private List<ContestantPeer> contestants = new ArrayList<ContestantPeer>();
 	private final List<BulletPeer> bullets = new CopyOnWriteArrayList<BulletPeer>();
 
+	// Broad phase grids for collision and scan checks
+	private SpatialGrid robotGrid;
+	private SpatialGrid bulletGrid;
+
 	// Robot counters
 	private int activeParticipants;
 	private int activeSentries;
@@ -78,18 +88,30 @@ public final class Battle extends BaseBattle {
 	// Death events
 	private final List<RobotPeer> deathRobots = new CopyOnWriteArrayList<RobotPeer>();
 
+	// Reusable buffers for the fair play ordering
+	private final ShuffledList<RobotPeer> robotsAtRandom = new ShuffledList<RobotPeer>();
+	private final ShuffledList<RobotPeer> otherRobotsAtRandom = new ShuffledList<RobotPeer>();
+	private final ShuffledList<BulletPeer> bulletsAtRandom = new ShuffledList<BulletPeer>();
+	private final ShuffledList<BulletPeer> otherBulletsAtRandom = new ShuffledList<BulletPeer>();
+	private final ShuffledList<RobotPeer> deathRobotsAtRandom = new ShuffledList<RobotPeer>();
+
 	// Initial robot setups (if any)
 	private RobotSetup[] initialRobotSetups;
 
+	// Random number generator of this battle, which is also used by the robot threads of the battle
+	private Random random;
+
 	public Battle(ISettingsManager properties, IBattleManager battleManager, IHostManager hostManager, ICpuManager cpuManager, BattleEventDispatcher eventDispatcher) { // NO_UCD (unused code)
 		super(
 				properties, battleManager, eventDispatcher);
 		this.hostManager = hostManager;
 		this.cpuConstant = cpuManager.getCpuConstant();
+		this.turnHandoff = System.getProperty("TURNHANDOFF", properties.getBattleTurnHandoff());
 	}
 
-	void setup(RobotSpecification[] battlingRobotsList, BattleProperties battleProps, boolean paused) {
+	void setup(RobotSpecification[] battlingRobotsList, BattleProperties battleProps, boolean paused, Random random) {
 		isPaused = paused;
+		this.random = random;
 		battleRules = HiddenAccess.createRules(battleProps.getBattlefieldWidth(), battleProps.getBattlefieldHeight(),
 				battleProps.getNumRounds(), battleProps.getGunCoolingRate(), battleProps.getInactivityTime(),
 				battleProps.getHideEnemyNames(), battleProps.getSentryBorderSize());
@@ -221,6 +243,10 @@ public final class Battle extends BaseBattle {
 		deathRobots.add(r);
 	}
 
+	public Random getRandom() {
+		return random;
+	}
+
 	public BattleRules getBattleRules() {
 		return battleRules;
 	}
@@ -229,6 +255,20 @@ public final class Battle extends BaseBattle {
 		return robotsCount;
 	}
 
+	/**
+	 * Returns the strategy used for handing over the turn between the battle thread and the robot threads,
+	 * i.e. "monitor", "park" or "spin".
+	 *
+	 * @return the turn handoff setting.
+	 */
+	public String getTurnHandoff() {
+		return turnHandoff;
+	}
+
+	public boolean isCpuTimeOn() {
+		return cpuTimeOn;
+	}
+
 	public boolean isDebugging() {
 		return RobocodeProperties.isDebuggingOn();
 	}
@@ -279,13 +319,21 @@ public final class Battle extends BaseBattle {
 			robots = null;
 		}
 
+		robotsAtRandom.clear();
+		otherRobotsAtRandom.clear();
+		bulletsAtRandom.clear();
+		otherBulletsAtRandom.clear();
+		deathRobotsAtRandom.clear();
+
 		super.cleanup();
 
 		battleManager = null;
 
-		// Request garbage collecting
-		for (int i = 4; i >= 0; i--) { // Make sure it is run
-			System.gc();
+		// Request garbage collecting, unless other battles are still running
+		if (!isAnyBattleRunning()) {
+			for (int i = 4; i >= 0; i--) { // Make sure it is run
+				System.gc();
+			}
 		}
 	}
 
@@ -293,6 +341,9 @@ public final class Battle extends BaseBattle {
 	protected void initializeBattle() {
 		super.initializeBattle();
 
+		// The robot threads are started from the battle thread, and hence inherit its random number generator
+		RandomFactory.setThreadRandom(random);
+
 		parallelOn = System.getProperty("PARALLEL", "false").equals("true");
 		if (parallelOn) {
 			// how could robots share CPUs ?
@@ -313,20 +364,37 @@ public final class Battle extends BaseBattle {
 		if (nanoWait == 0) {
 			nanoWait = 1;
 		}
+
+		cpuTimeOn = System.getProperty("CPUTIME", "false").equals("true");
+		if (cpuTimeOn && !RobotPeer.enableCpuTime()) {
+			Logger.logError("The CPU time of robot threads cannot be measured on this system, using elapsed time");
+			cpuTimeOn = false;
+		}
+
+		robotGrid = new SpatialGrid(battleRules.getBattlefieldWidth(), battleRules.getBattlefieldHeight());
+		bulletGrid = new SpatialGrid(battleRules.getBattlefieldWidth(), battleRules.getBattlefieldHeight());
 	}
 
 	@Override
 	protected void finalizeBattle() {
+		if (cpuTimeOn) {
+			for (RobotPeer robotPeer : robots) {
+				Logger.logMessage("CPU time of " + robotPeer.getName() + ": " + robotPeer.getCpuTimeHistogram());
+			}
+		}
+
 		eventDispatcher.onBattleFinished(new BattleFinishedEvent(isAborted()));
 
 		if (!isAborted()) {
 			eventDispatcher.onBattleCompleted(new BattleCompletedEvent(battleRules, computeBattleResults()));
 		}
 
+		// The robots remove their own thread groups from the thread manager, which is shared by concurrent battles
 		for (RobotPeer robotPeer : robots) {
 			robotPeer.cleanup();
 		}
-		hostManager.resetThreadManager();
+
+		RandomFactory.setThreadRandom(null);
 
 		super.finalizeBattle();
 	}
@@ -496,7 +564,16 @@ public final class Battle extends BaseBattle {
 
 	@Override
 	protected void finalizeTurn() {
-		eventDispatcher.onTurnEnded(new TurnEndedEvent(new TurnSnapshot(this, robots, bullets, true)));
+		// The turn snapshot is only created when someone is listening for it, which is not the case for
+		// battles run without display or recording, e.g. by RoboRumble or batch runs with the RobocodeEngine
+		if (eventDispatcher.isTurnEndedListened()) {
+			eventDispatcher.onTurnEnded(new TurnEndedEvent(new TurnSnapshot(this, robots, bullets, true)));
+		} else {
+			// The output text is normally read out by the snapshot, so it must not pile up during the round
+			for (RobotPeer robotPeer : robots) {
+				robotPeer.clearOutText();
+			}
+		}
 
 		super.finalizeTurn();
 	}
@@ -528,38 +605,54 @@ public final class Battle extends BaseBattle {
 	 * checks if a robot has won, is dead, etc.
 	 * This method was introduced as two equal robots like sample.RamFire got different scores even
 	 * though the code was exactly the same.
+	 * The returned list is reused, and is only valid until the next call of this method.
 	 *
 	 * @return a list of robot peers.
 	 */
 	private List<RobotPeer> getRobotsAtRandom() {
-		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(robots);
+		return robotsAtRandom.shuffle(robots, random);
+	}
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	/**
+	 * Returns a list of all robots in random order, which is handed to a robot or bullet for checking
+	 * it against the other robots, while iterating the list returned by {@link #getRobotsAtRandom()}.
+	 * The returned list is reused, and is only valid until the next call of this method.
+	 *
+	 * @return a list of robot peers.
+	 */
+	private List<RobotPeer> getOtherRobotsAtRandom() {
+		return otherRobotsAtRandom.shuffle(robots, random);
 	}
 
 	/**
 	 * Returns a list of all bullets in random order. This method is used to gain fair play in Robocode.
+	 * The returned list is reused, and is only valid until the next call of this method.
 	 *
 	 * @return a list of bullet peers.
 	 */
 	private List<BulletPeer> getBulletsAtRandom() {
-		List<BulletPeer> shuffledList = new ArrayList<BulletPeer>(bullets);
+		return bulletsAtRandom.shuffle(bullets, random);
+	}
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	/**
+	 * Returns a list of all bullets in random order, which is handed to a bullet for checking it against
+	 * the other bullets, while iterating the list returned by {@link #getBulletsAtRandom()}.
+	 * The returned list is reused, and is only valid until the next call of this method.
+	 *
+	 * @return a list of bullet peers.
+	 */
+	private List<BulletPeer> getOtherBulletsAtRandom() {
+		return otherBulletsAtRandom.shuffle(bullets, random);
 	}
 
 	/**
 	 * Returns a list of all death robots in random order. This method is used to gain fair play in Robocode.
+	 * The returned list is reused, and is only valid until the next call of this method.
 	 *
 	 * @return a list of robot peers.
 	 */
 	private List<RobotPeer> getDeathRobotsAtRandom() {
-		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(deathRobots);
-
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+		return deathRobotsAtRandom.shuffle(deathRobots, random);
 	}
 
 	private void loadCommands() {
@@ -570,14 +663,30 @@ public final class Battle extends BaseBattle {
 	}
 
 	private void updateBullets() {
+		rebuildGrids();
+
 		for (BulletPeer bullet : getBulletsAtRandom()) {
-			bullet.update(getRobotsAtRandom(), getBulletsAtRandom());
+			bullet.update(getOtherRobotsAtRandom(), robotGrid, getOtherBulletsAtRandom(), bulletGrid);
 			if (bullet.getState() == BulletState.INACTIVE) {
 				bullets.remove(bullet);
+				bullet.removeGridEntry(bulletGrid);
+			} else {
+				bullet.updateGridEntry(bulletGrid);
 			}
 		}
 	}
 
+	private void rebuildGrids() {
+		robotGrid.clear();
+		for (RobotPeer robotPeer : robots) {
+			robotPeer.updateGridEntry(robotGrid);
+		}
+		bulletGrid.clear();
+		for (BulletPeer bullet : bullets) {
+			bullet.updateGridEntry(bulletGrid);
+		}
+	}
+
 	private void updateRobots() {
 		boolean zap = (inactiveTurnCount > battleRules.getInactivityTime());
 
@@ -585,12 +694,13 @@ public final class Battle extends BaseBattle {
 
 		// Move all bots
 		for (RobotPeer robotPeer : getRobotsAtRandom()) {
-			robotPeer.performMove(getRobotsAtRandom(), zapEnergy);
+			robotPeer.performMove(getOtherRobotsAtRandom(), robotGrid, zapEnergy);
+			robotPeer.updateGridEntry(robotGrid);
 		}
 
 		// Scan after moved all
 		for (RobotPeer robotPeer : getRobotsAtRandom()) {
-			robotPeer.performScan(getRobotsAtRandom());
+			robotPeer.performScan(getOtherRobotsAtRandom(), robotGrid);
 		}
 	}
 
@@ -670,13 +780,7 @@ public final class Battle extends BaseBattle {
 				robotPeer.waitWakeup();
 
 				if (robotPeer.isAlive()) {
-					if (isDebugging() || robotPeer.isPaintEnabled()) {
-						robotPeer.waitSleeping(DEBUG_TURN_WAIT_MILLIS, 1);
-					} else if (currentTime == 1) {
-						robotPeer.waitSleeping(millisWait * 10, 1);
-					} else {
-						robotPeer.waitSleeping(millisWait, nanoWait);
-					}
+					waitSleeping(robotPeer);
 				}
 			}
 		}
@@ -691,17 +795,27 @@ public final class Battle extends BaseBattle {
 		}
 		for (RobotPeer robotPeer : robotsAtRandom) {
 			if (robotPeer.isRunning() && robotPeer.isAlive()) {
-				if (isDebugging() || robotPeer.isPaintEnabled()) {
-					robotPeer.waitSleeping(DEBUG_TURN_WAIT_MILLIS, 1);
-				} else if (currentTime == 1) {
-					robotPeer.waitSleeping(millisWait * 10, 1);
-				} else {
-					robotPeer.waitSleeping(millisWait, nanoWait);
-				}
+				waitSleeping(robotPeer);
 			}
 		}
 	}
 
+	private void waitSleeping(RobotPeer robotPeer) {
+		if (isDebugging() || robotPeer.isPaintEnabled()) {
+			robotPeer.waitSleeping(DEBUG_TURN_WAIT_MILLIS, 1);
+		} else if (cpuTimeOn) {
+			// The robot may use the CPU constant, no matter how many robots share a core
+			final int turnFactor = currentTime == 1 ? 10 : 1;
+			final long maxWait = (millisWait * 1000000 + nanoWait) * CPU_TIME_MAX_WAIT_FACTOR;
+
+			robotPeer.waitSleepingCpuTime(cpuConstant * turnFactor, maxWait * turnFactor);
+		} else if (currentTime == 1) {
+			robotPeer.waitSleeping(millisWait * 10, 1);
+		} else {
+			robotPeer.waitSleeping(millisWait, nanoWait);
+		}
+	}
+
 	private int getActiveContestantCount(RobotPeer peer) {
 		int count = 0;
 
@@ -753,8 +867,6 @@ public final class Battle extends BaseBattle {
 		for (int i = 0; i < positions.size(); i++) {
 			coords = positions.get(i).split(",");
 
-			Random random = RandomFactory.getRandom();
-
 			x = RobotPeer.WIDTH + random.nextDouble() * (battleRules.getBattlefieldWidth() - 2 * RobotPeer.WIDTH);
 			y = RobotPeer.HEIGHT + random.nextDouble() * (battleRules.getBattlefieldHeight() - 2 * RobotPeer.HEIGHT);
 			heading = 2 * Math.PI * random.nextDouble();
@@ -31,6 +31,10 @@ import robocode.control.events.BattleResumedEvent;
 import robocode.control.events.IBattleListener;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 
@@ -61,6 +65,9 @@ public class BattleManager implements IBattleManager {
 	private int pauseCount = 0;
 	private final AtomicBoolean isManagedTPS = new AtomicBoolean(false);
 
+	// Battles started by runBattles(), which run besides the current battle
+	private final List<Battle> concurrentBattles = new CopyOnWriteArrayList<Battle>();
+
 	public BattleManager(ISettingsManager properties, IRepositoryManager repositoryManager, IHostManager hostManager, ICpuManager cpuManager, BattleEventDispatcher battleEventDispatcher, IRecordManager recordManager) { // NO_UCD (unused code)
 		this.properties = properties;
 		this.recordManager = recordManager;
@@ -89,7 +96,106 @@ public class BattleManager implements IBattleManager {
 
 	// Called from the RobocodeEngine
 	public void startNewBattle(BattleSpecification spec, String initialPositions, boolean waitTillOver, boolean enableCLIRecording) {
-		battleProperties = new BattleProperties();
+		battleProperties = toBattleProperties(spec, initialPositions);
+
+		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
+
+		startNewBattleImpl(robots, waitTillOver, enableCLIRecording);
+	}
+
+	// Called from the RobocodeEngine
+	public void runBattles(BattleSpecification[] specs, IBattleListener[] listeners, int maxConcurrentBattles) {
+		final int concurrency = (maxConcurrentBattles > 0)
+				? maxConcurrentBattles
+				: Runtime.getRuntime().availableProcessors();
+		final Semaphore freeSlots = new Semaphore(concurrency);
+		final List<Thread> battleThreads = new ArrayList<Thread>();
+
+		logMessage("Running " + specs.length + " battles with up to " + concurrency + " battles at a time...");
+
+		resetRandomSeed();
+
+		try {
+			for (int i = 0; i < specs.length; i++) {
+				freeSlots.acquire();
+				try {
+					final IBattleListener listener = (listeners != null && i < listeners.length) ? listeners[i] : null;
+
+					battleThreads.add(startConcurrentBattle(specs[i], listener, freeSlots, i + 1));
+				} catch (RuntimeException e) {
+					freeSlots.release();
+					throw e;
+				}
+			}
+			for (Thread battleThread : battleThreads) {
+				battleThread.join();
+			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+
+			for (Battle battle : concurrentBattles) {
+				battle.stop(false);
+			}
+		}
+	}
+
+	private synchronized Thread startConcurrentBattle(BattleSpecification spec, IBattleListener listener, final Semaphore freeSlots, int number) {
+		// Every battle gets its own dispatcher, so the listener only receives the events of its own battle
+		final BattleEventDispatcher eventDispatcher = new BattleEventDispatcher();
+
+		if (listener != null) {
+			eventDispatcher.addListener(listener);
+		}
+
+		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
+		final Battle concurrentBattle = new Battle(properties, this, hostManager, cpuManager, eventDispatcher);
+
+		// Every battle gets its own random number generator, so that the battles do not depend on each other
+		concurrentBattle.setup(robots, toBattleProperties(spec, null), false, RandomFactory.createRandom());
+
+		final Thread concurrentBattleThread = new Thread(Thread.currentThread().getThreadGroup(), new Runnable() {
+			public void run() {
+				try {
+					concurrentBattle.run();
+				} finally {
+					concurrentBattles.remove(concurrentBattle);
+					if (hostManager != null) {
+						hostManager.removeSafeThread(Thread.currentThread());
+					}
+					freeSlots.release();
+				}
+			}
+		});
+
+		concurrentBattleThread.setPriority(Thread.NORM_PRIORITY);
+		concurrentBattleThread.setName("Battle Thread " + number);
+		concurrentBattle.setBattleThread(concurrentBattleThread);
+
+		if (RobocodeProperties.isSecurityOn()) {
+			hostManager.addSafeThread(concurrentBattleThread);
+		}
+		concurrentBattles.add(concurrentBattle);
+
+		concurrentBattleThread.start();
+		return concurrentBattleThread;
+	}
+
+	private void resetRandomSeed() {
+		// resets seed for deterministic behavior of Random
+		final String seed = System.getProperty("RANDOMSEED", "none");
+
+		if (!seed.equals("none")) {
+			// init soon as it reads random
+			cpuManager.getCpuConstant();
+
+			RandomFactory.resetDeterministic(Long.valueOf(seed));
+		}
+	}
+
+	private static BattleProperties toBattleProperties(BattleSpecification spec, String initialPositions) {
+		final BattleProperties battleProperties = new BattleProperties();
+
 		battleProperties.setBattlefieldWidth(spec.getBattlefield().getWidth());
 		battleProperties.setBattlefieldHeight(spec.getBattlefield().getHeight());
 		battleProperties.setGunCoolingRate(spec.getGunCoolingRate());
@@ -105,14 +211,11 @@ public class BattleManager implements IBattleManager {
 		} else {
 			battleProperties.setInitialPositions(initialPositions);
 		}
-
-		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
-
-		startNewBattleImpl(robots, waitTillOver, enableCLIRecording);
+		return battleProperties;
 	}
 
 	private void startNewBattleImpl(RobotSpecification[] battlingRobotsList, boolean waitTillOver, boolean enableCLIRecording) {
-		stop(true);
+		stopCurrentBattle(true);
 
 		logMessage("Preparing battle...");
 
@@ -126,18 +229,10 @@ public class BattleManager implements IBattleManager {
 			recordManager.detachRecorder();
 		}
 
-		// resets seed for deterministic behavior of Random
-		final String seed = System.getProperty("RANDOMSEED", "none");
-
-		if (!seed.equals("none")) {
-			// init soon as it reads random
-			cpuManager.getCpuConstant();
-
-			RandomFactory.resetDeterministic(Long.valueOf(seed));
-		}
+		resetRandomSeed();
 
 		Battle realBattle = Container.createComponent(Battle.class);
-		realBattle.setup(battlingRobotsList, battleProperties, isPaused());
+		realBattle.setup(battlingRobotsList, battleProperties, isPaused(), RandomFactory.getRandom());
 
 		battle = realBattle;
 
@@ -288,6 +383,13 @@ public class BattleManager implements IBattleManager {
 	}
 
 	public synchronized void stop(boolean waitTillEnd) {
+		for (Battle concurrentBattle : concurrentBattles) {
+			concurrentBattle.stop(waitTillEnd);
+		}
+		stopCurrentBattle(waitTillEnd);
+	}
+
+	private synchronized void stopCurrentBattle(boolean waitTillEnd) {
 		if (battle != null && battle.isRunning()) {
 			battle.stop(waitTillEnd);
 		}
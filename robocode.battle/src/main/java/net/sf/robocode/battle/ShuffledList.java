@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.RandomAccess;
+
+
+/**
+ * Reusable buffer holding a random permutation of a collection, used for fair play ordering.
+ * <p>
+ * The permutation is made with the same swaps and the same calls to the random generator as
+ * {@link java.util.Collections#shuffle(java.util.List, Random)} on a fresh copy of the source,
+ * so the order is identical for a given seed, but no new list is allocated per call.
+ * <p>
+ * The content is only valid until the next call to {@link #shuffle(Collection, Random)}.
+ */
+final class ShuffledList<E> extends AbstractList<E> implements RandomAccess {
+
+	private Object[] elements = new Object[16];
+	private int size;
+
+	/**
+	 * Replaces the content with the elements of the source collection in random order.
+	 *
+	 * @param source the elements to shuffle.
+	 * @param random the random generator used for the permutation.
+	 * @return this list.
+	 */
+	ShuffledList<E> shuffle(Collection<? extends E> source, Random random) {
+		final int oldSize = size;
+		final int newSize = source.size();
+
+		if (newSize > elements.length) {
+			elements = new Object[Math.max(newSize, elements.length * 2)];
+		}
+
+		int i = 0;
+
+		for (E element : source) {
+			if (i == elements.length) { // the source has grown while copying
+				Object[] grown = new Object[elements.length * 2];
+
+				System.arraycopy(elements, 0, grown, 0, i);
+				elements = grown;
+			}
+			elements[i++] = element;
+		}
+		size = i;
+
+		// Release references left over from a larger previous content
+		for (int j = size; j < oldSize; j++) {
+			elements[j] = null;
+		}
+
+		for (int j = size; j > 1; j--) {
+			swap(j - 1, random.nextInt(j));
+		}
+		return this;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			elements[i] = null;
+		}
+		size = 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return (E) elements[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void swap(int i, int j) {
+		final Object tmp = elements[i];
+
+		elements[i] = elements[j];
+		elements[j] = tmp;
+	}
+}
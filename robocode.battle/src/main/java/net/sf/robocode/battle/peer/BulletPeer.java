@@ -56,6 +56,8 @@ public class BulletPeer {
 
 	private final Line2D.Double boundingLine = new Line2D.Double();
 
+	private final SpatialGrid.Entry gridEntry = new SpatialGrid.Entry();
+
 	protected int frame; // Do not set to -1
 
 	private final int color;
@@ -71,9 +73,12 @@ public class BulletPeer {
 		color = owner.getBulletColor(); // Store current bullet color set on robot
 	}
 
-	private void checkBulletCollision(List<BulletPeer> bullets) {
+	private void checkBulletCollision(List<BulletPeer> bullets, SpatialGrid bulletGrid) {
+		final int mark = queryBoundingLine(bulletGrid);
+
 		for (BulletPeer b : bullets) {
-			if (b != null && b != this && b.owner != owner && b.isActive() && intersect(b.boundingLine)) {
+			if (b != null && b != this && (bulletGrid == null || b.gridEntry.isMarked(mark)) && b.owner != owner
+					&& b.isActive() && intersect(b.boundingLine)) {
 				// Check if one of the bullets belongs to a sentry robot and is within the safe zone
 				if (owner.isSentryRobot() || b.getOwner().isSentryRobot()) {
 					int sentryBorderSize = battleRules.getSentryBorderSize();
@@ -136,9 +141,12 @@ public class BulletPeer {
 		return (ua >= 0 && ua <= 1) && (ub >= 0 && ub <= 1);
 	}
 
-	private void checkRobotCollision(List<RobotPeer> robots) {
+	private void checkRobotCollision(List<RobotPeer> robots, SpatialGrid robotGrid) {
+		final int mark = queryBoundingLine(robotGrid);
+
 		for (RobotPeer otherRobot : robots) {
 			if (!(otherRobot == null || otherRobot == owner || otherRobot.isDead())
+					&& (robotGrid == null || otherRobot.isMarked(mark))
 					&& otherRobot.getBoundingBox().intersectsLine(boundingLine)) {
 
 				state = BulletState.HIT_VICTIM;
@@ -305,16 +313,42 @@ public class BulletPeer {
 		state = newState;
 	}
 
-	public void update(List<RobotPeer> robots, List<BulletPeer> bullets) {
+	private int queryBoundingLine(SpatialGrid grid) {
+		if (grid == null) {
+			return 0;
+		}
+		return grid.query(Math.min(boundingLine.x1, boundingLine.x2), Math.min(boundingLine.y1, boundingLine.y2),
+				Math.max(boundingLine.x1, boundingLine.x2), Math.max(boundingLine.y1, boundingLine.y2));
+	}
+
+	/**
+	 * Places the bullet line in the specified grid, or moves it if the bullet is already in the grid.
+	 */
+	public void updateGridEntry(SpatialGrid bulletGrid) {
+		bulletGrid.update(gridEntry, Math.min(boundingLine.x1, boundingLine.x2),
+				Math.min(boundingLine.y1, boundingLine.y2), Math.max(boundingLine.x1, boundingLine.x2),
+				Math.max(boundingLine.y1, boundingLine.y2));
+	}
+
+	public void removeGridEntry(SpatialGrid bulletGrid) {
+		bulletGrid.remove(gridEntry);
+	}
+
+	/**
+	 * Moves the bullet and checks it for collisions.
+	 * The grids are optional, and when present they are used for skipping robots and bullets that
+	 * are too far away to be hit, while the order of the lists still decides which one is hit first.
+	 */
+	public void update(List<RobotPeer> robots, SpatialGrid robotGrid, List<BulletPeer> bullets, SpatialGrid bulletGrid) {
 		frame++;
 		if (isActive()) {
 			updateMovement();
 			checkWallCollision();
 			if (isActive()) {
-				checkRobotCollision(robots);
+				checkRobotCollision(robots, robotGrid);
 			}
 			if (isActive() && bullets != null) {
-				checkBulletCollision(bullets);
+				checkBulletCollision(bullets, bulletGrid);
 			}
 		}
 		updateBulletState();
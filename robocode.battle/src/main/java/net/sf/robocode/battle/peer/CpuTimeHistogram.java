@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+/**
+ * Histogram of the CPU time used by a robot per turn.
+ * <p>
+ * The times are counted in buckets of powers of two microseconds, so percentiles are upper bounds, which are
+ * at most twice the actual time. The histogram is only used by the battle thread.
+ */
+public final class CpuTimeHistogram {
+
+	private static final int BUCKETS = 40;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+
+	void add(long nanos) {
+		if (nanos < 0) {
+			return;
+		}
+		final long micros = nanos / 1000;
+		final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+		counts[bucket]++;
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMeanNanos() {
+		return count > 0 ? totalNanos / count : 0;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Returns the time that the given fraction of turns did not exceed.
+	 *
+	 * @param fraction the fraction of turns, e.g. 0.99 for the 99th percentile.
+	 * @return the upper bound of the time in nanoseconds.
+	 */
+	public long getPercentileNanos(double fraction) {
+		final long limit = (long) Math.ceil(count * fraction);
+		long sum = 0;
+
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			sum += counts[bucket];
+			if (sum >= limit && sum > 0) {
+				// The last bucket has no upper bound
+				return bucket < BUCKETS - 1 ? Math.min(maxNanos, (1L << bucket) * 1000) : maxNanos;
+			}
+		}
+		return maxNanos;
+	}
+
+	@Override
+	public String toString() {
+		return count + " turns, mean " + getMeanNanos() / 1000 + " us, 50% <= " + getPercentileNanos(0.5) / 1000
+				+ " us, 99% <= " + getPercentileNanos(0.99) / 1000 + " us, max " + getMaxNanos() / 1000 + " us";
+	}
+}
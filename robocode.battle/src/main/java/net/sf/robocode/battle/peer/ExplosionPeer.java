@@ -36,7 +36,7 @@ public class ExplosionPeer extends BulletPeer {
 	}
 
 	@Override
-	public final void update(List<RobotPeer> robots, List<BulletPeer> bullets) {
+	public final void update(List<RobotPeer> robots, SpatialGrid robotGrid, List<BulletPeer> bullets, SpatialGrid bulletGrid) {
 		frame++;
 
 		x = owner.getX();
@@ -64,7 +64,7 @@ interface IRobotPeerBattle extends ContestantPeer {
 
 	void performLoadCommands();
 
-	void performMove(List<RobotPeer> robots, double zapEnergy);
+	void performMove(List<RobotPeer> robots, SpatialGrid robotGrid, double zapEnergy);
 
-	void performScan(List<RobotPeer> robots);
+	void performScan(List<RobotPeer> robots, SpatialGrid robotGrid);
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import static net.sf.robocode.io.Logger.logMessage;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Turn handoff using Object.wait() and notifyAll() on the sleeping flag of the robot.
+ */
+final class MonitorTurnHandoff extends TurnHandoff {
+
+	MonitorTurnHandoff(RobotPeer peer, AtomicBoolean isSleeping) {
+		super(peer, isSleeping);
+	}
+
+	@Override
+	void waitForNextTurn() {
+		synchronized (isSleeping) {
+			// Notify the battle that we are now asleep.
+			// This ends any pending wait() call in battle.runRound().
+			// Should not actually take place until we release the lock in wait(), below.
+			isSleeping.set(true);
+			isSleeping.notifyAll();
+			// Notifying battle that we're asleep
+			// Sleeping and waiting for battle to wake us up.
+			try {
+				isSleeping.wait();
+			} catch (InterruptedException e) {
+				// We are expecting this to happen when a round is ended!
+
+				// Immediately reasserts the exception by interrupting the caller thread itself
+				Thread.currentThread().interrupt();
+			}
+			isSleeping.set(false);
+			// Notify battle thread, which is waiting in
+			// our wakeup() call, to return.
+			// It's quite possible, by the way, that we'll be back in sleep (above)
+			// before the battle thread actually wakes up
+			isSleeping.notifyAll();
+		}
+	}
+
+	@Override
+	void waitWakeup() {
+		synchronized (isSleeping) {
+			if (isSleeping.get()) {
+				// Wake up the thread
+				isSleeping.notifyAll();
+				try {
+					isSleeping.wait(10000);
+				} catch (InterruptedException e) {
+					// Immediately reasserts the exception by interrupting the caller thread itself
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	@Override
+	void wakeupNoWait() {
+		synchronized (isSleeping) {
+			if (isSleeping.get()) {
+				// Wake up the thread
+				isSleeping.notifyAll();
+			}
+		}
+	}
+
+	@Override
+	void waitSleeping(long millisWait, int nanosWait) {
+		synchronized (isSleeping) {
+			// It's quite possible for simple robots to
+			// complete their processing before we get here,
+			// so we test if the robot is already asleep.
+
+			if (!isSleeping.get()) {
+				try {
+					for (long i = millisWait; i > 0 && !isSleeping.get() && peer.isRunning(); i--) {
+						isSleeping.wait(0, 999999);
+					}
+					if (!isSleeping.get() && peer.isRunning()) {
+						isSleeping.wait(0, nanosWait);
+					}
+				} catch (InterruptedException e) {
+					// Immediately reasserts the exception by interrupting the caller thread itself
+					Thread.currentThread().interrupt();
+
+					logMessage("Wait for " + peer.getName() + " interrupted.");
+				}
+			}
+		}
+	}
+
+	@Override
+	void waitStarted(long millisWait, int nanosWait) {
+		final long deadline = System.nanoTime() + millisWait * 1000000L + nanosWait;
+
+		synchronized (isSleeping) {
+			// The robot might have fallen asleep already, in which case the notify has been missed
+			try {
+				while (!isSleeping.get()) {
+					final long remaining = deadline - System.nanoTime();
+
+					if (remaining <= 0) {
+						break;
+					}
+					isSleeping.wait(remaining / 1000000, (int) (remaining % 1000000));
+				}
+			} catch (InterruptedException e) {
+				// Immediately reasserts the exception by interrupting the caller thread itself
+				Thread.currentThread().interrupt();
+
+				logMessage("Wait for " + peer.getName() + " interrupted.");
+			}
+		}
+	}
+
+	@Override
+	void robotStopped() {// waitSleeping() checks if the robot is still running every millisecond
+	}
+}
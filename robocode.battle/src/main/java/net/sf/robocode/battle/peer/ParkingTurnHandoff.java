@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import static net.sf.robocode.io.Logger.logMessage;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Turn handoff using LockSupport.park() and unpark(), without taking any monitor.
+ * <p>
+ * The waiting thread can optionally spin a bounded number of times before it parks, which saves the
+ * context switch for robots that finish their turn quickly.
+ */
+final class ParkingTurnHandoff extends TurnHandoff {
+
+	private static final long WAKEUP_TIMEOUT_NANOS = 10000L * 1000000L;
+
+	private final int spinTries;
+
+	private volatile Thread robotThread;
+	private volatile Thread battleThread;
+
+	// Set by the battle thread to release the robot thread
+	private volatile boolean wakeupRequested;
+
+	// Incremented by the robot thread every time it wakes up
+	private volatile int wakeups;
+
+	ParkingTurnHandoff(RobotPeer peer, AtomicBoolean isSleeping, int spinTries) {
+		super(peer, isSleeping);
+		this.spinTries = spinTries;
+	}
+
+	@Override
+	void waitForNextTurn() {
+		final Thread current = Thread.currentThread();
+
+		robotThread = current;
+
+		// Must be cleared before we are seen as sleeping, so a wakeup from the battle cannot be lost
+		wakeupRequested = false;
+		isSleeping.set(true);
+		LockSupport.unpark(battleThread);
+
+		int spins = spinTries;
+
+		// An interrupt is expected when a round is ended, and is left set for the caller
+		while (!wakeupRequested && !current.isInterrupted()) {
+			if (spins > 0) {
+				spins--;
+			} else {
+				LockSupport.park(this);
+			}
+		}
+		isSleeping.set(false);
+		wakeups++;
+		LockSupport.unpark(battleThread);
+	}
+
+	@Override
+	void waitWakeup() {
+		if (!isSleeping.get()) {
+			return;
+		}
+		final Thread current = Thread.currentThread();
+
+		battleThread = current;
+
+		final int generation = wakeups;
+
+		wakeupRequested = true;
+		LockSupport.unpark(robotThread);
+
+		final long deadline = System.nanoTime() + WAKEUP_TIMEOUT_NANOS;
+		int spins = spinTries;
+
+		while (wakeups == generation && !current.isInterrupted()) {
+			if (spins > 0) {
+				spins--;
+				continue;
+			}
+			final long remaining = deadline - System.nanoTime();
+
+			if (remaining <= 0) {
+				break;
+			}
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	@Override
+	void wakeupNoWait() {
+		if (isSleeping.get()) {
+			wakeupRequested = true;
+			LockSupport.unpark(robotThread);
+		}
+	}
+
+	@Override
+	void waitSleeping(long millisWait, int nanosWait) {
+		waitSleeping(millisWait, nanosWait, true);
+	}
+
+	@Override
+	void waitStarted(long millisWait, int nanosWait) {
+		waitSleeping(millisWait, nanosWait, false);
+	}
+
+	@Override
+	void robotStopped() {
+		LockSupport.unpark(battleThread);
+	}
+
+	private void waitSleeping(long millisWait, int nanosWait, boolean isRunningRequired) {
+		final Thread current = Thread.currentThread();
+
+		battleThread = current;
+
+		final long deadline = System.nanoTime() + millisWait * 1000000L + nanosWait;
+		int spins = spinTries;
+
+		// It's quite possible for simple robots to
+		// complete their processing before we get here,
+		// so we test if the robot is already asleep.
+		while (!isSleeping.get() && (peer.isRunning() || !isRunningRequired)) {
+			if (current.isInterrupted()) {
+				logMessage("Wait for " + peer.getName() + " interrupted.");
+				break;
+			}
+			if (spins > 0) {
+				spins--;
+				continue;
+			}
+			final long remaining = deadline - System.nanoTime();
+
+			if (remaining <= 0) {
+				break;
+			}
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+}
@@ -14,7 +14,6 @@ import net.sf.robocode.battle.BoundingRectangle;
 import net.sf.robocode.host.IHostManager;
 import net.sf.robocode.host.RobotStatics;
 import net.sf.robocode.host.events.EventManager;
-import net.sf.robocode.host.events.EventQueue;
 import net.sf.robocode.host.proxies.IHostingRobotProxy;
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.peer.*;
@@ -22,7 +21,6 @@ import net.sf.robocode.repository.IRobotItem;
 import net.sf.robocode.security.HiddenAccess;
 import net.sf.robocode.serialization.RbSerializer;
 import robocode.*;
-import robocode.control.RandomFactory;
 import robocode.control.RobotSetup;
 import robocode.control.RobotSpecification;
 import robocode.control.snapshot.BulletState;
@@ -35,6 +33,8 @@ import static robocode.util.Utils.*;
 import java.awt.geom.Arc2D;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 
 import static java.lang.Math.*;
 
@@ -83,7 +83,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private IHostingRobotProxy robotProxy;
 	private AtomicReference<RobotStatus> status = new AtomicReference<RobotStatus>();
 	private AtomicReference<ExecCommands> commands = new AtomicReference<ExecCommands>();
-	private AtomicReference<EventQueue> events = new AtomicReference<EventQueue>(new EventQueue());
+	private AtomicReference<List<Event>> events = new AtomicReference<List<Event>>(new ArrayList<Event>());
+	// The events handed to the robot in the previous turn, which are reused for the next turn
+	private List<Event> readoutEventsSpare = new ArrayList<Event>();
 	private AtomicReference<List<TeamMessage>> teamMessages = new AtomicReference<List<TeamMessage>>(
 			new ArrayList<TeamMessage>());
 	private AtomicReference<List<BulletStatus>> bulletUpdates = new AtomicReference<List<BulletStatus>>(
@@ -121,8 +123,15 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	// waiting for next tick
 	private final AtomicBoolean isSleeping = new AtomicBoolean(false);
+	private final TurnHandoff turnHandoff;
 	private final AtomicBoolean halt = new AtomicBoolean(false);
 
+	// CPU time accounting of the robot thread, see waitSleepingCpuTime()
+	private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	private volatile long robotThreadId = -1;
+	private long turnStartCpuTime = -1;
+	private final CpuTimeHistogram cpuTimeHistogram = new CpuTimeHistogram();
+
 	// last and current execution time and detecting skipped turns
 	private int lastExecutionTime = -1;
 	private int currentExecutionTime;
@@ -136,6 +145,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private RobotState state;
 	private final Arc2D scanArc;
 	private final BoundingRectangle boundingBox;
+	private final SpatialGrid.Entry gridEntry = new SpatialGrid.Entry();
 	private final RbSerializer rbSerializer;
 
 	public RobotPeer(Battle battle, IHostManager hostManager, RobotSpecification robotSpecification, int duplicate, TeamPeer team, int robotIndex) {
@@ -175,6 +185,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		this.statics = new RobotStatics(robotSpecification, duplicate, isTeamLeader, battleRules, teamName, teamMembers,
 				robotIndex, teamIndex);
 		this.statistics = new RobotStatistics(this, battle.getRobotsCount());
+		this.turnHandoff = TurnHandoff.create(battle.getTurnHandoff(), this, isSleeping);
 
 		this.robotProxy = (IHostingRobotProxy) hostManager.createRobotProxy(robotSpecification, statics, this);
 	}
@@ -187,6 +198,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	private void print(String s) {
+		if (s == null || s.length() == 0) { // Most robots print nothing in most turns
+			return;
+		}
 		synchronized (proxyText) {
 			proxyText.append(s);
 		}
@@ -194,6 +208,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	public String readOutText() {
 		synchronized (proxyText) {
+			if (battleText.length() == 0 && proxyText.length() == 0) {
+				return "";
+			}
 			final String robotText = battleText.toString() + proxyText.toString();
 
 			battleText.setLength(0);
@@ -202,6 +219,13 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 	}
 
+	public void clearOutText() {
+		synchronized (proxyText) {
+			battleText.setLength(0);
+			proxyText.setLength(0);
+		}
+	}
+
 	public RobotStatistics getRobotStatistics() {
 		return statistics;
 	}
@@ -433,6 +457,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	public void setupThread() {
 		Thread.currentThread().setName(getName());
+		robotThreadId = Thread.currentThread().getId();
 	}
 
 	public void executeImplSerial() throws IOException {
@@ -534,7 +559,12 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	private List<Event> readoutEvents() {
-		return events.getAndSet(new EventQueue());
+		// The robot is done with the previously returned events, as it has consumed them before this call
+		final List<Event> spare = readoutEventsSpare;
+
+		spare.clear();
+		readoutEventsSpare = events.getAndSet(spare);
+		return readoutEventsSpare;
 	}
 
 	private List<TeamMessage> readoutTeamMessages() {
@@ -546,29 +576,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	private void waitForNextTurn() {
-		synchronized (isSleeping) {
-			// Notify the battle that we are now asleep.
-			// This ends any pending wait() call in battle.runRound().
-			// Should not actually take place until we release the lock in wait(), below.
-			isSleeping.set(true);
-			isSleeping.notifyAll();
-			// Notifying battle that we're asleep
-			// Sleeping and waiting for battle to wake us up.
-			try {
-				isSleeping.wait();
-			} catch (InterruptedException e) {
-				// We are expecting this to happen when a round is ended!
-
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-			}
-			isSleeping.set(false);
-			// Notify battle thread, which is waiting in
-			// our wakeup() call, to return.
-			// It's quite possible, by the way, that we'll be back in sleep (above)
-			// before the battle thread actually wakes up
-			isSleeping.notifyAll();
-		}
+		turnHandoff.waitForNextTurn();
 	}
 
 	// -----------
@@ -576,51 +584,81 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	// -----------
 
 	public void waitWakeup() {
-		synchronized (isSleeping) {
-			if (isSleeping()) {
-				// Wake up the thread
-				isSleeping.notifyAll();
-				try {
-					isSleeping.wait(10000);
-				} catch (InterruptedException e) {
-					// Immediately reasserts the exception by interrupting the caller thread itself
-					Thread.currentThread().interrupt();
-				}
-			}
+		if (battle.isCpuTimeOn()) {
+			turnStartCpuTime = getRobotCpuTime();
 		}
+		turnHandoff.waitWakeup();
 	}
 
 	private void waitWakeupNoWait() {
-		synchronized (isSleeping) {
-			if (isSleeping()) {
-				// Wake up the thread
-				isSleeping.notifyAll();
-			}
-		}
+		turnHandoff.wakeupNoWait();
 	}
 
 	public void waitSleeping(long millisWait, int nanosWait) {
-		synchronized (isSleeping) {
-			// It's quite possible for simple robots to
-			// complete their processing before we get here,
-			// so we test if the robot is already asleep.
-
-			if (!isSleeping()) {
-				try {
-					for (long i = millisWait; i > 0 && !isSleeping() && isRunning(); i--) {
-						isSleeping.wait(0, 999999);
-					}
-					if (!isSleeping() && isRunning()) {
-						isSleeping.wait(0, nanosWait);
-					}
-				} catch (InterruptedException e) {
-					// Immediately reasserts the exception by interrupting the caller thread itself
-					Thread.currentThread().interrupt();
+		turnHandoff.waitSleeping(millisWait, nanosWait);
+	}
 
-					logMessage("Wait for " + getName() + " interrupted.");
-				}
+	/**
+	 * Waits until the robot falls asleep, or has used up its CPU time for this turn, or the maximum time is up.
+	 * The CPU time of the robot thread is measured since it was woken up by {@link #waitWakeup()}, so the time
+	 * the robot thread is not scheduled, e.g. because other robots share the same core, does not count.
+	 *
+	 * @param cpuTimeNanos the CPU time the robot may use for this turn.
+	 * @param maxWaitNanos the maximum elapsed time to wait, which limits robots that wait instead of computing.
+	 */
+	public void waitSleepingCpuTime(long cpuTimeNanos, long maxWaitNanos) {
+		final long startCpuTime = turnStartCpuTime;
+
+		if (startCpuTime < 0) {
+			// The CPU time of the robot thread is not known yet
+			waitSleeping(maxWaitNanos / 1000000, (int) Math.max(1, maxWaitNanos % 1000000));
+			return;
+		}
+		final long deadline = System.nanoTime() + maxWaitNanos;
+		long usedCpuTime = 0;
+
+		while (!isSleeping() && isRunning()) {
+			// The robot thread cannot use more CPU time than the elapsed time, so it is not checked any sooner
+			final long waitNanos = Math.min(cpuTimeNanos - usedCpuTime, deadline - System.nanoTime());
+
+			if (waitNanos <= 0) {
+				break;
 			}
+			turnHandoff.waitSleeping(waitNanos / 1000000, (int) Math.max(1, waitNanos % 1000000));
+
+			final long cpuTime = getRobotCpuTime();
+
+			if (cpuTime < 0) {
+				break;
+			}
+			usedCpuTime = cpuTime - startCpuTime;
 		}
+		cpuTimeHistogram.add(getRobotCpuTime() - startCpuTime);
+	}
+
+	private long getRobotCpuTime() {
+		final long threadId = robotThreadId;
+
+		return threadId < 0 ? -1 : threadMXBean.getThreadCpuTime(threadId);
+	}
+
+	/**
+	 * Checks if the CPU time of robot threads can be measured, and enables the measurement if needed.
+	 *
+	 * @return true if the CPU time of robot threads can be measured; false otherwise.
+	 */
+	public static boolean enableCpuTime() {
+		if (!threadMXBean.isThreadCpuTimeSupported()) {
+			return false;
+		}
+		if (!threadMXBean.isThreadCpuTimeEnabled()) {
+			threadMXBean.setThreadCpuTimeEnabled(true);
+		}
+		return true;
+	}
+
+	public CpuTimeHistogram getCpuTimeHistogram() {
+		return cpuTimeHistogram;
 	}
 
 	public void checkSkippedTurn() {
@@ -630,7 +668,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 		int numSkippedTurns = (currentExecutionTime - lastExecutionTime) - 1;
 		if (numSkippedTurns >= 1) {
-			events.get().clear(false);
+			clearEvents(events.get(), Long.MAX_VALUE);
 
 			if (isAlive()) {
 				for (int skippedTurn = lastExecutionTime + 1; skippedTurn < currentExecutionTime; skippedTurn++) {
@@ -671,7 +709,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 
 		if (!valid) {
-			final Random random = RandomFactory.getRandom();
+			final Random random = battle.getRandom();
 
 			double maxWidth = battleRules.getBattlefieldWidth() - RobotPeer.WIDTH;
 			double maxHeight = battleRules.getBattlefieldHeight() - RobotPeer.HEIGHT;
@@ -806,19 +844,16 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 				battle.getRoundNum(), battle.getNumRounds(), battle.getTime());
 
 		status.set(stat);
+
+		// The robot thread is replaced between rounds, and tells its id when it starts running the round
+		robotThreadId = -1;
+		turnStartCpuTime = -1;
+
 		robotProxy.startRound(currentCommands, stat);
 
-		synchronized (isSleeping) {
-			try {
-				// Wait for the robot to go to sleep (take action)
-				isSleeping.wait(waitMillis, waitNanos);
-			} catch (InterruptedException e) {
-				logMessage("Wait for " + getName() + " interrupted.");
+		// Wait for the robot to go to sleep (take action)
+		turnHandoff.waitStarted(waitMillis, waitNanos);
 
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-			}
-		}
 		if (!isSleeping() && !battle.isDebugging()) {
 			logMessage("\n" + getName() + " still has not started after " + waitMillis + " ms... giving up.");
 		}
@@ -879,7 +914,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 	}
 
-	public final void performMove(List<RobotPeer> robots, double zapEnergy) {
+	public final void performMove(List<RobotPeer> robots, SpatialGrid robotGrid, double zapEnergy) {
 
 		// Reset robot state to active if it is not dead
 		if (isDead()) {
@@ -916,7 +951,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 
 		// Now check for robot collision
-		checkRobotCollision(robots);
+		checkRobotCollision(robots, robotGrid);
 		
 		// Scan false means robot did not call scan() manually.
 		// But if we're moving, scan
@@ -935,7 +970,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 	}
 
-	public void performScan(List<RobotPeer> robots) {
+	public void performScan(List<RobotPeer> robots, SpatialGrid robotGrid) {
 		if (isDead()) {
 			return;
 		}
@@ -943,7 +978,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		turnedRadarWithGun = false;
 		// scan
 		if (scan) {
-			scan(lastRadarHeading, robots);
+			scan(lastRadarHeading, robots, robotGrid);
 			turnedRadarWithGun = (lastGunHeading == lastRadarHeading) && (gunHeading == radarHeading);
 			scan = false;
 		}
@@ -1002,11 +1037,15 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		return otherRobot.getName();
 	}		
 
-	private void checkRobotCollision(List<RobotPeer> robots) {
+	private void checkRobotCollision(List<RobotPeer> robots, SpatialGrid robotGrid) {
 		inCollision = false;
 
+		final int mark = (robotGrid == null) ? 0 : robotGrid.query(boundingBox.getMinX(), boundingBox.getMinY(),
+				boundingBox.getMaxX(), boundingBox.getMaxY());
+
 		for (RobotPeer otherRobot : robots) {
 			if (!(otherRobot == null || otherRobot == this || otherRobot.isDead())
+					&& (robotGrid == null || otherRobot.isMarked(mark))
 					&& boundingBox.intersects(otherRobot.boundingBox)) {
 				// Bounce back
 				double angle = atan2(otherRobot.x - x, otherRobot.y - y);
@@ -1239,6 +1278,18 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		return battleRules.getBattlefieldWidth();
 	}
 
+	/**
+	 * Places the bounding box of the robot in the specified grid, or moves it if the robot is already in the grid.
+	 */
+	public void updateGridEntry(SpatialGrid robotGrid) {
+		robotGrid.update(gridEntry, boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMaxX(),
+				boundingBox.getMaxY());
+	}
+
+	boolean isMarked(int queryMark) {
+		return gridEntry.isMarked(queryMark);
+	}
+
 	private void updateBoundingBox() {
 		boundingBox.setRect(x - HALF_WIDTH_OFFSET, y - HALF_HEIGHT_OFFSET, WIDTH, HEIGHT);
 	}
@@ -1246,7 +1297,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	// TODO: Only add events to robots that are alive? + Remove checks if the Robot is alive before adding the event?
 	public void addEvent(Event event) {
 		if (isRunning()) {
-			final EventQueue queue = events.get();
+			final List<Event> queue = events.get();
 
 			if ((queue.size() > EventManager.MAX_QUEUE_SIZE)
 					&& !(event instanceof DeathEvent || event instanceof WinEvent || event instanceof SkippedTurnEvent)) {
@@ -1254,13 +1305,29 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 						"Not adding to " + statics.getShortName() + "'s queue, exceeded " + EventManager.MAX_QUEUE_SIZE
 						+ " events in queue.");
 				// clean up old stuff
-				queue.clear(battle.getTime() - EventManager.MAX_EVENT_STACK);
+				clearEvents(queue, battle.getTime() - EventManager.MAX_EVENT_STACK);
 			} else {
 				queue.add(event);
 			}
 		}
 	}
 
+	/**
+	 * Removes the events that are not critical, and which occurred at or before the specified time.
+	 */
+	private static void clearEvents(List<Event> queue, long clearTime) {
+		int kept = 0;
+
+		for (int i = 0; i < queue.size(); i++) {
+			final Event e = queue.get(i);
+
+			if ((e.getTime() > clearTime) || HiddenAccess.isCriticalEvent(e)) {
+				queue.set(kept++, e);
+			}
+		}
+		queue.subList(kept, queue.size()).clear();
+	}
+
 	private void updateGunHeading() {
 		if (currentCommands.getGunTurnRemaining() > 0) {
 			if (currentCommands.getGunTurnRemaining() < Rules.GUN_TURN_RATE_RADIANS) {
@@ -1512,7 +1579,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 	}
 
-	private void scan(double lastRadarHeading, List<RobotPeer> robots) {
+	private void scan(double lastRadarHeading, List<RobotPeer> robots, SpatialGrid robotGrid) {
 		if (statics.isDroid()) {
 			return;
 		}
@@ -1537,8 +1604,19 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		scanArc.setArc(x - Rules.RADAR_SCAN_RADIUS, y - Rules.RADAR_SCAN_RADIUS, 2 * Rules.RADAR_SCAN_RADIUS,
 				2 * Rules.RADAR_SCAN_RADIUS, 180.0 * startAngle / PI, 180.0 * scanRadians / PI, Arc2D.PIE);
 
+		int mark = 0;
+
+		if (robotGrid != null) {
+			// The bounds of a pie also contain its center, so they cover the radar line too
+			final Rectangle2D scanBounds = scanArc.getBounds2D();
+
+			mark = robotGrid.query(scanBounds.getMinX(), scanBounds.getMinY(), scanBounds.getMaxX(),
+					scanBounds.getMaxY());
+		}
+
 		for (RobotPeer otherRobot : robots) {
 			if (!(otherRobot == null || otherRobot == this || otherRobot.isDead())
+					&& (robotGrid == null || otherRobot.isMarked(mark))
 					&& intersects(scanArc, otherRobot.boundingBox)) {
 				double dx = otherRobot.x - x;
 				double dy = otherRobot.y - y;
@@ -1574,7 +1652,14 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	public void setRunning(boolean value) {
+		if (value) {
+			// Called on the robot thread when it starts running the round
+			robotThreadId = Thread.currentThread().getId();
+		}
 		isRunning.set(value);
+		if (!value) {
+			turnHandoff.robotStopped();
+		}
 	}
 
 	public void drainEnergy() {
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Uniform grid over the battlefield used as a broad phase for collision and scan checks.
+ * <p>
+ * The grid never decides whether two objects collide. A query only marks the entries that are
+ * located in the cells covered by the queried area, and the caller still walks its list of robots
+ * or bullets in the same (random) order as before, skipping the entries that were not marked.
+ * Hence the exact intersection tests and the fair-play ordering of the battle are left untouched.
+ * <p>
+ * Objects placed outside the battlefield are clamped into the border cells, which keeps the
+ * queries conservative.
+ */
+public final class SpatialGrid {
+
+	private static final double CELL_SIZE = 64;
+
+	// Margin added to all queried areas to rule out rounding differences against the exact tests
+	private static final double MARGIN = 1;
+
+	private final int columns;
+	private final int rows;
+	private final List<Entry>[] cells;
+
+	private int currentMark;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public SpatialGrid(double battlefieldWidth, double battlefieldHeight) {
+		columns = Math.max(1, (int) Math.ceil(battlefieldWidth / CELL_SIZE));
+		rows = Math.max(1, (int) Math.ceil(battlefieldHeight / CELL_SIZE));
+		cells = new List[columns * rows];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = new ArrayList<Entry>();
+		}
+	}
+
+	/**
+	 * Removes all entries from the grid.
+	 */
+	public void clear() {
+		for (List<Entry> cell : cells) {
+			for (Entry entry : cell) {
+				entry.indexed = false;
+			}
+			cell.clear();
+		}
+	}
+
+	/**
+	 * Places the entry in all cells covered by the specified area, or moves it if it is already indexed.
+	 */
+	void update(Entry entry, double minX, double minY, double maxX, double maxY) {
+		final int minColumn = column(minX);
+		final int maxColumn = column(maxX);
+		final int minRow = row(minY);
+		final int maxRow = row(maxY);
+
+		if (entry.indexed) {
+			if (entry.minColumn == minColumn && entry.maxColumn == maxColumn && entry.minRow == minRow
+					&& entry.maxRow == maxRow) {
+				return;
+			}
+			remove(entry);
+		}
+		entry.minColumn = minColumn;
+		entry.maxColumn = maxColumn;
+		entry.minRow = minRow;
+		entry.maxRow = maxRow;
+
+		for (int r = minRow; r <= maxRow; r++) {
+			for (int c = minColumn; c <= maxColumn; c++) {
+				cells[r * columns + c].add(entry);
+			}
+		}
+		entry.indexed = true;
+	}
+
+	/**
+	 * Removes the entry from the grid, if it is indexed.
+	 */
+	void remove(Entry entry) {
+		if (!entry.indexed) {
+			return;
+		}
+		for (int r = entry.minRow; r <= entry.maxRow; r++) {
+			for (int c = entry.minColumn; c <= entry.maxColumn; c++) {
+				cells[r * columns + c].remove(entry);
+			}
+		}
+		entry.indexed = false;
+	}
+
+	/**
+	 * Marks all entries that might overlap the specified area.
+	 *
+	 * @return the mark to check candidates against with {@link Entry#isMarked(int)}.
+	 */
+	int query(double minX, double minY, double maxX, double maxY) {
+		final int mark = ++currentMark;
+
+		final int minColumn = column(minX - MARGIN);
+		final int maxColumn = column(maxX + MARGIN);
+		final int minRow = row(minY - MARGIN);
+		final int maxRow = row(maxY + MARGIN);
+
+		for (int r = minRow; r <= maxRow; r++) {
+			for (int c = minColumn; c <= maxColumn; c++) {
+				for (Entry entry : cells[r * columns + c]) {
+					entry.mark = mark;
+				}
+			}
+		}
+		return mark;
+	}
+
+	private int column(double x) {
+		return clamp((int) Math.floor(x / CELL_SIZE), columns);
+	}
+
+	private int row(double y) {
+		return clamp((int) Math.floor(y / CELL_SIZE), rows);
+	}
+
+	private static int clamp(int index, int count) {
+		return index < 0 ? 0 : (index >= count ? count - 1 : index);
+	}
+
+	/**
+	 * The grid position of a single robot or bullet.
+	 */
+	static final class Entry {
+		private boolean indexed;
+		private int minColumn;
+		private int maxColumn;
+		private int minRow;
+		private int maxRow;
+		private int mark;
+
+		boolean isMarked(int queryMark) {
+			return mark == queryMark;
+		}
+	}
+}
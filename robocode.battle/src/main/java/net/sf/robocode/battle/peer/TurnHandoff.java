@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import net.sf.robocode.io.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Strategy for handing the turn over between the battle thread and the thread of a robot.
+ * <p>
+ * The robot thread calls {@link #waitForNextTurn()} when it has executed its turn, and the battle thread
+ * wakes it with {@link #waitWakeup()} and waits for it to fall asleep again with
+ * {@link #waitSleeping(long, int)}. The strategy is selected with the {@code robocode.battle.turnHandoff}
+ * setting, or the {@code TURNHANDOFF} system property.
+ */
+abstract class TurnHandoff {
+
+	/**
+	 * Object.wait() / notifyAll() on the sleeping flag of the robot. This is the default.
+	 */
+	static final String MONITOR = "monitor";
+
+	/**
+	 * LockSupport.park() / unpark() of the waiting thread.
+	 */
+	static final String PARK = "park";
+
+	/**
+	 * Like {@link #PARK}, but the waiting thread spins for a short while before it parks.
+	 */
+	static final String SPIN = "spin";
+
+	private static final int SPIN_TRIES = 1000;
+
+	final RobotPeer peer;
+	final AtomicBoolean isSleeping;
+
+	TurnHandoff(RobotPeer peer, AtomicBoolean isSleeping) {
+		this.peer = peer;
+		this.isSleeping = isSleeping;
+	}
+
+	static TurnHandoff create(String mode, RobotPeer peer, AtomicBoolean isSleeping) {
+		if (PARK.equals(mode)) {
+			return new ParkingTurnHandoff(peer, isSleeping, 0);
+		}
+		if (SPIN.equals(mode)) {
+			return new ParkingTurnHandoff(peer, isSleeping, SPIN_TRIES);
+		}
+		if (mode != null && !MONITOR.equals(mode)) {
+			Logger.logError("Unknown turn handoff: " + mode + ", using " + MONITOR);
+		}
+		return new MonitorTurnHandoff(peer, isSleeping);
+	}
+
+	/**
+	 * Called on the robot thread. Marks the robot as sleeping and blocks until the battle wakes it up,
+	 * or until the robot thread is interrupted.
+	 */
+	abstract void waitForNextTurn();
+
+	/**
+	 * Called on the battle thread. Wakes up the robot if it is sleeping, and blocks until the robot thread
+	 * actually wakes up.
+	 */
+	abstract void waitWakeup();
+
+	/**
+	 * Called on the battle thread. Wakes up the robot if it is sleeping without waiting for it.
+	 */
+	abstract void wakeupNoWait();
+
+	/**
+	 * Called on the battle thread. Blocks until the robot falls asleep, stops running, or the time is up.
+	 */
+	abstract void waitSleeping(long millisWait, int nanosWait);
+
+	/**
+	 * Called on the battle thread when the round is started. Blocks until the robot falls asleep for the first
+	 * time, or the time is up. Unlike {@link #waitSleeping(long, int)}, it does not stop when the robot is not
+	 * running, as the robot is only set running by its own thread.
+	 */
+	abstract void waitStarted(long millisWait, int nanosWait);
+
+	/**
+	 * Called when the robot has stopped running, so the battle thread does not wait in
+	 * {@link #waitSleeping(long, int)} for a robot that will not fall asleep.
+	 */
+	abstract void robotStopped();
+}
@@ -20,6 +20,7 @@ import robocode.control.snapshot.BulletState;
 import robocode.control.snapshot.IBulletSnapshot;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -357,4 +358,169 @@ final class BulletSnapshot implements java.io.Serializable, IXmlSerializable, IB
 			}
 		});
 	}
+
+	private static final int STATE = 1;
+	private static final int POWER = 1 << 1;
+	private static final int X = 1 << 2;
+	private static final int Y = 1 << 3;
+	private static final int PAINT_POSITION = 1 << 4;
+	private static final int COLOR = 1 << 5;
+	private static final int FRAME = 1 << 6;
+	private static final int EXPLOSION = 1 << 7;
+	private static final int IDS = 1 << 8;
+	private static final int HEADING = 1 << 9;
+
+	private static final int ALL = STATE | POWER | X | Y | COLOR | FRAME | EXPLOSION | IDS | HEADING;
+
+	// The values a new bullet is decoded from
+	private static final BulletSnapshot EMPTY = new BulletSnapshot();
+
+	/**
+	 * Checks if the other snapshot is a snapshot of the same bullet or explosion.
+	 */
+	boolean isSameBullet(BulletSnapshot other) {
+		return bulletId == other.bulletId && ownerIndex == other.ownerIndex && isExplosion == other.isExplosion;
+	}
+
+	/**
+	 * Writes the fields that have changed since the previous snapshot of the bullet, or all fields if there is no
+	 * previous snapshot. The paint position is only written when it differs from the position of the bullet.
+	 */
+	void writeBinary(TurnSnapshotCodec codec, BulletSnapshot previous) {
+		final BulletSnapshot base = previous != null ? previous : EMPTY;
+		int mask = ALL;
+
+		if (previous != null) {
+			mask = 0;
+			if (state != previous.state) {
+				mask |= STATE;
+			}
+			if (TurnSnapshotCodec.changed(power, previous.power)) {
+				mask |= POWER;
+			}
+			if (TurnSnapshotCodec.changed(x, previous.x)) {
+				mask |= X;
+			}
+			if (TurnSnapshotCodec.changed(y, previous.y)) {
+				mask |= Y;
+			}
+			if (color != previous.color) {
+				mask |= COLOR;
+			}
+			if (frame != previous.frame) {
+				mask |= FRAME;
+			}
+			if (explosionImageIndex != previous.explosionImageIndex) {
+				mask |= EXPLOSION;
+			}
+			if (victimIndex != previous.victimIndex) {
+				mask |= IDS;
+			}
+			if (TurnSnapshotCodec.changed(heading, previous.heading)) {
+				mask |= HEADING;
+			}
+		}
+		if (TurnSnapshotCodec.changed(paintX, x) || TurnSnapshotCodec.changed(paintY, y)) {
+			mask |= PAINT_POSITION;
+		}
+
+		codec.putVarInt(mask);
+		if ((mask & STATE) != 0) {
+			codec.putByte(state.getValue());
+		}
+		if ((mask & POWER) != 0) {
+			codec.putDouble(power, base.power);
+		}
+		if ((mask & X) != 0) {
+			codec.putDouble(x, base.x);
+		}
+		if ((mask & Y) != 0) {
+			codec.putDouble(y, base.y);
+		}
+		if ((mask & PAINT_POSITION) != 0) {
+			codec.putDouble(paintX, x);
+			codec.putDouble(paintY, y);
+		}
+		if ((mask & COLOR) != 0) {
+			codec.putInt(color);
+		}
+		if ((mask & FRAME) != 0) {
+			codec.putVarInt(frame);
+		}
+		if ((mask & EXPLOSION) != 0) {
+			codec.putByte(isExplosion ? 1 : 0);
+			codec.putVarInt(explosionImageIndex);
+		}
+		if ((mask & IDS) != 0) {
+			codec.putVarInt(bulletId);
+			codec.putVarInt(ownerIndex);
+			codec.putVarInt(victimIndex);
+		}
+		if ((mask & HEADING) != 0) {
+			codec.putDouble(heading, base.heading);
+		}
+	}
+
+	static BulletSnapshot readBinary(ByteBuffer buffer, BulletSnapshot previous) {
+		final BulletSnapshot snapshot = new BulletSnapshot();
+		final int mask = TurnSnapshotCodec.getVarInt(buffer);
+
+		if (previous != null) {
+			snapshot.state = previous.state;
+			snapshot.power = previous.power;
+			snapshot.x = previous.x;
+			snapshot.y = previous.y;
+			snapshot.color = previous.color;
+			snapshot.frame = previous.frame;
+			snapshot.isExplosion = previous.isExplosion;
+			snapshot.explosionImageIndex = previous.explosionImageIndex;
+			snapshot.bulletId = previous.bulletId;
+			snapshot.ownerIndex = previous.ownerIndex;
+			snapshot.victimIndex = previous.victimIndex;
+			snapshot.heading = previous.heading;
+		} else if ((mask & ALL) != ALL) {
+			throw new IllegalArgumentException("Incomplete bullet without a previous bullet");
+		}
+		if ((mask & STATE) != 0) {
+			snapshot.state = BulletState.toState(buffer.get());
+		}
+		if ((mask & POWER) != 0) {
+			snapshot.power = TurnSnapshotCodec.getDouble(buffer, snapshot.power);
+		}
+		if ((mask & X) != 0) {
+			snapshot.x = TurnSnapshotCodec.getDouble(buffer, snapshot.x);
+		}
+		if ((mask & Y) != 0) {
+			snapshot.y = TurnSnapshotCodec.getDouble(buffer, snapshot.y);
+		}
+		if ((mask & PAINT_POSITION) != 0) {
+			snapshot.paintX = TurnSnapshotCodec.getDouble(buffer, snapshot.x);
+			snapshot.paintY = TurnSnapshotCodec.getDouble(buffer, snapshot.y);
+		} else {
+			snapshot.paintX = snapshot.x;
+			snapshot.paintY = snapshot.y;
+		}
+		if ((mask & COLOR) != 0) {
+			snapshot.color = buffer.getInt();
+		}
+		if ((mask & FRAME) != 0) {
+			snapshot.frame = TurnSnapshotCodec.getVarInt(buffer);
+		}
+		if ((mask & EXPLOSION) != 0) {
+			snapshot.isExplosion = buffer.get() != 0;
+			snapshot.explosionImageIndex = TurnSnapshotCodec.getVarInt(buffer);
+		}
+		if ((mask & IDS) != 0) {
+			snapshot.bulletId = TurnSnapshotCodec.getVarInt(buffer);
+			snapshot.ownerIndex = TurnSnapshotCodec.getVarInt(buffer);
+			snapshot.victimIndex = TurnSnapshotCodec.getVarInt(buffer);
+		}
+		if ((mask & HEADING) != 0) {
+			snapshot.heading = TurnSnapshotCodec.getDouble(buffer, snapshot.heading);
+		}
+		if (snapshot.state == null) {
+			throw new IllegalArgumentException("Invalid bullet state");
+		}
+		return snapshot;
+	}
 }
@@ -22,6 +22,7 @@ import robocode.control.snapshot.RobotState;
 import java.awt.geom.Arc2D;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -694,6 +695,305 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 		});
 	}
 
+	private static final int NAMES = 1;
+	private static final int TEAM_INDEX = 1 << 1;
+	private static final int STATE = 1 << 2;
+	private static final int ENERGY = 1 << 3;
+	private static final int VELOCITY = 1 << 4;
+	private static final int GUN_HEAT = 1 << 5;
+	private static final int BODY_HEADING = 1 << 6;
+	private static final int GUN_HEADING = 1 << 7;
+	private static final int RADAR_HEADING = 1 << 8;
+	private static final int X = 1 << 9;
+	private static final int Y = 1 << 10;
+	private static final int COLORS = 1 << 11;
+	private static final int SCAN_ARC = 1 << 12;
+	private static final int SCORE = 1 << 13;
+
+	// Set when the data is present for the turn, as this data is not carried over from the previous turn
+	private static final int GRAPHICS_CALLS = 1 << 14;
+	private static final int DEBUG_PROPERTIES = 1 << 15;
+	private static final int OUTPUT = 1 << 16;
+
+	private static final int ALL = NAMES | TEAM_INDEX | STATE | ENERGY | VELOCITY | GUN_HEAT | BODY_HEADING | GUN_HEADING
+			| RADAR_HEADING | X | Y | COLORS | SCAN_ARC | SCORE;
+
+	// The values a new robot is decoded from
+	private static final RobotSnapshot EMPTY = new RobotSnapshot();
+	private static final SerializableArc EMPTY_ARC = new SerializableArc(0, 0, 0, 0, 0, 0, 0);
+
+	private static final int IS_DROID = 1;
+	private static final int IS_SENTRY_ROBOT = 1 << 1;
+	private static final int IS_PAINT_ROBOT = 1 << 2;
+	private static final int IS_PAINT_ENABLED = 1 << 3;
+	private static final int IS_SG_PAINT_ENABLED = 1 << 4;
+
+	/**
+	 * Writes the fields that have changed since the previous snapshot of the robot, or all fields if there is no
+	 * previous snapshot. The flags are always written, as the paint flags can be changed on a snapshot.
+	 */
+	void writeBinary(TurnSnapshotCodec codec, RobotSnapshot previous) {
+		final RobotSnapshot base = previous != null ? previous : EMPTY;
+		int mask = ALL;
+
+		if (previous != null) {
+			mask = 0;
+			if (TurnSnapshotCodec.changed(name, previous.name) || TurnSnapshotCodec.changed(shortName, previous.shortName)
+					|| TurnSnapshotCodec.changed(veryShortName, previous.veryShortName)
+					|| TurnSnapshotCodec.changed(teamName, previous.teamName)) {
+				mask |= NAMES;
+			}
+			if (teamIndex != previous.teamIndex) {
+				mask |= TEAM_INDEX;
+			}
+			if (state != previous.state) {
+				mask |= STATE;
+			}
+			if (TurnSnapshotCodec.changed(energy, previous.energy)) {
+				mask |= ENERGY;
+			}
+			if (TurnSnapshotCodec.changed(velocity, previous.velocity)) {
+				mask |= VELOCITY;
+			}
+			if (TurnSnapshotCodec.changed(gunHeat, previous.gunHeat)) {
+				mask |= GUN_HEAT;
+			}
+			if (TurnSnapshotCodec.changed(bodyHeading, previous.bodyHeading)) {
+				mask |= BODY_HEADING;
+			}
+			if (TurnSnapshotCodec.changed(gunHeading, previous.gunHeading)) {
+				mask |= GUN_HEADING;
+			}
+			if (TurnSnapshotCodec.changed(radarHeading, previous.radarHeading)) {
+				mask |= RADAR_HEADING;
+			}
+			if (TurnSnapshotCodec.changed(x, previous.x)) {
+				mask |= X;
+			}
+			if (TurnSnapshotCodec.changed(y, previous.y)) {
+				mask |= Y;
+			}
+			if (bodyColor != previous.bodyColor || gunColor != previous.gunColor || radarColor != previous.radarColor
+					|| scanColor != previous.scanColor) {
+				mask |= COLORS;
+			}
+			if (SerializableArc.changed(scanArc, previous.scanArc)) {
+				mask |= SCAN_ARC;
+			}
+			if (TurnSnapshotCodec.changed(robotScoreSnapshot, previous.robotScoreSnapshot)) {
+				mask |= SCORE;
+			}
+		}
+		if (graphicsCalls instanceof byte[]) {
+			mask |= GRAPHICS_CALLS;
+		}
+		if (debugProperties != null) {
+			mask |= DEBUG_PROPERTIES;
+		}
+		if (outputStreamSnapshot != null) {
+			mask |= OUTPUT;
+		}
+
+		codec.putVarInt(mask);
+		codec.putByte((isDroid ? IS_DROID : 0) | (isSentryRobot ? IS_SENTRY_ROBOT : 0)
+				| (isPaintRobot ? IS_PAINT_ROBOT : 0) | (isPaintEnabled ? IS_PAINT_ENABLED : 0)
+				| (isSGPaintEnabled ? IS_SG_PAINT_ENABLED : 0));
+
+		if ((mask & NAMES) != 0) {
+			codec.putString(name);
+			codec.putString(shortName);
+			codec.putString(veryShortName);
+			codec.putString(teamName);
+		}
+		if ((mask & TEAM_INDEX) != 0) {
+			codec.putVarInt(teamIndex);
+		}
+		if ((mask & STATE) != 0) {
+			codec.putByte(state.getValue());
+		}
+		if ((mask & ENERGY) != 0) {
+			codec.putDouble(energy, base.energy);
+		}
+		if ((mask & VELOCITY) != 0) {
+			codec.putDouble(velocity, base.velocity);
+		}
+		if ((mask & GUN_HEAT) != 0) {
+			codec.putDouble(gunHeat, base.gunHeat);
+		}
+		if ((mask & BODY_HEADING) != 0) {
+			codec.putDouble(bodyHeading, base.bodyHeading);
+		}
+		if ((mask & GUN_HEADING) != 0) {
+			codec.putDouble(gunHeading, base.gunHeading);
+		}
+		if ((mask & RADAR_HEADING) != 0) {
+			codec.putDouble(radarHeading, base.radarHeading);
+		}
+		if ((mask & X) != 0) {
+			codec.putDouble(x, base.x);
+		}
+		if ((mask & Y) != 0) {
+			codec.putDouble(y, base.y);
+		}
+		if ((mask & COLORS) != 0) {
+			codec.putInt(bodyColor);
+			codec.putInt(gunColor);
+			codec.putInt(radarColor);
+			codec.putInt(scanColor);
+		}
+		if ((mask & SCAN_ARC) != 0) {
+			if (scanArc == null) {
+				codec.putByte(0);
+			} else {
+				final SerializableArc baseArc = base.scanArc != null ? base.scanArc : EMPTY_ARC;
+
+				codec.putByte(1);
+				codec.putDouble(scanArc.x, baseArc.x);
+				codec.putDouble(scanArc.y, baseArc.y);
+				codec.putDouble(scanArc.w, baseArc.w);
+				codec.putDouble(scanArc.h, baseArc.h);
+				codec.putDouble(scanArc.start, baseArc.start);
+				codec.putDouble(scanArc.extent, baseArc.extent);
+				codec.putVarInt(scanArc.type);
+			}
+		}
+		if ((mask & SCORE) != 0) {
+			((ScoreSnapshot) robotScoreSnapshot).writeBinary(codec, (ScoreSnapshot) base.robotScoreSnapshot);
+		}
+		if ((mask & GRAPHICS_CALLS) != 0) {
+			codec.putBytes((byte[]) graphicsCalls);
+		}
+		if ((mask & DEBUG_PROPERTIES) != 0) {
+			codec.putVarInt(debugProperties.length);
+			for (DebugProperty property : debugProperties) {
+				codec.putString(property.getKey());
+				codec.putString(property.getValue());
+			}
+		}
+		if ((mask & OUTPUT) != 0) {
+			codec.putString(outputStreamSnapshot);
+		}
+	}
+
+	static RobotSnapshot readBinary(ByteBuffer buffer, int robotIndex, RobotSnapshot previous) {
+		final RobotSnapshot snapshot = new RobotSnapshot();
+		final int mask = TurnSnapshotCodec.getVarInt(buffer);
+		final int flags = buffer.get();
+
+		snapshot.robotIndex = robotIndex;
+		if (previous != null) {
+			snapshot.name = previous.name;
+			snapshot.shortName = previous.shortName;
+			snapshot.veryShortName = previous.veryShortName;
+			snapshot.teamName = previous.teamName;
+			snapshot.teamIndex = previous.teamIndex;
+			snapshot.state = previous.state;
+			snapshot.energy = previous.energy;
+			snapshot.velocity = previous.velocity;
+			snapshot.gunHeat = previous.gunHeat;
+			snapshot.bodyHeading = previous.bodyHeading;
+			snapshot.gunHeading = previous.gunHeading;
+			snapshot.radarHeading = previous.radarHeading;
+			snapshot.x = previous.x;
+			snapshot.y = previous.y;
+			snapshot.bodyColor = previous.bodyColor;
+			snapshot.gunColor = previous.gunColor;
+			snapshot.radarColor = previous.radarColor;
+			snapshot.scanColor = previous.scanColor;
+			snapshot.scanArc = previous.scanArc;
+			snapshot.robotScoreSnapshot = previous.robotScoreSnapshot;
+		} else if ((mask & ALL) != ALL) {
+			throw new IllegalArgumentException("Incomplete robot without a previous robot");
+		}
+
+		snapshot.isDroid = (flags & IS_DROID) != 0;
+		snapshot.isSentryRobot = (flags & IS_SENTRY_ROBOT) != 0;
+		snapshot.isPaintRobot = (flags & IS_PAINT_ROBOT) != 0;
+		snapshot.isPaintEnabled = (flags & IS_PAINT_ENABLED) != 0;
+		snapshot.isSGPaintEnabled = (flags & IS_SG_PAINT_ENABLED) != 0;
+
+		if ((mask & NAMES) != 0) {
+			snapshot.name = TurnSnapshotCodec.getString(buffer);
+			snapshot.shortName = TurnSnapshotCodec.getString(buffer);
+			snapshot.veryShortName = TurnSnapshotCodec.getString(buffer);
+			snapshot.teamName = TurnSnapshotCodec.getString(buffer);
+		}
+		if ((mask & TEAM_INDEX) != 0) {
+			snapshot.teamIndex = TurnSnapshotCodec.getVarInt(buffer);
+		}
+		if ((mask & STATE) != 0) {
+			snapshot.state = RobotState.toState(buffer.get());
+			if (snapshot.state == null) {
+				throw new IllegalArgumentException("Invalid robot state");
+			}
+		}
+		if ((mask & ENERGY) != 0) {
+			snapshot.energy = TurnSnapshotCodec.getDouble(buffer, snapshot.energy);
+		}
+		if ((mask & VELOCITY) != 0) {
+			snapshot.velocity = TurnSnapshotCodec.getDouble(buffer, snapshot.velocity);
+		}
+		if ((mask & GUN_HEAT) != 0) {
+			snapshot.gunHeat = TurnSnapshotCodec.getDouble(buffer, snapshot.gunHeat);
+		}
+		if ((mask & BODY_HEADING) != 0) {
+			snapshot.bodyHeading = TurnSnapshotCodec.getDouble(buffer, snapshot.bodyHeading);
+		}
+		if ((mask & GUN_HEADING) != 0) {
+			snapshot.gunHeading = TurnSnapshotCodec.getDouble(buffer, snapshot.gunHeading);
+		}
+		if ((mask & RADAR_HEADING) != 0) {
+			snapshot.radarHeading = TurnSnapshotCodec.getDouble(buffer, snapshot.radarHeading);
+		}
+		if ((mask & X) != 0) {
+			snapshot.x = TurnSnapshotCodec.getDouble(buffer, snapshot.x);
+		}
+		if ((mask & Y) != 0) {
+			snapshot.y = TurnSnapshotCodec.getDouble(buffer, snapshot.y);
+		}
+		if ((mask & COLORS) != 0) {
+			snapshot.bodyColor = buffer.getInt();
+			snapshot.gunColor = buffer.getInt();
+			snapshot.radarColor = buffer.getInt();
+			snapshot.scanColor = buffer.getInt();
+		}
+		if ((mask & SCAN_ARC) != 0) {
+			if (buffer.get() == 0) {
+				snapshot.scanArc = null;
+			} else {
+				final SerializableArc baseArc = snapshot.scanArc != null ? snapshot.scanArc : EMPTY_ARC;
+
+				snapshot.scanArc = new SerializableArc(TurnSnapshotCodec.getDouble(buffer, baseArc.x),
+						TurnSnapshotCodec.getDouble(buffer, baseArc.y), TurnSnapshotCodec.getDouble(buffer, baseArc.w),
+						TurnSnapshotCodec.getDouble(buffer, baseArc.h), TurnSnapshotCodec.getDouble(buffer, baseArc.start),
+						TurnSnapshotCodec.getDouble(buffer, baseArc.extent), TurnSnapshotCodec.getVarInt(buffer));
+			}
+		}
+		if ((mask & SCORE) != 0) {
+			snapshot.robotScoreSnapshot = ScoreSnapshot.readBinary(buffer, (ScoreSnapshot) snapshot.robotScoreSnapshot);
+		}
+		if ((mask & GRAPHICS_CALLS) != 0) {
+			snapshot.graphicsCalls = TurnSnapshotCodec.getBytes(buffer);
+		}
+		if ((mask & DEBUG_PROPERTIES) != 0) {
+			final int count = TurnSnapshotCodec.getVarInt(buffer);
+
+			if (count < 0 || count > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid number of debug properties: " + count);
+			}
+			snapshot.debugProperties = new DebugProperty[count];
+			for (int i = 0; i < count; i++) {
+				final String key = TurnSnapshotCodec.getString(buffer);
+
+				snapshot.debugProperties[i] = new DebugProperty(key, TurnSnapshotCodec.getString(buffer));
+			}
+		}
+		if ((mask & OUTPUT) != 0) {
+			snapshot.outputStreamSnapshot = TurnSnapshotCodec.getString(buffer);
+		}
+		return snapshot;
+	}
+
 	/**
 	 * Class used for serializing an Arc2D.double.
 	 * The purpose of this class is to overcome various serialization problems with Arc2D to cope with bug in Java 6:
@@ -722,8 +1022,28 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 			type = arc.getArcType();
 		}
 
+		SerializableArc(double x, double y, double w, double h, double start, double extent, int type) {
+			this.x = x;
+			this.y = y;
+			this.w = w;
+			this.h = h;
+			this.start = start;
+			this.extent = extent;
+			this.type = type;
+		}
+
 		public Arc2D create() {
 			return new Arc2D.Double(x, y, w, h, start, extent, type);
 		}
+
+		static boolean changed(SerializableArc arc, SerializableArc previous) {
+			if (arc == null || previous == null) {
+				return arc != previous;
+			}
+			return TurnSnapshotCodec.changed(arc.x, previous.x) || TurnSnapshotCodec.changed(arc.y, previous.y)
+					|| TurnSnapshotCodec.changed(arc.w, previous.w) || TurnSnapshotCodec.changed(arc.h, previous.h)
+					|| TurnSnapshotCodec.changed(arc.start, previous.start)
+					|| TurnSnapshotCodec.changed(arc.extent, previous.extent) || arc.type != previous.type;
+		}
 	}
 }
@@ -17,6 +17,7 @@ import robocode.control.snapshot.IScoreSnapshot;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -444,6 +445,60 @@ final class ScoreSnapshot implements Serializable, IXmlSerializable, IScoreSnaps
 		});
 	}
 
+	// The values a score is written against when there is no previous score
+	private static final ScoreSnapshot EMPTY = new ScoreSnapshot();
+
+	/**
+	 * Writes all fields of the score. The doubles are written against the previous score, if any.
+	 */
+	void writeBinary(TurnSnapshotCodec codec, ScoreSnapshot previous) {
+		final ScoreSnapshot base = previous != null ? previous : EMPTY;
+
+		codec.putString(name);
+		codec.putDouble(totalScore, base.totalScore);
+		codec.putDouble(totalSurvivalScore, base.totalSurvivalScore);
+		codec.putDouble(totalLastSurvivorBonus, base.totalLastSurvivorBonus);
+		codec.putDouble(totalBulletDamageScore, base.totalBulletDamageScore);
+		codec.putDouble(totalBulletKillBonus, base.totalBulletKillBonus);
+		codec.putDouble(totalRammingDamageScore, base.totalRammingDamageScore);
+		codec.putDouble(totalRammingKillBonus, base.totalRammingKillBonus);
+		codec.putVarInt(totalFirsts);
+		codec.putVarInt(totalSeconds);
+		codec.putVarInt(totalThirds);
+		codec.putDouble(currentScore, base.currentScore);
+		codec.putDouble(currentSurvivalScore, base.currentSurvivalScore);
+		codec.putDouble(currentSurvivalBonus, base.currentSurvivalBonus);
+		codec.putDouble(currentBulletDamageScore, base.currentBulletDamageScore);
+		codec.putDouble(currentBulletKillBonus, base.currentBulletKillBonus);
+		codec.putDouble(currentRammingDamageScore, base.currentRammingDamageScore);
+		codec.putDouble(currentRammingKillBonus, base.currentRammingKillBonus);
+	}
+
+	static ScoreSnapshot readBinary(ByteBuffer buffer, ScoreSnapshot previous) {
+		final ScoreSnapshot base = previous != null ? previous : EMPTY;
+		final ScoreSnapshot snapshot = new ScoreSnapshot();
+
+		snapshot.name = TurnSnapshotCodec.getString(buffer);
+		snapshot.totalScore = TurnSnapshotCodec.getDouble(buffer, base.totalScore);
+		snapshot.totalSurvivalScore = TurnSnapshotCodec.getDouble(buffer, base.totalSurvivalScore);
+		snapshot.totalLastSurvivorBonus = TurnSnapshotCodec.getDouble(buffer, base.totalLastSurvivorBonus);
+		snapshot.totalBulletDamageScore = TurnSnapshotCodec.getDouble(buffer, base.totalBulletDamageScore);
+		snapshot.totalBulletKillBonus = TurnSnapshotCodec.getDouble(buffer, base.totalBulletKillBonus);
+		snapshot.totalRammingDamageScore = TurnSnapshotCodec.getDouble(buffer, base.totalRammingDamageScore);
+		snapshot.totalRammingKillBonus = TurnSnapshotCodec.getDouble(buffer, base.totalRammingKillBonus);
+		snapshot.totalFirsts = TurnSnapshotCodec.getVarInt(buffer);
+		snapshot.totalSeconds = TurnSnapshotCodec.getVarInt(buffer);
+		snapshot.totalThirds = TurnSnapshotCodec.getVarInt(buffer);
+		snapshot.currentScore = TurnSnapshotCodec.getDouble(buffer, base.currentScore);
+		snapshot.currentSurvivalScore = TurnSnapshotCodec.getDouble(buffer, base.currentSurvivalScore);
+		snapshot.currentSurvivalBonus = TurnSnapshotCodec.getDouble(buffer, base.currentSurvivalBonus);
+		snapshot.currentBulletDamageScore = TurnSnapshotCodec.getDouble(buffer, base.currentBulletDamageScore);
+		snapshot.currentBulletKillBonus = TurnSnapshotCodec.getDouble(buffer, base.currentBulletKillBonus);
+		snapshot.currentRammingDamageScore = TurnSnapshotCodec.getDouble(buffer, base.currentRammingDamageScore);
+		snapshot.currentRammingKillBonus = TurnSnapshotCodec.getDouble(buffer, base.currentRammingKillBonus);
+		return snapshot;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
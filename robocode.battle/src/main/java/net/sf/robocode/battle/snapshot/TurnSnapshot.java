@@ -18,6 +18,7 @@ import net.sf.robocode.serialization.XmlWriter;
 import robocode.control.snapshot.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 
@@ -294,4 +295,122 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 			}
 		});
 	}
+
+	/**
+	 * Writes the turn as a keyframe if there is no previous turn, or otherwise as a delta against the previous turn.
+	 * The robots are matched with the robots at the same position of the previous turn, and the bullets are matched
+	 * with the same bullets of the previous turn, if any.
+	 */
+	void writeBinary(TurnSnapshotCodec codec, TurnSnapshot previous) {
+		codec.putByte(previous == null ? TurnSnapshotCodec.KEYFRAME : TurnSnapshotCodec.DELTA);
+		codec.putVarInt(tps);
+		codec.putVarInt(round);
+		codec.putVarInt(turn);
+
+		final List<IRobotSnapshot> previousRobots = previous == null ? null : previous.robots;
+
+		codec.putVarInt(robots.size());
+		for (int i = 0; i < robots.size(); i++) {
+			final RobotSnapshot robot = (RobotSnapshot) robots.get(i);
+
+			codec.putVarInt(robot.getRobotIndex());
+			robot.writeBinary(codec, previousRobot(previousRobots, i, robot.getRobotIndex()));
+		}
+
+		final List<IBulletSnapshot> previousBullets = previous == null || previous.bullets == null
+				? Collections.<IBulletSnapshot>emptyList()
+				: previous.bullets;
+
+		if (bullets == null) {
+			codec.putVarInt(0);
+			return;
+		}
+		codec.putVarInt(bullets.size());
+
+		// Bullets keep their order from turn to turn, so the search for the previous bullet starts after the last match
+		int next = 0;
+
+		for (IBulletSnapshot b : bullets) {
+			final BulletSnapshot bullet = (BulletSnapshot) b;
+			final int count = previousBullets.size();
+			int match = -1;
+
+			for (int i = 0; i < count; i++) {
+				final int index = (next + i) % count;
+
+				if (bullet.isSameBullet((BulletSnapshot) previousBullets.get(index))) {
+					match = index;
+					break;
+				}
+			}
+			codec.putVarInt(match);
+			if (match >= 0) {
+				next = match + 1;
+				bullet.writeBinary(codec, (BulletSnapshot) previousBullets.get(match));
+			} else {
+				bullet.writeBinary(codec, null);
+			}
+		}
+	}
+
+	static TurnSnapshot readBinary(ByteBuffer buffer, TurnSnapshot previous) {
+		final byte kind = buffer.get();
+
+		if (kind == TurnSnapshotCodec.KEYFRAME) {
+			previous = null;
+		} else if (kind != TurnSnapshotCodec.DELTA || previous == null) {
+			throw new IllegalArgumentException("Delta turn without the previous turn");
+		}
+		final TurnSnapshot snapshot = new TurnSnapshot();
+
+		snapshot.tps = TurnSnapshotCodec.getVarInt(buffer);
+		snapshot.round = TurnSnapshotCodec.getVarInt(buffer);
+		snapshot.turn = TurnSnapshotCodec.getVarInt(buffer);
+
+		final List<IRobotSnapshot> previousRobots = previous == null ? null : previous.robots;
+		final int robotCount = count(buffer);
+
+		snapshot.robots = new ArrayList<IRobotSnapshot>(robotCount);
+		for (int i = 0; i < robotCount; i++) {
+			final int robotIndex = TurnSnapshotCodec.getVarInt(buffer);
+
+			snapshot.robots.add(
+					RobotSnapshot.readBinary(buffer, robotIndex, previousRobot(previousRobots, i, robotIndex)));
+		}
+
+		final int bulletCount = count(buffer);
+
+		snapshot.bullets = new ArrayList<IBulletSnapshot>(bulletCount);
+		for (int i = 0; i < bulletCount; i++) {
+			final int match = TurnSnapshotCodec.getVarInt(buffer);
+			BulletSnapshot previousBullet = null;
+
+			if (match >= 0) {
+				if (previous == null || previous.bullets == null || match >= previous.bullets.size()) {
+					throw new IllegalArgumentException("Invalid previous bullet: " + match);
+				}
+				previousBullet = (BulletSnapshot) previous.bullets.get(match);
+			}
+			snapshot.bullets.add(BulletSnapshot.readBinary(buffer, previousBullet));
+		}
+		return snapshot;
+	}
+
+	private static RobotSnapshot previousRobot(List<IRobotSnapshot> previousRobots, int position, int robotIndex) {
+		if (previousRobots == null || position >= previousRobots.size()) {
+			return null;
+		}
+		final IRobotSnapshot robot = previousRobots.get(position);
+
+		return robot.getRobotIndex() == robotIndex ? (RobotSnapshot) robot : null;
+	}
+
+	private static int count(ByteBuffer buffer) {
+		final int count = TurnSnapshotCodec.getVarInt(buffer);
+
+		if (count < 0 || count > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid count: " + count);
+		}
+		return count;
+	}
 }
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.snapshot;
+
+
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+
+/**
+ * Compact binary encoding of turn snapshots.
+ * <p>
+ * A turn is either encoded as a keyframe, which contains all data of the turn, or as a delta against the
+ * previous turn, which only contains the robot fields that have changed, and the bullets with the fields
+ * that have changed since the previous turn. Bullets that are no longer on the battlefield are simply left
+ * out. Hence a delta can only be decoded when the previous turn has been decoded.
+ * <p>
+ * Numbers are written with the same primitive encoding as the {@link net.sf.robocode.serialization.RbSerializer},
+ * except that small integers are written as variable length integers, and that doubles are written as the
+ * difference in bits from the previous value of the field, see {@link #putDouble(double, double)}.
+ *
+ * @see TurnSnapshot
+ */
+public final class TurnSnapshotCodec {
+
+	/**
+	 * The default number of turns between two keyframes.
+	 */
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+	static final byte DELTA = 0;
+	static final byte KEYFRAME = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+
+	/**
+	 * Encodes a turn.
+	 *
+	 * @param turn the turn to encode.
+	 * @param previous the turn before, or {@code null} if the turn must be encoded as a keyframe.
+	 * @return a buffer with the encoded turn between the position and the limit, which is only valid until
+	 *         the next call of this method.
+	 */
+	public ByteBuffer encode(ITurnSnapshot turn, ITurnSnapshot previous) {
+		buffer.clear();
+		((TurnSnapshot) turn).writeBinary(this, (TurnSnapshot) previous);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Decodes a turn from the position of the buffer.
+	 *
+	 * @param buffer the buffer to decode the turn from.
+	 * @param previous the decoded turn before, which is needed if the turn is not a keyframe.
+	 * @return the decoded turn.
+	 * @throws IOException if the buffer does not contain a valid turn.
+	 */
+	public static ITurnSnapshot decode(ByteBuffer buffer, ITurnSnapshot previous) throws IOException {
+		try {
+			return TurnSnapshot.readBinary(buffer, (TurnSnapshot) previous);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Corrupted turn snapshot", e);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupted turn snapshot", e);
+		}
+	}
+
+	private void ensure(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+	}
+
+	void putByte(int value) {
+		ensure(1);
+		buffer.put((byte) value);
+	}
+
+	void putInt(int value) {
+		ensure(4);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes a zigzag encoded variable length integer, which takes a single byte for values from -64 to 63.
+	 */
+	void putVarInt(int value) {
+		ensure(5);
+		int bits = (value << 1) ^ (value >> 31);
+
+		while ((bits & ~0x7F) != 0) {
+			buffer.put((byte) ((bits & 0x7F) | 0x80));
+			bits >>>= 7;
+		}
+		buffer.put((byte) bits);
+	}
+
+	/**
+	 * Writes the bits of the value XOR'ed with the bits of the previous value, without the leading and trailing
+	 * zero bytes. The first byte holds the number of leading zero bytes in the high nibble, and the number of
+	 * trailing zero bytes in the low nibble. Hence values close to the previous value, and round values written
+	 * against 0, take less than 8 bytes.
+	 */
+	void putDouble(double value, double previous) {
+		final long bits = Double.doubleToRawLongBits(value) ^ Double.doubleToRawLongBits(previous);
+
+		ensure(9);
+		if (bits == 0) {
+			buffer.put((byte) 0x80);
+			return;
+		}
+		final int leading = Long.numberOfLeadingZeros(bits) >>> 3;
+		final int trailing = Long.numberOfTrailingZeros(bits) >>> 3;
+
+		buffer.put((byte) (leading << 4 | trailing));
+		for (int i = 7 - leading; i >= trailing; i--) {
+			buffer.put((byte) (bits >>> (i * 8)));
+		}
+	}
+
+	void putBytes(byte[] data) {
+		if (data == null) {
+			putVarInt(-1);
+		} else {
+			putVarInt(data.length);
+			ensure(data.length);
+			buffer.put(data);
+		}
+	}
+
+	void putString(String data) {
+		putBytes(data == null ? null : data.getBytes(UTF8));
+	}
+
+	static int getVarInt(ByteBuffer buffer) {
+		int bits = 0;
+
+		for (int shift = 0;; shift += 7) {
+			final byte b = buffer.get();
+
+			bits |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				break;
+			}
+			if (shift >= 28) {
+				throw new IllegalArgumentException("Variable length integer is too long");
+			}
+		}
+		return (bits >>> 1) ^ -(bits & 1);
+	}
+
+	static double getDouble(ByteBuffer buffer, double previous) {
+		final int header = buffer.get() & 0xFF;
+		final int leading = header >>> 4;
+		final int trailing = header & 0x0F;
+
+		if (leading + trailing > 8) {
+			throw new IllegalArgumentException("Invalid double header: " + header);
+		}
+		long bits = 0;
+
+		for (int i = 7 - leading; i >= trailing; i--) {
+			bits |= (buffer.get() & 0xFFL) << (i * 8);
+		}
+		return Double.longBitsToDouble(Double.doubleToRawLongBits(previous) ^ bits);
+	}
+
+	static byte[] getBytes(ByteBuffer buffer) {
+		final int length = getVarInt(buffer);
+
+		if (length == -1) {
+			return null;
+		}
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid length: " + length);
+		}
+		byte[] data = new byte[length];
+
+		buffer.get(data);
+		return data;
+	}
+
+	static String getString(ByteBuffer buffer) {
+		final byte[] data = getBytes(buffer);
+
+		return data == null ? null : new String(data, UTF8);
+	}
+
+	static boolean changed(double value, double previous) {
+		return Double.doubleToLongBits(value) != Double.doubleToLongBits(previous);
+	}
+
+	static boolean changed(Object value, Object previous) {
+		return value == null ? previous != null : !value.equals(previous);
+	}
+}
@@ -60,7 +60,7 @@ class BattleRecorder {
 
 		public BattleObserver(BattleEventDispatcher dispatcher) {
 			this.dispatcher = dispatcher;
-			dispatcher.addListener(this);
+			dispatcher.addListener(this, BattleEventDispatcher.Delivery.ORDERED);
 		}
 
 		public void dispose() {
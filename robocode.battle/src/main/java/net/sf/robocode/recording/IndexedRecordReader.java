@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshotCodec;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Reads a battle record written by {@link IndexedRecordWriter}, with direct access to any turn.
+ * <p>
+ * The file is read through a window, which is read again from the file channel when a turn outside of the window
+ * is requested. Hence playing the turns in order reads the file in large blocks. The file is not memory-mapped, as
+ * a mapping is only released when it is garbage collected, which keeps the file locked on Windows until then.
+ * <p>
+ * Turns are decoded on demand. A turn is decoded from the nearest keyframe before it, unless the previously read
+ * turn lies in between, so that playing the turns in order only decodes a single delta per turn.
+ *
+ * @see BattleRecordFormat#BINARY_INDEXED
+ */
+class IndexedRecordReader implements Closeable {
+
+	private static final int WINDOW_SIZE = 1024 * 1024;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long fileSize;
+
+	private final long[][] offsets;
+	private final long infoOffset;
+
+	// 0 when the turns are serialized objects, as in version 1 of the format
+	private final int keyframeInterval;
+
+	private ITurnSnapshot lastTurn;
+	private int lastRound;
+	private int lastTime;
+
+	private ByteBuffer window = ByteBuffer.allocate(0);
+	private long windowStart;
+
+	IndexedRecordReader(File recordFile) throws IOException {
+		file = new RandomAccessFile(recordFile, "r");
+		try {
+			channel = file.getChannel();
+			fileSize = channel.size();
+
+			if (fileSize < 8 + IndexedRecordWriter.TRAILER_SIZE || file.readInt() != IndexedRecordWriter.MAGIC) {
+				throw new IOException("Not an indexed battle record: " + recordFile);
+			}
+			final int version = file.readInt();
+
+			if (version == 1) {
+				keyframeInterval = 0;
+			} else if (version == IndexedRecordWriter.VERSION) {
+				keyframeInterval = file.readInt();
+				if (keyframeInterval <= 0) {
+					throw new IOException("Corrupted indexed battle record: " + recordFile);
+				}
+			} else {
+				throw new IOException("Unsupported indexed battle record version: " + version);
+			}
+
+			file.seek(fileSize - IndexedRecordWriter.TRAILER_SIZE);
+			final long footerOffset = file.readLong();
+
+			if (file.readInt() != IndexedRecordWriter.MAGIC) {
+				throw new IOException("Indexed battle record is incomplete: " + recordFile);
+			}
+
+			final long footerSize = fileSize - IndexedRecordWriter.TRAILER_SIZE - footerOffset;
+
+			if (footerOffset < 8 || footerSize < 4 + 8 || footerSize > Integer.MAX_VALUE) {
+				throw new IOException("Corrupted indexed battle record: " + recordFile);
+			}
+			final ByteBuffer footer = read(footerOffset, (int) footerSize);
+			final int rounds = footer.getInt();
+
+			// The counts are checked against the size of the footer, so a corrupted count cannot exhaust the memory
+			if (rounds < 0 || rounds > footer.remaining() / 4) {
+				throw new IOException("Corrupted indexed battle record: " + recordFile);
+			}
+			offsets = new long[rounds][];
+			for (int round = 0; round < rounds; round++) {
+				final int turns = footer.getInt();
+
+				if (turns < 0 || turns > footer.remaining() / 8) {
+					throw new IOException("Corrupted indexed battle record: " + recordFile);
+				}
+				final long[] roundOffsets = new long[turns];
+
+				for (int i = 0; i < roundOffsets.length; i++) {
+					roundOffsets[i] = footer.getLong();
+				}
+				offsets[round] = roundOffsets;
+			}
+			infoOffset = footer.getLong();
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		} catch (RuntimeException e) { // Buffer under- or overflow on a corrupted footer
+			file.close();
+			throw new IOException("Corrupted indexed battle record: " + recordFile, e);
+		}
+	}
+
+	/**
+	 * Returns the number of rounds in the record.
+	 */
+	int getRounds() {
+		return offsets.length;
+	}
+
+	/**
+	 * Returns the number of turns recorded for the specified round.
+	 */
+	int getTurns(int round) {
+		return (round < offsets.length) ? offsets[round].length : 0;
+	}
+
+	/**
+	 * Returns the record info, or null if the record does not contain it.
+	 */
+	BattleRecordInfo readRecordInfo() throws IOException, ClassNotFoundException {
+		return (infoOffset < 0) ? null : (BattleRecordInfo) readObject(infoOffset);
+	}
+
+	/**
+	 * Returns the snapshot of the specified turn, or null if the turn is not in the record.
+	 */
+	ITurnSnapshot readTurn(int round, int time) throws IOException, ClassNotFoundException {
+		if (round < 0 || round >= offsets.length || time < 0 || time >= offsets[round].length) {
+			return null;
+		}
+		if (keyframeInterval == 0) {
+			return (ITurnSnapshot) readObject(offsets[round][time]);
+		}
+		final int keyframe = time - time % keyframeInterval;
+
+		if (lastTurn == null || lastRound != round || lastTime > time || lastTime < keyframe) {
+			lastTurn = null;
+			lastRound = round;
+			lastTime = keyframe - 1;
+		}
+		try {
+			while (lastTime < time) {
+				lastTurn = TurnSnapshotCodec.decode(readChunk(offsets[round][lastTime + 1]), lastTurn);
+				lastTime++;
+			}
+		} catch (IOException e) {
+			lastTurn = null;
+			throw e;
+		}
+		return lastTurn;
+	}
+
+	private ByteBuffer readChunk(long offset) throws IOException {
+		final int length = read(offset, 4).getInt();
+
+		return read(offset + 4, length);
+	}
+
+	private Object readObject(long offset) throws IOException, ClassNotFoundException {
+		final ObjectInputStream ois = new ObjectInputStream(new ByteBufferInputStream(readChunk(offset)));
+
+		try {
+			return ois.readObject();
+		} finally {
+			ois.close();
+		}
+	}
+
+	/**
+	 * Returns a buffer positioned at the offset with length bytes remaining, reading the window from the file
+	 * if needed. The buffer is only valid until the next read.
+	 */
+	private ByteBuffer read(long offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > fileSize) {
+			throw new IOException("Corrupted indexed battle record");
+		}
+		if (offset < windowStart || offset + length > windowStart + window.limit()) {
+			final int capacity = Math.max(WINDOW_SIZE, length);
+
+			if (window.capacity() < capacity) {
+				window = ByteBuffer.allocate(capacity);
+			}
+			window.clear();
+			window.limit((int) Math.min(window.capacity(), fileSize - offset));
+			windowStart = offset;
+			try {
+				while (window.hasRemaining()) {
+					if (channel.read(window, offset + window.position()) < 0) {
+						throw new EOFException("Indexed battle record is truncated");
+					}
+				}
+			} finally {
+				window.flip();
+			}
+		}
+		final ByteBuffer buffer = window.duplicate();
+
+		buffer.position((int) (offset - windowStart));
+		buffer.limit(buffer.position() + length);
+		return buffer;
+	}
+
+	public void close() throws IOException {
+		lastTurn = null;
+		file.close();
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
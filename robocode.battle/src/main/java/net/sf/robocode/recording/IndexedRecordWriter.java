@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshotCodec;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Writes a battle record where every turn is stored as a separate chunk, and with a footer containing
+ * the offset of every turn, so that {@link IndexedRecordReader} can read any turn directly.
+ * <p>
+ * The turns are encoded with the {@link TurnSnapshotCodec}, where every turn with a turn number that is a
+ * multiple of the keyframe interval is a keyframe, and all other turns are deltas against the turn before.
+ * <p>
+ * The layout of the file is:
+ * <pre>
+ * header:  int MAGIC, int VERSION, int keyframe interval
+ * chunks:  int length, byte[length] encoded turn (one per turn)
+ *          int length, byte[length] serialized record info
+ * footer:  int rounds, for every round: int turns, long[turns] chunk offsets
+ *          long offset of the record info chunk, or -1 if the record info was not written
+ * trailer: long footer offset, int MAGIC
+ * </pre>
+ * All numbers are big-endian.
+ *
+ * @see BattleRecordFormat#BINARY_INDEXED
+ */
+class IndexedRecordWriter implements Closeable {
+
+	static final int MAGIC = 0x52424958; // "RBIX"
+	static final int VERSION = 2;
+
+	static final int TRAILER_SIZE = 8 + 4;
+
+	private final DataOutputStream out;
+	private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(64 * 1024);
+
+	private final TurnSnapshotCodec codec = new TurnSnapshotCodec();
+	private final int keyframeInterval = TurnSnapshotCodec.DEFAULT_KEYFRAME_INTERVAL;
+	private ITurnSnapshot previousTurn;
+	private int previousRound = -1;
+
+	private final List<long[]> offsets = new ArrayList<long[]>();
+	private final List<Integer> turns = new ArrayList<Integer>();
+
+	private long position;
+	private long infoOffset = -1;
+	private boolean closed;
+
+	IndexedRecordWriter(File file) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1024 * 1024));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(keyframeInterval);
+		position = 12;
+	}
+
+	/**
+	 * Writes the turn into the chunk for the specified round and turn.
+	 * Turns must be written in order, starting with turn 0 of every round.
+	 */
+	void writeTurn(ITurnSnapshot turn, int round, int time) throws IOException {
+		while (offsets.size() <= round) {
+			offsets.add(new long[1024]);
+			turns.add(0);
+		}
+		final int count = turns.get(round);
+
+		if (time != count) {
+			throw new IOException("Turn " + time + " of round " + round + " written out of order");
+		}
+		long[] roundOffsets = offsets.get(round);
+
+		if (count == roundOffsets.length) {
+			long[] grown = new long[count * 2];
+
+			System.arraycopy(roundOffsets, 0, grown, 0, count);
+			roundOffsets = grown;
+			offsets.set(round, roundOffsets);
+		}
+		final boolean isKeyframe = time % keyframeInterval == 0 || round != previousRound;
+
+		roundOffsets[count] = writeChunk(codec.encode(turn, isKeyframe ? null : previousTurn));
+		turns.set(round, count + 1);
+		previousTurn = turn;
+		previousRound = round;
+	}
+
+	/**
+	 * Writes the record info, which is read back with {@link IndexedRecordReader#readRecordInfo()}.
+	 */
+	void writeRecordInfo(BattleRecordInfo recordInfo) throws IOException {
+		chunk.reset();
+
+		ObjectOutputStream oos = new ObjectOutputStream(chunk);
+
+		oos.writeObject(recordInfo);
+		oos.close();
+
+		infoOffset = writeChunk(ByteBuffer.wrap(chunk.toByteArray()));
+	}
+
+	private long writeChunk(ByteBuffer data) throws IOException {
+		final long offset = position;
+		final int length = data.remaining();
+
+		out.writeInt(length);
+		out.write(data.array(), data.arrayOffset() + data.position(), length);
+		position += 4 + length;
+		return offset;
+	}
+
+	/**
+	 * Writes the footer and closes the file.
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			final long footerOffset = position;
+
+			out.writeInt(offsets.size());
+			for (int round = 0; round < offsets.size(); round++) {
+				final long[] roundOffsets = offsets.get(round);
+				final int count = turns.get(round);
+
+				out.writeInt(count);
+				for (int i = 0; i < count; i++) {
+					out.writeLong(roundOffsets[i]);
+				}
+			}
+			out.writeLong(infoOffset);
+
+			out.writeLong(footerOffset);
+			out.writeInt(MAGIC);
+		} finally {
+			out.close();
+		}
+	}
+}
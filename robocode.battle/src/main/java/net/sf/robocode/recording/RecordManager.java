@@ -43,14 +43,13 @@ public class RecordManager implements IRecordManager {
 	private File tempFile;
 	private BattleRecorder recorder;
 
-	BattleRecordInfo recordInfo;
-	private FileOutputStream fileWriteStream;
-	private BufferedOutputStream bufferedWriteStream;
-	private ObjectOutputStream objectWriteStream;
+	// The file the turns of the current record are read from. This is the temp file, unless a record
+	// in the indexed format has been loaded, which is then read directly.
+	private File recordFile;
 
-	private FileInputStream fileReadStream;
-	private BufferedInputStream bufferedReadStream;
-	private ObjectInputStream objectReadStream;
+	BattleRecordInfo recordInfo;
+	private IndexedRecordWriter recordWriter;
+	private IndexedRecordReader recordReader;
 
 	public RecordManager(ISettingsManager properties) { // NO_UCD (unused code)
 		this.properties = properties;
@@ -77,19 +76,11 @@ public class RecordManager implements IRecordManager {
 	}
 
 	void cleanupStreams() {
-		FileUtil.cleanupStream(objectWriteStream);
-		objectWriteStream = null;
-		FileUtil.cleanupStream(bufferedWriteStream);
-		bufferedWriteStream = null;
-		FileUtil.cleanupStream(fileWriteStream);
-		fileWriteStream = null;
-
-		FileUtil.cleanupStream(objectReadStream);
-		objectReadStream = null;
-		FileUtil.cleanupStream(bufferedReadStream);
-		bufferedReadStream = null;
-		FileUtil.cleanupStream(fileReadStream);
-		fileReadStream = null;
+		FileUtil.cleanupStream(recordWriter);
+		recordWriter = null;
+
+		FileUtil.cleanupStream(recordReader);
+		recordReader = null;
 	}
 
 	public void attachRecorder(BattleEventDispatcher battleEventDispatcher) {
@@ -101,6 +92,7 @@ public class RecordManager implements IRecordManager {
 	}
 
 	private void createTempFile() {
+		recordFile = null;
 		try {
 			if (tempFile == null) {
 				tempFile = File.createTempFile("robocode-battle-records", ".tmp");
@@ -117,36 +109,24 @@ public class RecordManager implements IRecordManager {
 			logError(e);
 			throw new Error("Temp file creation failed", e);
 		}
+		recordFile = tempFile;
 	}
 
 	void prepareInputStream() {
 		try {
-			fileReadStream = new FileInputStream(tempFile);
-			bufferedReadStream = new BufferedInputStream(fileReadStream);
-			objectReadStream = new ObjectInputStream(bufferedReadStream);
-		} catch (FileNotFoundException e) {
-			logError(e);
-			fileReadStream = null;
-			bufferedReadStream = null;
-			objectReadStream = null;
+			recordReader = new IndexedRecordReader(recordFile);
 		} catch (IOException e) {
 			logError(e);
-			fileReadStream = null;
-			bufferedReadStream = null;
-			objectReadStream = null;
+			recordReader = null;
 		}
 	}
 
-	ITurnSnapshot readSnapshot(int currentTime) {
-		if (objectReadStream == null) {
+	ITurnSnapshot readSnapshot(int round, int time) {
+		if (recordReader == null) {
 			return null;
 		}
 		try {
-			// TODO implement seek to currentTime, warn you. turns don't have same size in bytes
-			return (ITurnSnapshot) objectReadStream.readObject();
-		} catch (EOFException e) {
-			logError(e);
-			return null;
+			return recordReader.readTurn(round, time);
 		} catch (Exception e) {
 			logError(e);
 			return null;
@@ -154,17 +134,21 @@ public class RecordManager implements IRecordManager {
 	}
 
 	public void loadRecord(String recordFilename, BattleRecordFormat format) {
+		if (format == BattleRecordFormat.BINARY_INDEXED) {
+			loadIndexedRecord(new File(recordFilename));
+			return;
+		}
+
 		FileInputStream fis = null;
 		BufferedInputStream bis = null;
 		ZipInputStream zis = null;
 		ObjectInputStream ois = null;
 		InputStream xis = null;
 
-		FileOutputStream fos = null;
-		BufferedOutputStream bos = null;
-		ObjectOutputStream oos = null;
+		IndexedRecordWriter writer = null;
 
 		try {
+			cleanupStreams();
 			createTempFile();
 			fis = new FileInputStream(recordFilename);
 			bis = new BufferedInputStream(fis, 1024 * 1024);
@@ -185,16 +169,14 @@ public class RecordManager implements IRecordManager {
 			if (format == BattleRecordFormat.BINARY || format == BattleRecordFormat.BINARY_ZIP) {
 				recordInfo = (BattleRecordInfo) ois.readObject();
 				if (recordInfo.turnsInRounds != null) {
-					fos = new FileOutputStream(tempFile);
-					bos = new BufferedOutputStream(fos, 1024 * 1024);
-					oos = new ObjectOutputStream(bos);
+					writer = new IndexedRecordWriter(tempFile);
 
 					for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
-						for (int j = recordInfo.turnsInRounds[i] - 1; j >= 0; j--) {
+						for (int j = 0; j < recordInfo.turnsInRounds[i]; j++) {
 							try {
 								ITurnSnapshot turn = (ITurnSnapshot) ois.readObject();
 
-								oos.writeObject(turn);
+								writer.writeTurn(turn, i, j);
 							} catch (ClassNotFoundException e) {
 								logError(e);
 							}
@@ -204,9 +186,8 @@ public class RecordManager implements IRecordManager {
 			} else {
 				final RecordRoot root = new RecordRoot();
 
-				fos = new FileOutputStream(tempFile);
-				bos = new BufferedOutputStream(fos, 1024 * 1024);
-				root.oos = new ObjectOutputStream(bos);
+				writer = new IndexedRecordWriter(tempFile);
+				root.writer = writer;
 				XmlReader.deserialize(xis, root);
 				if (root.lastException != null) {
 					logError(root.lastException);
@@ -226,9 +207,7 @@ public class RecordManager implements IRecordManager {
 			createTempFile();
 			recordInfo = null;
 		} finally {
-			FileUtil.cleanupStream(oos);
-			FileUtil.cleanupStream(bos);
-			FileUtil.cleanupStream(fos);
+			FileUtil.cleanupStream(writer);
 			FileUtil.cleanupStream(ois);
 			FileUtil.cleanupStream(zis);
 			FileUtil.cleanupStream(bis);
@@ -236,13 +215,38 @@ public class RecordManager implements IRecordManager {
 		}
 	}
 
+	private void loadIndexedRecord(File file) {
+		IndexedRecordReader reader = null;
+
+		try {
+			cleanupStreams();
+			reader = new IndexedRecordReader(file);
+			recordInfo = reader.readRecordInfo();
+			if (recordInfo == null) {
+				Logger.logError("The battle record does not contain any record info: " + file);
+			}
+			recordFile = file;
+		} catch (IOException e) {
+			logError(e);
+			recordInfo = null;
+		} catch (ClassNotFoundException e) {
+			logError(e);
+			recordInfo = null;
+		} finally {
+			FileUtil.cleanupStream(reader);
+		}
+		if (recordInfo == null) {
+			createTempFile();
+		}
+	}
+
 	private static class RecordRoot implements IXmlSerializable {
 
 		public RecordRoot() {
 			me = this;
 		}
 
-		public ObjectOutputStream oos;
+		public IndexedRecordWriter writer;
 		public IOException lastException;
 		public final RecordRoot me;
 		public BattleRecordInfo recordInfo;
@@ -273,8 +277,10 @@ public class RecordManager implements IRecordManager {
 						}
 
 						public void add(IXmlSerializable child) {
+							final TurnSnapshot turn = (TurnSnapshot) child;
+
 							try {
-								me.oos.writeObject(child);
+								me.writer.writeTurn(turn, turn.getRound(), turn.getTurn());
 							} catch (IOException e) {
 								me.lastException = e;
 							}
@@ -297,17 +303,26 @@ public class RecordManager implements IRecordManager {
 		OutputStreamWriter osw = null;
 		XmlWriter xwr = null;
 
-		FileInputStream fis = null;
-		BufferedInputStream bis = null;
-		ObjectInputStream ois = null;
+		IndexedRecordWriter writer = null;
+
+		IndexedRecordReader reader = null;
 
 		final boolean isbin = format == BattleRecordFormat.BINARY || format == BattleRecordFormat.BINARY_ZIP;
 		final boolean isxml = format == BattleRecordFormat.XML || format == BattleRecordFormat.XML_ZIP;
+		final boolean isindexed = format == BattleRecordFormat.BINARY_INDEXED;
 		Calendar calendar = Calendar.getInstance();
 
 		try {
-			fos = new FileOutputStream(recordFilename);
-			bos = new BufferedOutputStream(fos, 1024 * 1024);
+			if (recordFile != null && recordFile.getCanonicalFile().equals(new File(recordFilename).getCanonicalFile())) {
+				Logger.logError("The battle record cannot be saved into the file it is read from: " + recordFilename);
+				return;
+			}
+			if (isindexed) {
+				writer = new IndexedRecordWriter(new File(recordFilename));
+			} else {
+				fos = new FileOutputStream(recordFilename);
+				bos = new BufferedOutputStream(fos, 1024 * 1024);
+			}
 
 			if (format == BattleRecordFormat.BINARY) {
 				oos = new ObjectOutputStream(bos);
@@ -332,6 +347,8 @@ public class RecordManager implements IRecordManager {
 
 			if (isbin) {
 				oos.writeObject(recordInfo);
+			} else if (isindexed) {
+				writer.writeRecordInfo(recordInfo);
 			} else if (isxml) {
 				xwr.startDocument();
 				xwr.startElement("record");
@@ -346,23 +363,24 @@ public class RecordManager implements IRecordManager {
 			}
 
 			if (recordInfo.turnsInRounds != null) {
-				fis = new FileInputStream(tempFile);
-				bis = new BufferedInputStream(fis, 1024 * 1024);
-				ois = new ObjectInputStream(bis);
+				reader = new IndexedRecordReader(recordFile);
 
 				for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
 					if (recordInfo.turnsInRounds[i] > 0) {
 						for (int j = 0; j <= recordInfo.turnsInRounds[i] - 1; j++) {
 							try {
-								TurnSnapshot turn = (TurnSnapshot) ois.readObject();
+								TurnSnapshot turn = (TurnSnapshot) reader.readTurn(i, j);
 
-								if (j != turn.getTurn()) {
+								if (turn == null || j != turn.getTurn()) {
 									throw new Error("Something rotten");
 								}
 
 								if (isbin) {
 									turn.stripDetails(options);
 									oos.writeObject(turn);
+								} else if (isindexed) {
+									turn.stripDetails(options);
+									writer.writeTurn(turn, i, j);
 								} else if (isxml) {
 									turn.writeXml(xwr, options);
 								}
@@ -375,8 +393,10 @@ public class RecordManager implements IRecordManager {
 						} else if (isxml) {
 							osw.flush();
 						}
-						bos.flush();
-						fos.flush();
+						if (bos != null) {
+							bos.flush();
+							fos.flush();
+						}
 					}
 				}
 				if (isxml) {
@@ -391,9 +411,8 @@ public class RecordManager implements IRecordManager {
 			recorder = new BattleRecorder(this, properties);
 			createTempFile();
 		} finally {
-			FileUtil.cleanupStream(ois);
-			FileUtil.cleanupStream(bis);
-			FileUtil.cleanupStream(fis);
+			FileUtil.cleanupStream(reader);
+			FileUtil.cleanupStream(writer);
 			FileUtil.cleanupStream(oos);
 			FileUtil.cleanupStream(zos);
 			FileUtil.cleanupStream(bos);
@@ -410,9 +429,7 @@ public class RecordManager implements IRecordManager {
 		try {
 			createTempFile();
 
-			fileWriteStream = new FileOutputStream(tempFile);
-			bufferedWriteStream = new BufferedOutputStream(fileWriteStream, 1024 * 1024);
-			objectWriteStream = new ObjectOutputStream(bufferedWriteStream);
+			recordWriter = new IndexedRecordWriter(tempFile);
 		} catch (IOException e) {
 			logError(e);
 		}
@@ -435,12 +452,9 @@ public class RecordManager implements IRecordManager {
 			if (time != recordInfo.turnsInRounds[round]) {
 				throw new Error("Something rotten");
 			}
-			if (time == 0) {
-				objectWriteStream.reset();
-			}
 			recordInfo.turnsInRounds[round]++;
 			recordInfo.roundsCount = round + 1;
-			objectWriteStream.writeObject(turn);
+			recordWriter.writeTurn(turn, round, time);
 		} catch (IOException e) {
 			logError(e);
 		}
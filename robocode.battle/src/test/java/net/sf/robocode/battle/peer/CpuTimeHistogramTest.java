@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Checks the buckets and percentiles of the {@link CpuTimeHistogram} of the CPU time used by a robot per turn.
+ */
+public class CpuTimeHistogramTest {
+
+	@Test
+	public void empty() {
+		final CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		histogram.add(-1); // The robot thread was not known, which is not counted
+
+		Assert.assertEquals(0, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMeanNanos());
+		Assert.assertEquals(0, histogram.getMaxNanos());
+		Assert.assertEquals(0, histogram.getPercentileNanos(0.5));
+		Assert.assertEquals(0, histogram.getPercentileNanos(1));
+	}
+
+	@Test
+	public void buckets() {
+		// The upper bound of the bucket of a time is the next power of two microseconds
+		assertBucket(0, 1000);
+		assertBucket(999, 1000);
+		assertBucket(1000, 2000);
+		assertBucket(1999, 2000);
+		assertBucket(2000, 4000);
+		assertBucket(3500, 4000);
+		assertBucket(100000, 128000);
+		assertBucket(1000000000, 1024L * 1024 * 1000);
+	}
+
+	@Test
+	public void percentiles() {
+		final CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		for (int i = 0; i < 98; i++) {
+			histogram.add(1500);
+		}
+		histogram.add(50000);
+		histogram.add(300000);
+
+		Assert.assertEquals(100, histogram.getCount());
+		Assert.assertEquals((98 * 1500 + 50000 + 300000) / 100, histogram.getMeanNanos());
+		Assert.assertEquals(300000, histogram.getMaxNanos());
+		Assert.assertEquals(2000, histogram.getPercentileNanos(0.5));
+		Assert.assertEquals(2000, histogram.getPercentileNanos(0.98));
+		Assert.assertEquals(64000, histogram.getPercentileNanos(0.99));
+		Assert.assertEquals(300000, histogram.getPercentileNanos(1));
+	}
+
+	@Test
+	public void percentilesAreLimitedByMax() {
+		final CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		histogram.add(1500);
+		histogram.add(1200);
+
+		Assert.assertEquals(1500, histogram.getPercentileNanos(0.5));
+		Assert.assertEquals(1500, histogram.getPercentileNanos(1));
+	}
+
+	@Test
+	public void lastBucket() {
+		final CpuTimeHistogram histogram = new CpuTimeHistogram();
+		final long days = 10L * 24 * 60 * 60 * 1000000000;
+
+		// The times beyond the last bucket are counted in it, which has no upper bound
+		histogram.add(days);
+
+		Assert.assertEquals(days, histogram.getPercentileNanos(0.5));
+		Assert.assertEquals(days, histogram.getMaxNanos());
+	}
+
+	private static void assertBucket(long nanos, long upperBoundNanos) {
+		final CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		histogram.add(nanos);
+		histogram.add(upperBoundNanos * 2); // The max would limit the percentile otherwise
+
+		Assert.assertEquals("Upper bound of " + nanos + " ns", upperBoundNanos, histogram.getPercentileNanos(0.5));
+	}
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.snapshot;
+
+
+import net.sf.robocode.serialization.SerializableOptions;
+import net.sf.robocode.serialization.XmlWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * Checks that turns survive the keyframe and delta encoding of the {@link TurnSnapshotCodec}.
+ */
+public class TurnSnapshotCodecTest {
+
+	private static final int ROUNDS = 2;
+	private static final int TURNS = 250;
+
+	private final List<ITurnSnapshot> turns = TurnSnapshotSamples.createTurns(ROUNDS, TURNS);
+
+	@Test
+	public void keyframesAndDeltas() throws IOException {
+		final List<byte[]> encoded = encode(TurnSnapshotCodec.DEFAULT_KEYFRAME_INTERVAL);
+		ITurnSnapshot previous = null;
+
+		for (int i = 0; i < turns.size(); i++) {
+			final ByteBuffer buffer = ByteBuffer.wrap(encoded.get(i));
+			final ITurnSnapshot decoded = TurnSnapshotCodec.decode(buffer, previous);
+
+			Assert.assertFalse("The whole turn must be decoded", buffer.hasRemaining());
+			TurnSnapshotSamples.assertSameTurn(turns.get(i), decoded);
+			previous = decoded;
+		}
+	}
+
+	@Test
+	public void keyframesOnly() throws IOException {
+		final List<byte[]> encoded = encode(1);
+
+		// Every keyframe can be decoded on its own, e.g. when seeking in a record
+		for (int i = turns.size() - 1; i >= 0; i--) {
+			TurnSnapshotSamples.assertSameTurn(turns.get(i),
+					TurnSnapshotCodec.decode(ByteBuffer.wrap(encoded.get(i)), null));
+		}
+	}
+
+	@Test
+	public void deltasAreSmallerThanKeyframes() {
+		final List<byte[]> keyframes = encode(1);
+		final List<byte[]> deltas = encode(Integer.MAX_VALUE);
+
+		Assert.assertEquals(keyframes.get(0).length, deltas.get(0).length);
+		Assert.assertTrue(size(deltas) < size(keyframes) / 2);
+	}
+
+	@Test(expected = IOException.class)
+	public void deltaWithoutPreviousTurn() throws IOException {
+		final List<byte[]> encoded = encode(TurnSnapshotCodec.DEFAULT_KEYFRAME_INTERVAL);
+
+		TurnSnapshotCodec.decode(ByteBuffer.wrap(encoded.get(1)), null);
+	}
+
+	@Test
+	public void truncatedTurn() {
+		final byte[] keyframe = encode(1).get(TURNS / 2);
+
+		for (int length = 0; length < keyframe.length; length++) {
+			final ByteBuffer buffer = ByteBuffer.wrap(keyframe, 0, length);
+
+			try {
+				TurnSnapshotCodec.decode(buffer, null);
+				Assert.fail("A turn truncated to " + length + " of " + keyframe.length + " bytes must not be decoded");
+			} catch (IOException expected) {// the turn is corrupted
+			}
+		}
+	}
+
+	// @Test
+	// size and time of the keyframes and deltas compared to the BINARY_ZIP and XML_ZIP record formats
+	public void compareWithZipFormats() throws IOException {
+		final List<ITurnSnapshot> turns = TurnSnapshotSamples.createTurns(10, 1000);
+
+		long start = System.nanoTime();
+		final List<byte[]> encoded = encode(turns, TurnSnapshotCodec.DEFAULT_KEYFRAME_INTERVAL);
+		final long deltaTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		ITurnSnapshot previous = null;
+
+		for (byte[] data : encoded) {
+			previous = TurnSnapshotCodec.decode(ByteBuffer.wrap(data), previous);
+		}
+		final long decodeTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		final long binarySize = encodeBinaryZip(turns);
+		final long binaryTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		final long xmlSize = encodeXmlZip(turns);
+		final long xmlTime = System.nanoTime() - start;
+
+		// Every turn has a length prefix in the record
+		final long deltaSize = size(encoded) + 4 * encoded.size();
+
+		System.out.println(
+				turns.size() + " turns - delta: " + deltaSize + " bytes in " + deltaTime / 1000000 + " ms (decoded in "
+				+ decodeTime / 1000000 + " ms), BINARY_ZIP: " + binarySize + " bytes in " + binaryTime / 1000000
+				+ " ms, XML_ZIP: " + xmlSize + " bytes in " + xmlTime / 1000000 + " ms");
+	}
+
+	private List<byte[]> encode(int keyframeInterval) {
+		return encode(turns, keyframeInterval);
+	}
+
+	// Encodes the turns with a keyframe at the start of every round, and every interval turns
+	private static List<byte[]> encode(List<ITurnSnapshot> turns, int keyframeInterval) {
+		final TurnSnapshotCodec codec = new TurnSnapshotCodec();
+		final List<byte[]> encoded = new ArrayList<byte[]>();
+		ITurnSnapshot previous = null;
+
+		for (ITurnSnapshot turn : turns) {
+			final boolean isKeyframe = previous == null || previous.getRound() != turn.getRound()
+					|| turn.getTurn() % keyframeInterval == 0;
+			final ByteBuffer buffer = codec.encode(turn, isKeyframe ? null : previous);
+			final byte[] data = new byte[buffer.remaining()];
+
+			buffer.get(data);
+			encoded.add(data);
+			previous = turn;
+		}
+		return encoded;
+	}
+
+	private static long encodeBinaryZip(List<ITurnSnapshot> turns) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ZipOutputStream zos = new ZipOutputStream(bytes);
+
+		zos.putNextEntry(new ZipEntry("robocode.br"));
+
+		final ObjectOutputStream oos = new ObjectOutputStream(zos);
+
+		for (ITurnSnapshot turn : turns) {
+			oos.writeObject(turn);
+		}
+		oos.close();
+		return bytes.size();
+	}
+
+	private static long encodeXmlZip(List<ITurnSnapshot> turns) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ZipOutputStream zos = new ZipOutputStream(bytes);
+
+		zos.putNextEntry(new ZipEntry("robocode.xml"));
+
+		final OutputStreamWriter osw = new OutputStreamWriter(zos, "UTF-8");
+		final XmlWriter xwr = new XmlWriter(osw, false);
+		final SerializableOptions options = new SerializableOptions(false);
+
+		for (ITurnSnapshot turn : turns) {
+			((TurnSnapshot) turn).writeXml(xwr, options);
+		}
+		osw.close();
+		return bytes.size();
+	}
+
+	private static long size(List<byte[]> encoded) {
+		long size = 0;
+
+		for (byte[] data : encoded) {
+			size += data.length;
+		}
+		return size;
+	}
+}
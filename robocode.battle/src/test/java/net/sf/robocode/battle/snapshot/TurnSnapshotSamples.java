@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.snapshot;
+
+
+import net.sf.robocode.serialization.IXmlSerializable;
+import net.sf.robocode.serialization.SerializableOptions;
+import net.sf.robocode.serialization.XmlReader;
+import net.sf.robocode.serialization.XmlWriter;
+import org.junit.Assert;
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Creates the turns of a battle for tests, and compares turns. The turns are read from XML in the same way as
+ * the turns of a recorded battle, so they are created without running a battle.
+ * <p>
+ * The robots move and turn every turn, lose energy, score and print now and then, and one of them dies in the
+ * middle of every round. Every robot fires a bullet every few turns, which moves until it hits a robot, and then
+ * explodes.
+ */
+public final class TurnSnapshotSamples {
+
+	public static final int ROBOTS = 3;
+
+	private static final int FIRE_INTERVAL = 7;
+	private static final int BULLET_TURNS = 20;
+	private static final int EXPLOSION_FRAMES = 3;
+
+	private TurnSnapshotSamples() {}
+
+	/**
+	 * Creates the turns of a battle.
+	 *
+	 * @param rounds the number of rounds.
+	 * @param turns the number of turns of every round.
+	 * @return the turns of all rounds.
+	 */
+	public static List<ITurnSnapshot> createTurns(int rounds, int turns) {
+		final StringBuilder xml = new StringBuilder("<turns>");
+
+		for (int round = 0; round < rounds; round++) {
+			for (int turn = 0; turn < turns; turn++) {
+				appendTurn(xml, round, turn, turns);
+			}
+		}
+		xml.append("</turns>");
+
+		final List<ITurnSnapshot> result = new ArrayList<ITurnSnapshot>();
+
+		try {
+			XmlReader.deserialize(new ByteArrayInputStream(xml.toString().getBytes("UTF-8")), new TurnsRoot(result));
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		Assert.assertEquals(rounds * turns, result.size());
+		return result;
+	}
+
+	private static void appendTurn(StringBuilder xml, int round, int turn, int turns) {
+		xml.append("<turn round=\"").append(round).append("\" turn=\"").append(turn).append("\"><robots>");
+		for (int robot = 0; robot < ROBOTS; robot++) {
+			appendRobot(xml, robot, round, turn, turns);
+		}
+		xml.append("</robots><bullets>");
+		for (int fired = Math.max(0, turn - BULLET_TURNS - EXPLOSION_FRAMES); fired <= turn; fired++) {
+			if (fired % FIRE_INTERVAL == 0) {
+				for (int owner = 0; owner < ROBOTS; owner++) {
+					appendBullet(xml, owner, fired, turn);
+				}
+			}
+		}
+		xml.append("</bullets></turn>");
+	}
+
+	private static void appendRobot(StringBuilder xml, int robot, int round, int turn, int turns) {
+		final boolean isDead = robot == ROBOTS - 1 && turn > turns / 2;
+		final double distance = isDead ? turns / 2 : turn;
+
+		xml.append("<robot id=\"").append(robot).append("\" name=\"sample.Robot").append(robot).append(" (")
+				.append(robot + 1).append(")\" state=\"").append(isDead ? "DEAD" : "ACTIVE").append('"');
+		xml.append(" energy=\"").append(isDead ? 0 : 100 - turn / 10 * 3.2).append('"');
+		xml.append(" velocity=\"").append(isDead ? 0 : 8 * Math.sin(turn / 11.0)).append('"');
+		xml.append(" gunHeat=\"").append(Math.max(0, 3 - turn % FIRE_INTERVAL * 0.1)).append('"');
+		xml.append(" bodyHeading=\"").append((distance * 0.05 + robot) % (2 * Math.PI)).append('"');
+		xml.append(" gunHeading=\"").append((distance * 0.17 + robot) % (2 * Math.PI)).append('"');
+		xml.append(" radarHeading=\"").append((distance * 0.78 + robot) % (2 * Math.PI)).append('"');
+		xml.append(" x=\"").append(100 + robot * 200 + 150 * Math.sin(distance / 23.0)).append('"');
+		xml.append(" y=\"").append(300 + 150 * Math.cos(distance / 31.0 + robot)).append('"');
+		if (turn % 10 == 0) {
+			xml.append(" out=\"Turn ").append(turn).append(" of round ").append(round).append('"');
+		}
+		xml.append("><score name=\"sample.Robot").append(robot).append("\" totalScore=\"")
+				.append(round * 150 + turn / 5 * 1.6).append("\" currentScore=\"").append(turn / 5 * 1.6)
+				.append("\" totalFirsts=\"").append(robot == 0 ? round : 0).append("\"/></robot>");
+	}
+
+	private static void appendBullet(StringBuilder xml, int owner, int fired, int turn) {
+		final int frame = turn - fired;
+		final boolean isExploded = frame >= BULLET_TURNS;
+		final String state = frame == 0
+				? "FIRED"
+				: frame < BULLET_TURNS - 1 ? "MOVING" : isExploded ? "EXPLODED" : "HIT_VICTIM";
+		final int moved = Math.min(frame, BULLET_TURNS - 1);
+
+		xml.append("<bullet id=\"").append(owner).append('-').append(fired / FIRE_INTERVAL + 1)
+				.append("\" state=\"").append(state).append("\" power=\"").append(1 + owner * 0.5)
+				.append("\" heading=\"").append(owner * 1.3).append("\" owner=\"").append(owner)
+				.append("\" victim=\"").append(frame < BULLET_TURNS - 1 ? -1 : (owner + 1) % ROBOTS)
+				.append("\" x=\"").append(100 + owner * 200 + moved * 17.0 * Math.sin(owner * 1.3))
+				.append("\" y=\"").append(300 + moved * 17.0 * Math.cos(owner * 1.3)).append('"');
+		if (isExploded) {
+			xml.append(" isExplosion=\"true\" explosion=\"0\" frame=\"").append(frame - BULLET_TURNS).append('"');
+		}
+		xml.append("/>");
+	}
+
+	/**
+	 * Checks that a turn has the same content as the expected turn.
+	 */
+	public static void assertSameTurn(ITurnSnapshot expected, ITurnSnapshot actual) {
+		Assert.assertEquals(expected.getRound(), actual.getRound());
+		Assert.assertEquals(expected.getTurn(), actual.getTurn());
+
+		final IRobotSnapshot[] expectedRobots = expected.getRobots();
+		final IRobotSnapshot[] actualRobots = actual.getRobots();
+
+		Assert.assertEquals(expectedRobots.length, actualRobots.length);
+		for (int i = 0; i < expectedRobots.length; i++) {
+			final IRobotSnapshot e = expectedRobots[i];
+			final IRobotSnapshot a = actualRobots[i];
+
+			Assert.assertEquals(e.getName(), a.getName());
+			Assert.assertEquals(e.getRobotIndex(), a.getRobotIndex());
+			Assert.assertEquals(e.getState(), a.getState());
+			Assert.assertEquals(e.getEnergy(), a.getEnergy(), 0);
+			Assert.assertEquals(e.getVelocity(), a.getVelocity(), 0);
+			Assert.assertEquals(e.getGunHeat(), a.getGunHeat(), 0);
+			Assert.assertEquals(e.getX(), a.getX(), 0);
+			Assert.assertEquals(e.getY(), a.getY(), 0);
+			Assert.assertEquals(e.getBodyHeading(), a.getBodyHeading(), 0);
+			Assert.assertEquals(e.getGunHeading(), a.getGunHeading(), 0);
+			Assert.assertEquals(e.getRadarHeading(), a.getRadarHeading(), 0);
+			Assert.assertEquals(e.getScoreSnapshot().getTotalScore(), a.getScoreSnapshot().getTotalScore(), 0);
+			Assert.assertEquals(e.getScoreSnapshot().getCurrentScore(), a.getScoreSnapshot().getCurrentScore(), 0);
+			Assert.assertEquals(e.getScoreSnapshot().getTotalFirsts(), a.getScoreSnapshot().getTotalFirsts());
+			Assert.assertEquals(e.getOutputStreamSnapshot(), a.getOutputStreamSnapshot());
+		}
+
+		final IBulletSnapshot[] expectedBullets = expected.getBullets();
+		final IBulletSnapshot[] actualBullets = actual.getBullets();
+
+		Assert.assertEquals(expectedBullets.length, actualBullets.length);
+		for (int i = 0; i < expectedBullets.length; i++) {
+			final IBulletSnapshot e = expectedBullets[i];
+			final IBulletSnapshot a = actualBullets[i];
+
+			Assert.assertEquals(e.getBulletId(), a.getBulletId());
+			Assert.assertEquals(e.getOwnerIndex(), a.getOwnerIndex());
+			Assert.assertEquals(e.getVictimIndex(), a.getVictimIndex());
+			Assert.assertEquals(e.getState(), a.getState());
+			Assert.assertEquals(e.getPower(), a.getPower(), 0);
+			Assert.assertEquals(e.getHeading(), a.getHeading(), 0);
+			Assert.assertEquals(e.getX(), a.getX(), 0);
+			Assert.assertEquals(e.getY(), a.getY(), 0);
+			Assert.assertEquals(e.getPaintX(), a.getPaintX(), 0);
+			Assert.assertEquals(e.getPaintY(), a.getPaintY(), 0);
+			Assert.assertEquals(e.isExplosion(), a.isExplosion());
+			Assert.assertEquals(e.getFrame(), a.getFrame());
+		}
+	}
+
+	// Reads the turns as the record manager reads the turns of an XML record
+	private static class TurnsRoot implements IXmlSerializable {
+		private final List<ITurnSnapshot> turns;
+
+		TurnsRoot(List<ITurnSnapshot> turns) {
+			this.turns = turns;
+		}
+
+		public void writeXml(XmlWriter writer, SerializableOptions options) throws IOException {}
+
+		public XmlReader.Element readXml(XmlReader reader) {
+			return reader.expect("turns", new XmlReader.ListElement() {
+				public IXmlSerializable read(XmlReader reader) {
+					reader.getContext().put("robots", ROBOTS);
+					// prototype
+					return new TurnSnapshot();
+				}
+
+				public void add(IXmlSerializable child) {
+					turns.add((ITurnSnapshot) child);
+				}
+
+				public void close() {}
+			});
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshotSamples;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+
+/**
+ * Checks that the turns written by the {@link IndexedRecordWriter} are read back by the {@link IndexedRecordReader},
+ * in order and in any other order, and that a corrupted record is rejected.
+ */
+public class IndexedRecordTest {
+
+	private static final int ROUNDS = 3;
+	private static final int TURNS = 250;
+
+	private final List<ITurnSnapshot> turns = TurnSnapshotSamples.createTurns(ROUNDS, TURNS);
+
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("robocode-record", ".br");
+
+		final IndexedRecordWriter writer = new IndexedRecordWriter(file);
+
+		try {
+			for (ITurnSnapshot turn : turns) {
+				writer.writeTurn(turn, turn.getRound(), turn.getTurn());
+			}
+			final BattleRecordInfo recordInfo = new BattleRecordInfo();
+
+			recordInfo.robotCount = TurnSnapshotSamples.ROBOTS;
+			recordInfo.roundsCount = ROUNDS;
+			writer.writeRecordInfo(recordInfo);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		Assert.assertTrue("The record must not be locked after it has been closed", file.delete());
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			Assert.assertEquals(ROUNDS, reader.getRounds());
+			for (int round = 0; round < ROUNDS; round++) {
+				Assert.assertEquals(TURNS, reader.getTurns(round));
+			}
+			Assert.assertEquals(0, reader.getTurns(ROUNDS));
+
+			final BattleRecordInfo recordInfo = reader.readRecordInfo();
+
+			Assert.assertEquals(TurnSnapshotSamples.ROBOTS, recordInfo.robotCount);
+			Assert.assertEquals(ROUNDS, recordInfo.roundsCount);
+
+			for (ITurnSnapshot turn : turns) {
+				assertTurn(reader, turn.getRound(), turn.getTurn());
+			}
+			Assert.assertNull(reader.readTurn(0, TURNS));
+			Assert.assertNull(reader.readTurn(ROUNDS, 0));
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void seekToTurn() throws Exception {
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			assertTurn(reader, 1, 237);
+			assertTurn(reader, 2, 0);
+			assertTurn(reader, 0, 99);
+			assertTurn(reader, 0, 100);
+			assertTurn(reader, 2, TURNS - 1);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void stepBack() throws Exception {
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			// Steps back over keyframes, and into the previous round
+			for (int round = 1; round >= 0; round--) {
+				for (int time = TURNS - 1; time >= 0; time -= 3) {
+					assertTurn(reader, round, time);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void corruptedIndex() throws Exception {
+		final long footerOffset = readFooterOffset();
+
+		// The offset of the first turn of the second round points into the middle of the first turn
+		writeLong(footerOffset + 4 + 4 + 8 * TURNS + 4, 13);
+
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			assertTurn(reader, 0, 5);
+			try {
+				reader.readTurn(1, 0);
+				Assert.fail("A turn read from a corrupted offset must fail");
+			} catch (IOException expected) {// the record is corrupted
+			}
+			assertTurn(reader, 2, 5);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void corruptedFooter() throws Exception {
+		final long footerOffset = readFooterOffset();
+
+		// The number of turns in the first round is beyond the end of the file
+		writeInt(footerOffset + 4, Integer.MAX_VALUE);
+
+		try {
+			new IndexedRecordReader(file).close();
+			Assert.fail("A record with a corrupted footer must not be opened");
+		} catch (IOException expected) {// the record is corrupted
+		}
+	}
+
+	@Test
+	public void incompleteRecord() throws Exception {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.setLength(raf.length() - 1);
+		} finally {
+			raf.close();
+		}
+		try {
+			new IndexedRecordReader(file).close();
+			Assert.fail("A record without its trailer must not be opened");
+		} catch (IOException expected) {// the record is incomplete
+		}
+	}
+
+	private void assertTurn(IndexedRecordReader reader, int round, int time) throws Exception {
+		TurnSnapshotSamples.assertSameTurn(turns.get(round * TURNS + time), reader.readTurn(round, time));
+	}
+
+	private long readFooterOffset() throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+		try {
+			raf.seek(raf.length() - IndexedRecordWriter.TRAILER_SIZE);
+			return raf.readLong();
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void writeLong(long offset, long value) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.seek(offset);
+			raf.writeLong(value);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void writeInt(long offset, int value) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.seek(offset);
+			raf.writeInt(value);
+		} finally {
+			raf.close();
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.events;
+
+
+import static net.sf.robocode.io.Logger.logError;
+
+import net.sf.robocode.io.Logger;
+import robocode.control.events.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+
+/**
+ * Delivers the battle events to a listener on a thread of its own, so the battle thread does not wait for it.
+ * <p>
+ * The events are queued, and delivered in the order they were sent. The queue is bounded, so the battle thread
+ * waits when the listener falls too far behind. If the listener only needs the latest turn, the pending turn
+ * events are replaced by the events of a newer turn, while all other events are still delivered.
+ */
+final class AsyncBattleListener implements IBattleListener, Runnable {
+
+	private static final int CAPACITY = 1024;
+
+	private final IBattleListener listener;
+	private final boolean isLatestTurnOnly;
+	private final Thread thread;
+
+	private final LinkedList<Object> events = new LinkedList<Object>();
+	private boolean isDelivering;
+	private boolean isClosed;
+
+	AsyncBattleListener(IBattleListener listener, boolean isLatestTurnOnly) {
+		this.listener = listener;
+		this.isLatestTurnOnly = isLatestTurnOnly;
+
+		thread = new Thread(this, "Battle listener " + listener.getClass().getName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	IBattleListener getListener() {
+		return listener;
+	}
+
+	public void run() {
+		final List<Object> batch = new ArrayList<Object>();
+
+		while (true) {
+			synchronized (this) {
+				isDelivering = false;
+				notifyAll();
+
+				while (events.isEmpty() && !isClosed) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (events.isEmpty()) {
+					return; // closed, and all events have been delivered
+				}
+				batch.addAll(events);
+				events.clear();
+				isDelivering = true;
+				notifyAll();
+			}
+			for (Object event : batch) {
+				deliver(event);
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Stops the delivery thread, after the events sent until now have been delivered.
+	 */
+	void close() {
+		synchronized (this) {
+			isClosed = true;
+			notifyAll();
+		}
+		if (Thread.currentThread() != thread) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				// Immediately reasserts the exception by interrupting the caller thread itself
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all the events sent until now have been delivered to the listener.
+	 */
+	synchronized void waitForDelivery() {
+		if (Thread.currentThread() == thread) {
+			return;
+		}
+		try {
+			while ((!events.isEmpty() || isDelivering) && thread.isAlive()) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private synchronized void send(Object event) {
+		if (isClosed) {
+			return;
+		}
+		if (isLatestTurnOnly && event instanceof TurnStartedEvent) {
+			// A new turn makes the turns that have not been delivered yet obsolete, but not the other events
+			for (Iterator<Object> it = events.iterator(); it.hasNext();) {
+				if (isTurnEvent(it.next())) {
+					it.remove();
+				}
+			}
+		}
+		try {
+			// The listener cannot wait for itself, when it causes an event while it is delivering
+			while (events.size() >= CAPACITY && !isClosed && thread.isAlive() && Thread.currentThread() != thread) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+			return;
+		}
+		events.add(event);
+		notifyAll();
+	}
+
+	private static boolean isTurnEvent(Object event) {
+		return event instanceof TurnStartedEvent || event instanceof TurnEndedEvent;
+	}
+
+	private void deliver(Object event) {
+		try {
+			if (event instanceof TurnEndedEvent) {
+				listener.onTurnEnded((TurnEndedEvent) event);
+			} else if (event instanceof TurnStartedEvent) {
+				listener.onTurnStarted((TurnStartedEvent) event);
+			} else if (event instanceof RoundStartedEvent) {
+				listener.onRoundStarted((RoundStartedEvent) event);
+			} else if (event instanceof RoundEndedEvent) {
+				listener.onRoundEnded((RoundEndedEvent) event);
+			} else if (event instanceof BattleStartedEvent) {
+				listener.onBattleStarted((BattleStartedEvent) event);
+			} else if (event instanceof BattleCompletedEvent) {
+				listener.onBattleCompleted((BattleCompletedEvent) event);
+			} else if (event instanceof BattleFinishedEvent) {
+				listener.onBattleFinished((BattleFinishedEvent) event);
+			} else if (event instanceof BattlePausedEvent) {
+				listener.onBattlePaused((BattlePausedEvent) event);
+			} else if (event instanceof BattleResumedEvent) {
+				listener.onBattleResumed((BattleResumedEvent) event);
+			} else if (event instanceof BattleMessageEvent) {
+				listener.onBattleMessage((BattleMessageEvent) event);
+			} else if (event instanceof BattleErrorEvent) {
+				listener.onBattleError((BattleErrorEvent) event);
+			}
+		} catch (Throwable ex) {
+			if (event instanceof BattleErrorEvent) {
+				// Logging the error would send another battle error event
+				Logger.realErr.println(listener.getClass() + " " + ex.getMessage());
+			} else {
+				logError(event.getClass().getSimpleName() + " " + listener.getClass(), ex);
+			}
+		}
+	}
+
+	public void onBattleStarted(BattleStartedEvent event) {
+		send(event);
+	}
+
+	public void onBattleCompleted(BattleCompletedEvent event) {
+		send(event);
+		waitForDelivery();
+	}
+
+	public void onBattleFinished(BattleFinishedEvent event) {
+		send(event);
+		waitForDelivery();
+	}
+
+	public void onBattlePaused(BattlePausedEvent event) {
+		send(event);
+	}
+
+	public void onBattleResumed(BattleResumedEvent event) {
+		send(event);
+	}
+
+	public void onRoundStarted(RoundStartedEvent event) {
+		send(event);
+	}
+
+	public void onRoundEnded(RoundEndedEvent event) {
+		send(event);
+	}
+
+	public void onTurnStarted(TurnStartedEvent event) {
+		send(event);
+	}
+
+	public void onTurnEnded(TurnEndedEvent event) {
+		send(event);
+	}
+
+	public void onBattleMessage(BattleMessageEvent event) {
+		send(event);
+	}
+
+	public void onBattleError(BattleErrorEvent event) {
+		send(event);
+	}
+}
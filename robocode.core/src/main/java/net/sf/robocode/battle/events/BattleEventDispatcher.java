@@ -24,22 +24,124 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @since 1.6.1
  */
 public class BattleEventDispatcher implements IBattleListener {
+
+	/**
+	 * How the battle events are delivered to a listener.
+	 */
+	public enum Delivery {
+
+		/**
+		 * The events are delivered on the battle thread, which waits for the listener.
+		 */
+		SYNCHRONOUS,
+
+		/**
+		 * All events are delivered in order on a thread of the listener, which does not hold up the battle thread
+		 * unless the listener falls too far behind, e.g. for recording the battle.
+		 */
+		ORDERED,
+
+		/**
+		 * As {@link #ORDERED}, but turns are skipped when the listener falls behind, so it only gets the latest
+		 * turn, e.g. for displaying the battle.
+		 */
+		LATEST
+	}
+
 	// This list is guaranteed to be thread-safe, which is necessary as it will be accessed
 	// by both the battle thread and battle manager thread. If this list is not thread-safe
 	// then ConcurentModificationExceptions will occur from time to time.
 	private final List<IBattleListener> listeners = new CopyOnWriteArrayList<IBattleListener>();
 
+	// Set when at least one of the listeners handles onTurnEnded()
+	private volatile boolean isTurnEndedListened;
+
 	public BattleEventDispatcher() {}
 
 	public void addListener(IBattleListener listener) {
+		addListener(listener, Delivery.SYNCHRONOUS);
+	}
+
+	/**
+	 * Adds a listener, which gets the battle events as given by the delivery.
+	 * <p>
+	 * Listeners with an asynchronous delivery have received all events before the battle is completed or finished,
+	 * so other listeners can rely on their results then.
+	 *
+	 * @param listener the listener to add.
+	 * @param delivery how the events are delivered to the listener.
+	 */
+	public void addListener(IBattleListener listener, Delivery delivery) {
 		assert (listener != null);
 
-		listeners.add(listener);
+		if (delivery == Delivery.SYNCHRONOUS) {
+			listeners.add(listener);
+		} else {
+			listeners.add(new AsyncBattleListener(listener, delivery == Delivery.LATEST));
+		}
+		updateTurnEndedListened();
 	}
 
 	public void removeListener(IBattleListener listener) {
 		assert (listener != null);
-		listeners.remove(listener);
+
+		for (IBattleListener added : listeners) {
+			if (added == listener || added instanceof AsyncBattleListener
+					&& ((AsyncBattleListener) added).getListener() == listener) {
+				listeners.remove(added);
+				if (added instanceof AsyncBattleListener) {
+					((AsyncBattleListener) added).close();
+				}
+				break;
+			}
+		}
+		updateTurnEndedListened();
+	}
+
+	/**
+	 * Checks if any of the listeners handles onTurnEnded(). Listeners that inherit onTurnEnded() from the
+	 * {@link BattleAdaptor} without overriding it do not, and hence the battle does not need to create a
+	 * turn snapshot for them.
+	 *
+	 * @return {@code true} if at least one listener handles onTurnEnded(); {@code false} otherwise.
+	 */
+	public boolean isTurnEndedListened() {
+		return isTurnEndedListened;
+	}
+
+	private synchronized void updateTurnEndedListened() {
+		boolean listened = false;
+
+		for (IBattleListener listener : listeners) {
+			if (handlesTurnEnded(listener)) {
+				listened = true;
+				break;
+			}
+		}
+		isTurnEndedListened = listened;
+	}
+
+	private static boolean handlesTurnEnded(IBattleListener listener) {
+		if (listener instanceof AsyncBattleListener) {
+			listener = ((AsyncBattleListener) listener).getListener();
+		}
+		try {
+			return listener.getClass().getMethod("onTurnEnded", TurnEndedEvent.class).getDeclaringClass()
+					!= BattleAdaptor.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		} catch (SecurityException e) {
+			return true;
+		}
+	}
+
+	// Waits until the asynchronous listeners have received all events sent until now
+	private void waitForAsyncListeners() {
+		for (IBattleListener listener : listeners) {
+			if (listener instanceof AsyncBattleListener) {
+				((AsyncBattleListener) listener).waitForDelivery();
+			}
+		}
 	}
 
 	public void onBattleStarted(BattleStartedEvent event) {
@@ -53,6 +155,8 @@ public class BattleEventDispatcher implements IBattleListener {
 	}
 
 	public void onBattleCompleted(BattleCompletedEvent event) {
+		waitForAsyncListeners();
+
 		for (IBattleListener listener : listeners) {
 			try {
 				listener.onBattleCompleted(event);
@@ -63,6 +167,8 @@ public class BattleEventDispatcher implements IBattleListener {
 	}
 
 	public void onBattleFinished(BattleFinishedEvent event) {
+		waitForAsyncListeners();
+
 		for (IBattleListener listener : listeners) {
 			try {
 				listener.onBattleFinished(event);
@@ -160,6 +160,8 @@ public final class RobocodeMain extends RobocodeMainBase {
 				setup.exitOnComplete = true;
 				if (setup.replayFilename.toLowerCase().endsWith("xml.zip")) {
 					recordManager.loadRecord(setup.replayFilename, BattleRecordFormat.XML_ZIP);
+				} else if (setup.replayFilename.toLowerCase().endsWith(".bri")) {
+					recordManager.loadRecord(setup.replayFilename, BattleRecordFormat.BINARY_INDEXED);
 				} else {
 					recordManager.loadRecord(setup.replayFilename, BattleRecordFormat.BINARY_ZIP);
 				}
@@ -292,6 +294,7 @@ public final class RobocodeMain extends RobocodeMainBase {
 						+ "  -battle <battle file>      Run the battle specified in a battle file\n"
 						+ "  -results <results file>    Save results to the specified text file\n"
 						+ "  -record <bin record file>  Record the battle into the specified file as binary\n"
+						+ "                             (indexed binary when the file name ends with .bri)\n"
 						+ "  -recordXML <xml rec file>  Record the battle into the specified file as XML\n"
 						+ "  -replay <record file>      Replay the specified battle record\n"
 						+ "  -tps <tps>                 Set the TPS > 0 (Turns Per Second)\n"
@@ -305,12 +308,25 @@ public final class RobocodeMain extends RobocodeMainBase {
 						+ "  -Ddebug=true|false         Enable/disable debugging used for preventing\n"
 						+ "                             robot timeouts and skipped turns, and allows an\n"
 						+ "                             an unlimited painting buffer when debugging robots\n"
+						+ "  -DNOROBOTOUTPUT=true|false Discard what robots print to their console, e.g.\n"
+						+ "                             when running battles without the GUI. Messages\n"
+						+ "                             and errors from the game are still printed\n"
 						+ "  -DlogMessages=true|false   Log messages and warnings will be disabled\n"
 						+ "  -DlogErrors=true|false     Log errors will be disabled\n"
 						+ "  -DEXPERIMENTAL=true|false  Enable/disable access to peer in robot interfaces\n"
 						+ "  -DPARALLEL=true|false      Enable/disable parallel processing of robots turns\n"
+						+ "  -DCPUTIME=true|false       Enable/disable measuring the CPU time used by each\n"
+						+ "                             robot per turn for skipped turns, instead of the\n"
+						+ "                             elapsed time\n"
+						+ "  -DREUSETHREADS=true|false  Enable/disable keeping the thread of each robot\n"
+						+ "                             alive between the rounds of a battle\n"
+						+ "  -DTURNHANDOFF=<mode>       Set how the turn is handed over to the robot\n"
+						+ "                             threads: monitor, park or spin (overrides the\n"
+						+ "                             robocode.battle.turnHandoff setting)\n"
 						+ "  -DRANDOMSEED=<long number> Set seed for deterministic behavior of random\n"
-						+ "                             numbers\n");
+						+ "                             numbers\n"
+						+ "  -DSCANTHREADS=<number>     Set number of threads used for reading robot jar\n"
+						+ "                             files into the robot database\n");
 	}
 
 	private void printResultsData(BattleCompletedEvent event) {
@@ -364,8 +380,11 @@ public final class RobocodeMain extends RobocodeMainBase {
 				printResultsData(event);
 			}
 			if (setup.recordFilename != null) {
-				recordManager.saveRecord(setup.recordFilename, BattleRecordFormat.BINARY_ZIP,
-						new SerializableOptions(false));
+				final BattleRecordFormat format = setup.recordFilename.toLowerCase().endsWith(".bri")
+						? BattleRecordFormat.BINARY_INDEXED
+						: BattleRecordFormat.BINARY_ZIP;
+
+				recordManager.saveRecord(setup.recordFilename, format, new SerializableOptions(false));
 			}
 			if (setup.recordXmlFilename != null) {
 				recordManager.saveRecord(setup.recordXmlFilename, BattleRecordFormat.XML, new SerializableOptions(false));
@@ -15,4 +15,11 @@ public interface ICpuManager {
 	long getCpuConstant();
 
 	void calculateCpuConstant();
+
+	/**
+	 * Calculates the CPU constant on a background thread. Battles started before it is done use the old CPU constant.
+	 *
+	 * @param onRefreshed called on the background thread when the calculation is done, even if it failed, or null.
+	 */
+	void refreshCpuConstant(Runnable onRefreshed);
 }
@@ -15,5 +15,12 @@ public enum BattleRecordFormat {
 	BINARY,
 	BINARY_ZIP,
 	XML,
-	XML_ZIP
+	XML_ZIP,
+
+	/**
+	 * Binary format where every turn is a separate chunk, and with an index of the offsets of all turns, so
+	 * that a record can be played without unpacking it first, and any turn can be read directly.
+	 * Turns are stored as keyframes at regular intervals, with only the changes since the turn before in between.
+	 */
+	BINARY_INDEXED
 }
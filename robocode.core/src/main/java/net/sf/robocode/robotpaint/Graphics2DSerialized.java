@@ -101,6 +101,14 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		SET_TRANSFORM, // setTransform(AffineTransform Tx)
 		SET_BACKGROUND, // setBackground(Color)
 		CLIP, // clip(Shape)
+
+		// Compact variants of the methods above, used when all arguments fit in 16 bits.
+		// These are appended to keep the ordinals of the methods above, which are also written by the .NET host.
+		DRAW_LINE_SHORT, // drawLine(int, int, int, int)
+		FILL_RECT_SHORT, // fillRect(int, int, int, int)
+		DRAW_RECT_SHORT, // drawRect(int, int, int, int)
+		DRAW_OVAL_SHORT, // drawOval(int, int, int, int)
+		FILL_OVAL_SHORT, // fillOval(int, int, int, int)
 	}
 
 	// Needed for getTransform()
@@ -139,6 +147,13 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	// Byte buffer that works as a stack of method calls to this proxy
 	private ByteBuffer calls;
 
+	// The paint, stroke, font and transform last written to the calls buffer since it was read out.
+	// Calls setting the same state again are not written, as they do not change the graphics they are processed to.
+	private transient Paint recordedPaint;
+	private transient Stroke recordedStroke;
+	private transient Font recordedFont;
+	private transient AffineTransform recordedTransform;
+
 	// Serializer for this proxy
 	private final RbSerializer serializer = new RbSerializer();
 
@@ -202,6 +217,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.TRANSLATE_INT);
+				recordedTransform = null;
 				put(x);
 				put(y);
 			} catch (BufferOverflowException e) {
@@ -223,11 +239,12 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	@Override
 	public void setColor(Color c) {
-		if (isPaintingEnabled) {
+		if (isPaintingEnabled && (c == null || !c.equals(recordedPaint))) {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SET_COLOR);
 				put(c);
+				recordedPaint = c;
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					setColor(c); // Retry this method after reallocation
@@ -278,11 +295,12 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	@Override
 	public void setFont(Font font) {
-		if (isPaintingEnabled) {
+		if (isPaintingEnabled && (font == null || !font.equals(recordedFont))) {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SET_FONT);
 				put(font);
+				recordedFont = font;
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					setFont(font); // Retry this method after reallocation
@@ -405,11 +423,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		if (isPaintingEnabled) {
 			calls.mark(); // Mark for rollback
 			try {
-				put(Method.DRAW_LINE);
-				put(x1);
-				put(y1);
-				put(x2);
-				put(y2);
+				put(Method.DRAW_LINE, Method.DRAW_LINE_SHORT, x1, y1, x2, y2);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					drawLine(x1, y1, x2, y2); // Retry this method after reallocation
@@ -424,11 +438,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		if (isPaintingEnabled) {
 			calls.mark(); // Mark for rollback
 			try {
-				put(Method.FILL_RECT);
-				put(x);
-				put(y);
-				put(width);
-				put(height);
+				put(Method.FILL_RECT, Method.FILL_RECT_SHORT, x, y, width, height);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					fillRect(x, y, width, height); // Retry this method after reallocation
@@ -443,11 +453,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		if (isPaintingEnabled) {
 			calls.mark(); // Mark for rollback
 			try {
-				put(Method.DRAW_RECT);
-				put(x);
-				put(y);
-				put(width);
-				put(height);
+				put(Method.DRAW_RECT, Method.DRAW_RECT_SHORT, x, y, width, height);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					drawRect(x, y, width, height); // Retry this method after reallocation
@@ -563,11 +569,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		if (isPaintingEnabled) {
 			calls.mark(); // Mark for rollback
 			try {
-				put(Method.DRAW_OVAL);
-				put(x);
-				put(y);
-				put(width);
-				put(height);
+				put(Method.DRAW_OVAL, Method.DRAW_OVAL_SHORT, x, y, width, height);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					drawOval(x, y, width, height); // Retry this method after reallocation
@@ -582,11 +584,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		if (isPaintingEnabled) {
 			calls.mark(); // Mark for rollback
 			try {
-				put(Method.FILL_OVAL);
-				put(x);
-				put(y);
-				put(width);
-				put(height);
+				put(Method.FILL_OVAL, Method.FILL_OVAL_SHORT, x, y, width, height);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					fillOval(x, y, width, height); // Retry this method after reallocation
@@ -1012,11 +1010,12 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	@Override
 	public void setPaint(Paint paint) {
-		if (isPaintingEnabled) {
+		if (isPaintingEnabled && (paint == null || !paint.equals(recordedPaint))) {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SET_PAINT);
 				put(paint);
+				recordedPaint = paint;
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					setPaint(paint); // Retry this method after reallocation
@@ -1031,11 +1030,12 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	@Override
 	public void setStroke(Stroke s) {
-		if (isPaintingEnabled) {
+		if (isPaintingEnabled && (s == null || !s.equals(recordedStroke))) {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SET_STROKE);
 				put(s);
+				recordedStroke = s;
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					setStroke(s); // Retry this method after reallocation
@@ -1095,6 +1095,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.TRANSLATE_DOUBLE);
+				recordedTransform = null;
 				put(tx);
 				put(ty);
 			} catch (BufferOverflowException e) {
@@ -1115,6 +1116,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.ROTATE);
+				recordedTransform = null;
 				put(theta);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
@@ -1134,6 +1136,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.ROTATE_XY);
+				recordedTransform = null;
 				put(theta);
 				put(x);
 				put(y);
@@ -1155,6 +1158,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SCALE);
+				recordedTransform = null;
 				put(sx);
 				put(sy);
 			} catch (BufferOverflowException e) {
@@ -1175,6 +1179,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SHEAR);
+				recordedTransform = null;
 				put(shx);
 				put(shy);
 			} catch (BufferOverflowException e) {
@@ -1195,6 +1200,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.TRANSFORM);
+				recordedTransform = null;
 				put(Tx);
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
@@ -1210,11 +1216,12 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	@Override
 	public void setTransform(AffineTransform Tx) {
-		if (isPaintingEnabled) {
+		if (isPaintingEnabled && (Tx == null || !Tx.equals(recordedTransform))) {
 			calls.mark(); // Mark for rollback
 			try {
 				put(Method.SET_TRANSFORM);
 				put(Tx);
+				recordedTransform = new AffineTransform(Tx); // copy, as the transform could be modified afterwards
 			} catch (BufferOverflowException e) {
 				if (recoverFromBufferOverflow()) {
 					setTransform(Tx); // Retry this method after reallocation
@@ -1322,8 +1329,10 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	public void setPaintingEnabled(boolean enabled) {
 		if (enabled && !isPaintingEnabled) {
-			calls = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
-			calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
+			if (calls == null) {
+				calls = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+			}
+			clearQueuedCalls();
 		}
 		isPaintingEnabled = enabled;
 	}
@@ -1363,21 +1372,8 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	}
 
 	public void processTo(Graphics2D g, Object graphicsCalls) {
-		calls.clear();
-
-		calls.mark(); // Mark for rollback
-		try {
-			calls.put((byte[]) graphicsCalls);
-		} catch (BufferOverflowException e) {
-			calls.reset(); // Rollback buffer
-			if (reallocBuffer()) {
-				processTo(g, graphicsCalls);
-				return; // must exit here
-			}
-			calls.clear();
-		}
-
-		calls.flip();
+		// The calls are read directly from the byte array, which is never modified, instead of copying them first
+		calls = ByteBuffer.wrap((byte[]) graphicsCalls);
 		calls.order(calls.get() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
 
 		while (calls.remaining() > 0) {
@@ -1400,10 +1396,22 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		calls.flip();
 		calls.get(res);
 
+		clearQueuedCalls();
+
+		return res;
+	}
+
+	/**
+	 * Clears the calls buffer, keeping its capacity for the calls of the next turn, and forgets the recorded state.
+	 */
+	private void clearQueuedCalls() {
 		calls.clear();
 		calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
 
-		return res;
+		recordedPaint = null;
+		recordedStroke = null;
+		recordedFont = null;
+		recordedTransform = null;
 	}
 
 	private void processQueuedCall(Graphics2D g) {
@@ -1586,6 +1594,26 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			processClip(g);
 			break;
 
+		case DRAW_LINE_SHORT:
+			processDrawLine_short(g);
+			break;
+
+		case FILL_RECT_SHORT:
+			processFillRect_short(g);
+			break;
+
+		case DRAW_RECT_SHORT:
+			processDrawRect_short(g);
+			break;
+
+		case DRAW_OVAL_SHORT:
+			processDrawOval_short(g);
+			break;
+
+		case FILL_OVAL_SHORT:
+			processFillOval_short(g);
+			break;
+
 		case DRAW_GLYPH_VECTOR:
 		case DRAW_IMAGE_1:
 		case DRAW_IMAGE_2:
@@ -1832,6 +1860,31 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		g.clip(readShape());
 	}
 
+	private void processDrawLine_short(Graphics2D g) {
+		// drawLine(int, int, int, int)
+		g.drawLine(calls.getShort(), calls.getShort(), calls.getShort(), calls.getShort());
+	}
+
+	private void processFillRect_short(Graphics2D g) {
+		// fillRect(int, int, int, int)
+		g.fillRect(calls.getShort(), calls.getShort(), calls.getShort(), calls.getShort());
+	}
+
+	private void processDrawRect_short(Graphics2D g) {
+		// drawRect(int, int, int, int)
+		g.drawRect(calls.getShort(), calls.getShort(), calls.getShort(), calls.getShort());
+	}
+
+	private void processDrawOval_short(Graphics2D g) {
+		// drawOval(int, int, int, int)
+		g.drawOval(calls.getShort(), calls.getShort(), calls.getShort(), calls.getShort());
+	}
+
+	private void processFillOval_short(Graphics2D g) {
+		// fillOval(int, int, int, int)
+		g.fillOval(calls.getShort(), calls.getShort(), calls.getShort(), calls.getShort());
+	}
+
 	private Shape readShape() {
 		switch (calls.get()) {
 		case 0:
@@ -1902,14 +1955,9 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		ByteBuffer newBuffer = ByteBuffer.allocate(bufferSize);
 
 		if (calls != null) {
-			// Copy all bytes contained in the current buffer to the new buffer
-
-			byte[] copiedBytes = new byte[calls.position()];
-
-			calls.clear();
-			calls.get(copiedBytes);
-
-			newBuffer.put(copiedBytes);
+			// Copy all bytes contained in the current buffer directly to the new buffer
+			calls.flip();
+			newBuffer.put(calls);
 		}
 
 		// Switch to the new buffer
@@ -2176,6 +2224,26 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		// FOR-DEBUG calls.putInt(0xBADF00D);
 	}
 
+	/**
+	 * Writes a method taking four int arguments, using the compact variant of the method if all
+	 * arguments fit in a short, which is the case for nearly all painting on the battlefield.
+	 */
+	private void put(Method m, Method shortMethod, int a, int b, int c, int d) {
+		if (a == (short) a && b == (short) b && c == (short) c && d == (short) d) {
+			put(shortMethod);
+			calls.putShort((short) a);
+			calls.putShort((short) b);
+			calls.putShort((short) c);
+			calls.putShort((short) d);
+		} else {
+			put(m);
+			put(a);
+			put(b);
+			put(c);
+			put(d);
+		}
+	}
+
 	private void put(AttributedCharacterIterator iterator) {
 		if (iterator == null) {
 			put((String) null);
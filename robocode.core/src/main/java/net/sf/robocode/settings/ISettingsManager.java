@@ -166,6 +166,14 @@ public interface ISettingsManager {
 
 	void setCpuConstant(long cpuConstant);
 
+	String getCpuConstantProfile();
+
+	void setCpuConstantProfile(String profile);
+
+	String getBattleTurnHandoff();
+
+	void setBattleTurnHandoff(String turnHandoff);
+
 	Collection<String> getOptionsDevelopmentPaths();
 
 	void setOptionsDevelopmentPaths(Collection<String> paths);
@@ -305,6 +313,8 @@ public interface ISettingsManager {
 			ROBOT_FILESYSTEM_QUOTA = "robocode.robot.filesystem.quota",
 			CONSOLE_QUOTA = "robocode.console.quota",
 			CPU_CONSTANT = "robocode.cpu.constant",
+			CPU_CONSTANT_PROFILE = "robocode.cpu.constant.profile",
+			BATTLE_TURN_HANDOFF = "robocode.battle.turnHandoff",
 			LAST_RUN_VERSION = "robocode.version.lastrun",
 
 			BATTLE_DEFAULT_BATTLEFIELD_WIDTH = "robocode.battle.default.battlefieldWidth",
@@ -124,6 +124,8 @@ public class SettingsManager implements ISettingsManager {
 	private long robotFilesystemQuota = 200000;
 	private long consoleQuota = 8192;
 	private long cpuConstant = -1;
+	private String cpuConstantProfile = "";
+	private String battleTurnHandoff = "monitor";
 
 	// Battle default settings
 	private int battleDefaultBattlefieldWidth = 800;
@@ -548,6 +550,24 @@ public class SettingsManager implements ISettingsManager {
 		props.setProperty(CPU_CONSTANT, "" + cpuConstant);
 	}
 
+	public String getCpuConstantProfile() {
+		return cpuConstantProfile;
+	}
+
+	public void setCpuConstantProfile(String cpuConstantProfile) {
+		this.cpuConstantProfile = cpuConstantProfile;
+		props.setProperty(CPU_CONSTANT_PROFILE, cpuConstantProfile);
+	}
+
+	public String getBattleTurnHandoff() {
+		return battleTurnHandoff;
+	}
+
+	public void setBattleTurnHandoff(String battleTurnHandoff) {
+		this.battleTurnHandoff = battleTurnHandoff;
+		props.setProperty(BATTLE_TURN_HANDOFF, battleTurnHandoff);
+	}
+
 	public Collection<String> getOptionsDevelopmentPaths() {
 		return new HashSet<String>(optionsDevelopmentPaths);
 	}
@@ -793,6 +813,8 @@ public class SettingsManager implements ISettingsManager {
 		robotFilesystemQuota = Long.parseLong(props.getProperty(ROBOT_FILESYSTEM_QUOTA, "" + 200000));
 		consoleQuota = Long.parseLong(props.getProperty(CONSOLE_QUOTA, "8192"));
 		cpuConstant = Long.parseLong(props.getProperty(CPU_CONSTANT, "-1"));
+		cpuConstantProfile = props.getProperty(CPU_CONSTANT_PROFILE, "");
+		battleTurnHandoff = props.getProperty(BATTLE_TURN_HANDOFF, "monitor");
 	}
 
 	public String getLastRunVersion() {
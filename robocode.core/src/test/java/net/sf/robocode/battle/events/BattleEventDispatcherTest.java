@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.battle.events;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.events.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+
+/**
+ * Checks the delivery of the battle events to synchronous and asynchronous listeners.
+ */
+public class BattleEventDispatcherTest {
+
+	private static final int ROUNDS = 10;
+	private static final int TURNS = 200;
+
+	@Test
+	public void orderedDelivery() {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+		final List<String> finished = Collections.synchronizedList(new ArrayList<String>());
+		final EventCounter ordered = new EventCounter(finished, "ordered", null);
+
+		dispatcher.addListener(ordered, BattleEventDispatcher.Delivery.ORDERED);
+		dispatcher.addListener(new EventCounter(finished, "synchronous", null));
+
+		Assert.assertTrue(dispatcher.isTurnEndedListened());
+
+		sendBattle(dispatcher);
+
+		Assert.assertEquals(ROUNDS * TURNS, ordered.turns);
+		Assert.assertEquals(ROUNDS, ordered.messages);
+		Assert.assertEquals("The synchronous listener must finish after the ordered one",
+				"ordered synchronous", finished.get(0) + " " + finished.get(1));
+
+		dispatcher.removeListener(ordered);
+	}
+
+	@Test
+	public void latestDelivery() {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+		final List<String> finished = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch sent = new CountDownLatch(1);
+		final EventCounter latest = new EventCounter(finished, "latest", sent);
+
+		dispatcher.addListener(latest, BattleEventDispatcher.Delivery.LATEST);
+
+		sendBattle(dispatcher, sent);
+
+		Assert.assertTrue("Turns must be skipped", latest.turns < ROUNDS * TURNS);
+		Assert.assertEquals("Messages must not be skipped", ROUNDS, latest.messages);
+		Assert.assertTrue("The last turn must not be skipped", latest.isLastEventTurnEnded);
+		Assert.assertEquals(1, finished.size());
+
+		dispatcher.removeListener(latest);
+		Assert.assertFalse(dispatcher.isTurnEndedListened());
+	}
+
+	@Test
+	public void eventFromListenerWithFullQueue() throws InterruptedException {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+		final Thread battleThread = new Thread(new Runnable() {
+			public void run() {
+				for (int turn = 0; turn < 2 * ROUNDS * TURNS; turn++) {
+					dispatcher.onTurnEnded(new TurnEndedEvent(null));
+				}
+			}
+		});
+		final EventCounter listener = new EventCounter(null, "ordered", null) {
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {
+				if (turns++ == 0) {
+					// Waits for the battle thread to fill the queue, and then causes an event itself
+					while (battleThread.getState() != Thread.State.WAITING) {
+						Thread.yield();
+					}
+					dispatcher.onBattleMessage(new BattleMessageEvent("From the listener"));
+				}
+			}
+		};
+
+		dispatcher.addListener(listener, BattleEventDispatcher.Delivery.ORDERED);
+		battleThread.setDaemon(true);
+		battleThread.start();
+		battleThread.join(10000);
+
+		Assert.assertFalse("The listener must not wait for itself", battleThread.isAlive());
+
+		dispatcher.removeListener(listener);
+
+		Assert.assertEquals(2 * ROUNDS * TURNS, listener.turns);
+		Assert.assertEquals(1, listener.messages);
+	}
+
+	private static void sendBattle(BattleEventDispatcher dispatcher) {
+		sendBattle(dispatcher, new CountDownLatch(0));
+	}
+
+	private static void sendBattle(BattleEventDispatcher dispatcher, CountDownLatch sent) {
+		for (int round = 0; round < ROUNDS; round++) {
+			dispatcher.onBattleMessage(new BattleMessageEvent("Round " + round));
+			for (int turn = 0; turn < TURNS; turn++) {
+				dispatcher.onTurnStarted(new TurnStartedEvent());
+				dispatcher.onTurnEnded(new TurnEndedEvent(null));
+			}
+		}
+		sent.countDown();
+		dispatcher.onBattleFinished(new BattleFinishedEvent(false));
+	}
+
+	private static class EventCounter extends BattleAdaptor {
+		private final List<String> finished;
+		private final String name;
+		private final CountDownLatch sent;
+
+		int turns;
+		int messages;
+		boolean isLastEventTurnEnded;
+
+		EventCounter(List<String> finished, String name, CountDownLatch sent) {
+			this.finished = finished;
+			this.name = name;
+			this.sent = sent;
+		}
+
+		@Override
+		public void onTurnEnded(TurnEndedEvent event) {
+			if (sent != null && turns == 0) {
+				try {
+					sent.await(); // falls behind, until all turns have been sent
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			turns++;
+			isLastEventTurnEnded = true;
+		}
+
+		@Override
+		public void onBattleMessage(BattleMessageEvent event) {
+			messages++;
+			isLastEventTurnEnded = false;
+		}
+
+		@Override
+		public void onBattleFinished(BattleFinishedEvent event) {
+			finished.add(name);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.robotpaint;
+
+
+import net.sf.robocode.security.HiddenAccess;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+
+/**
+ * Checks that the painting calls of a robot are drawn the same after being serialized, and that calls which
+ * do not change the graphics state are left out.
+ */
+public class Graphics2DSerializedTest {
+
+	private static final int SIZE = 200;
+
+	@BeforeClass
+	public static void init() {
+		// we need to switch off engine classloader for this test
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("WORKINGDIRECTORY", "target//test-classes");
+		System.setProperty("TESTING", "true");
+		HiddenAccess.initContainer();
+	}
+
+	@AfterClass
+	public static void cleanup() {
+		System.setProperty("NOSECURITY", "false");
+	}
+
+	@Test
+	public void sameDrawing() {
+		final Graphics2DSerialized sg = new Graphics2DSerialized();
+
+		sg.setPaintingEnabled(true);
+		paint(sg, 0);
+
+		final BufferedImage expected = newImage();
+		final Graphics2D eg = expected.createGraphics();
+
+		paint(eg, 0);
+		eg.dispose();
+
+		final BufferedImage actual = newImage();
+		final Graphics2D ag = actual.createGraphics();
+
+		new Graphics2DSerialized().processTo(ag, sg.readoutQueuedCalls());
+		ag.dispose();
+
+		Assert.assertTrue("Serialized painting differs", Arrays.equals(pixels(expected), pixels(actual)));
+	}
+
+	@Test
+	public void largeCoordinates() {
+		final Graphics2DSerialized sg = new Graphics2DSerialized();
+
+		sg.setPaintingEnabled(true);
+		sg.setColor(Color.WHITE);
+		sg.drawLine(-100000, 10, 100000, 10);
+		sg.fillRect(150, 150, 40000, 40000);
+
+		final BufferedImage actual = newImage();
+		final Graphics2D ag = actual.createGraphics();
+
+		new Graphics2DSerialized().processTo(ag, sg.readoutQueuedCalls());
+		ag.dispose();
+
+		Assert.assertEquals(Color.WHITE.getRGB(), actual.getRGB(0, 10));
+		Assert.assertEquals(Color.WHITE.getRGB(), actual.getRGB(SIZE - 1, SIZE - 1));
+		Assert.assertEquals(Color.BLACK.getRGB(), actual.getRGB(0, 0));
+	}
+
+	@Test
+	public void coalescedState() {
+		final Graphics2DSerialized sg = new Graphics2DSerialized();
+
+		sg.setPaintingEnabled(true);
+		sg.setColor(Color.RED);
+		sg.setStroke(new BasicStroke(2));
+		sg.setTransform(new AffineTransform());
+		sg.drawLine(1, 2, 3, 4);
+
+		final int once = sg.readoutQueuedCalls().length;
+
+		for (int i = 0; i < 10; i++) {
+			sg.setColor(new Color(255, 0, 0));
+			sg.setStroke(new BasicStroke(2));
+			sg.setTransform(new AffineTransform());
+			sg.drawLine(1, 2, 3, 4);
+		}
+
+		final int oneLine = 1 + 8;
+
+		Assert.assertEquals("State must be written again after a read out", once + 9 * oneLine,
+				sg.readoutQueuedCalls().length);
+
+		// A changed transform must make the same transform be written again
+		sg.setTransform(new AffineTransform());
+		sg.translate(10, 10);
+		final int translated = sg.readoutQueuedCalls().length;
+
+		sg.setTransform(new AffineTransform());
+		sg.translate(10, 10);
+		sg.setTransform(new AffineTransform());
+		Assert.assertTrue(sg.readoutQueuedCalls().length > translated);
+	}
+
+	// Benchmark of the painting calls per second, and the bytes per turn of a robot painting a lot of debug graphics
+	// @Test
+	public void paintSpeed() {
+		final Graphics2DSerialized sg = new Graphics2DSerialized();
+		final int turns = 10000;
+		final int callsPerTurn = 2000;
+
+		sg.setPaintingEnabled(true);
+
+		long bytes = 0;
+		final long start = System.nanoTime();
+
+		for (int turn = 0; turn < turns; turn++) {
+			for (int i = 0; i < callsPerTurn / 4; i++) {
+				sg.setColor(Color.GREEN);
+				sg.drawLine(i, turn % 600, i + 10, 400);
+			}
+			for (int i = 0; i < callsPerTurn / 4; i++) {
+				sg.setColor(Color.RED);
+				sg.fillOval(i % 800, i % 600, 4, 4);
+			}
+			final byte[] calls = sg.readoutQueuedCalls();
+
+			bytes += (calls == null) ? 0 : calls.length;
+		}
+		final long time = System.nanoTime() - start;
+
+		System.out.println("Paint: " + (long) turns * callsPerTurn * 1000000000L / time + " calls/sec, "
+				+ bytes / turns + " bytes/turn");
+	}
+
+	private static void paint(Graphics2D g, int turn) {
+		g.setColor(Color.RED);
+		g.drawLine(10, 10, 190, 190);
+		g.setColor(Color.RED);
+		g.fillOval(20 + turn, 30, 15, 15);
+		g.setColor(Color.GREEN);
+		g.drawRect(5, 5, 100, 50);
+		g.setStroke(new BasicStroke(3));
+		g.drawOval(60, 60, 40, 30);
+		g.setStroke(new BasicStroke(3));
+		g.setColor(Color.GREEN);
+		g.fillRect(120, 120, 30, 30);
+		g.translate(20, 20);
+		g.setColor(Color.BLUE);
+		g.drawLine(0, 0, 50, 0);
+	}
+
+	private static BufferedImage newImage() {
+		return new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+	}
+
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, SIZE, SIZE, null, 0, SIZE);
+	}
+}
@@ -9,8 +9,10 @@ package net.sf.robocode.serialization;
 
 
 import net.sf.robocode.peer.BulletCommand;
+import net.sf.robocode.peer.BulletStatus;
 import net.sf.robocode.peer.DebugProperty;
 import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
 import net.sf.robocode.peer.TeamMessage;
 import net.sf.robocode.robotpaint.Graphics2DSerialized;
 import net.sf.robocode.security.HiddenAccess;
@@ -20,6 +22,8 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import robocode.Event;
+import robocode.RobotStatus;
 import robocode.util.Utils;
 
 import javax.swing.*;
@@ -29,6 +33,8 @@ import java.awt.geom.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 
 
 /**
@@ -141,6 +147,86 @@ public class RbSerializerTest {
 		Assert.assertEquals(ec2.getDebugProperties().get(0).getValue(), "Pli lu?ouk k pl belsk dy");
 	}
 
+	@Test
+	public void growingBuffers() throws IOException {
+		ExecCommands ec = new ExecCommands();
+
+		ec.setBodyTurnRemaining(150.123);
+		ec.getBullets().add(new BulletCommand(1.0, true, 0.9354, 11));
+		ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", null));
+		ec.getDebugProperties().add(new DebugProperty("Surrogate pair", "\ud83d\ude00 and \u00e9\u4e2d"));
+
+		RbSerializer rbs = new RbSerializer();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+		for (int i = 0; i < 3; i++) {
+			// Grow the message, so the buffers must be replaced by larger ones
+			ec.getDebugProperties().add(new DebugProperty("Large", new String(new char[1000 << (i * 2)]).replace('\0', 'x')));
+
+			ExecResults results = new ExecResults(ec, createStatus(), new ArrayList<Event>(),
+					new ArrayList<TeamMessage>(), new ArrayList<BulletStatus>(), false, false, true);
+			out.reset();
+			rbs.serialize(out, RbSerializer.ExecResults_TYPE, results);
+			ExecResults results2 = (ExecResults) rbs.deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+			assertSameProperties(ec, results2.getCommands());
+
+			out.reset();
+			rbs.serialize(out, RbSerializer.ExecCommands_TYPE, ec);
+			assertSameProperties(ec, (ExecCommands) rbs.deserialize(new ByteArrayInputStream(out.toByteArray())));
+		}
+	}
+
+	private static void assertSameProperties(ExecCommands expected, ExecCommands actual) {
+		Assert.assertEquals(expected.getDebugProperties().size(), actual.getDebugProperties().size());
+		for (int i = 0; i < expected.getDebugProperties().size(); i++) {
+			Assert.assertEquals(expected.getDebugProperties().get(i).getValue(),
+					actual.getDebugProperties().get(i).getValue());
+		}
+	}
+
+	private static RobotStatus createStatus() {
+		return HiddenAccess.createStatus(100, 50, 50, 0, 0, 0, 8, 0, 0, 0, 100, 0, 3, 0, 1, 10, 123);
+	}
+
+	// @Test
+	// round trips of ExecCommands and ExecResults through one buffer, as with the bidirectional buffer of a peer
+	public void bufferSpeed() throws IOException {
+		ExecCommands ec = new ExecCommands();
+
+		ec.setBodyTurnRemaining(150.123);
+		ec.getBullets().add(new BulletCommand(1.0, true, 0.9354, 11));
+		ec.getBullets().add(new BulletCommand(1.0, true, 0.9354, 11));
+		ec.getBullets().add(new BulletCommand(1.0, true, 0.9354, 11));
+		ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", null));
+		ec.getDebugProperties().add(new DebugProperty("ooooh", "aaaah"));
+
+		ExecResults results = new ExecResults(ec, createStatus(), new ArrayList<Event>(), new ArrayList<TeamMessage>(),
+				new ArrayList<BulletStatus>(), false, false, true);
+		RbSerializer rbs = new RbSerializer();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < 1000000; i++) {
+			ec.setGunColor(i);
+			buffer.clear();
+			rbs.serializeToBuffer(buffer, RbSerializer.ExecCommands_TYPE, ec);
+			buffer.flip();
+			ExecCommands ec2 = (ExecCommands) rbs.deserialize(buffer);
+
+			Assert.assertEquals(ec2.getGunColor(), i);
+
+			buffer.clear();
+			rbs.serializeToBuffer(buffer, RbSerializer.ExecResults_TYPE, results);
+			buffer.flip();
+			ExecResults results2 = (ExecResults) rbs.deserialize(buffer);
+
+			Assert.assertEquals(results2.getCommands().getGunColor(), i);
+		}
+		System.out.println("1000000 round trips: " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+
 	// @Test
 	// 14 seconds for 1000 000,
 	// 15x faster
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host;
+
+
+import net.sf.robocode.io.Logger;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Measurement of the CPU constant, which is the time a robot is allowed to use per turn.
+ * <p>
+ * A fixed piece of math is run for a short warm-up period, and then for a number of short samples. Samples that
+ * were disturbed, e.g. by other processes or the garbage collector, are rejected as outliers, and the CPU constant
+ * is computed from the mean of the remaining samples.
+ */
+final class CpuCalibration {
+
+	private final static int APPROXIMATE_CYCLES_ALLOWED = 6250;
+	private final static int WARMUP_MILLIS = 200;
+	private final static int SAMPLE_MILLIS = 50;
+	private final static int SAMPLES = 15;
+
+	// Samples further away from the median than this many (scaled) median absolute deviations are outliers
+	private final static double OUTLIER_DEVIATIONS = 3;
+
+	private final static boolean JAVA_9 = System.getProperty("java.version").startsWith("9");
+
+	private final long cpuConstant;
+	private final long confidenceInterval;
+	private final int samples;
+	private final int measuredSamples;
+
+	private CpuCalibration(long cpuConstant, long confidenceInterval, int samples, int measuredSamples) {
+		this.cpuConstant = cpuConstant;
+		this.confidenceInterval = confidenceInterval;
+		this.samples = samples;
+		this.measuredSamples = measuredSamples;
+	}
+
+	/**
+	 * Measures the CPU constant, which takes about a second.
+	 *
+	 * @return the measured CPU constant.
+	 */
+	static CpuCalibration measure() {
+		runSample(WARMUP_MILLIS);
+
+		final double[] nanosPerRun = new double[SAMPLES];
+
+		for (int i = 0; i < SAMPLES; i++) {
+			nanosPerRun[i] = runSample(SAMPLE_MILLIS);
+		}
+		return fromSamples(nanosPerRun);
+	}
+
+	/**
+	 * Computes the CPU constant from the measured samples.
+	 *
+	 * @param nanosPerRun the nanoseconds per run of the math of each sample.
+	 * @return the CPU constant computed from the samples that are not outliers.
+	 */
+	static CpuCalibration fromSamples(double[] nanosPerRun) {
+		// Reject the outliers using the median absolute deviation, which is not affected by the outliers themselves
+		final double median = median(nanosPerRun);
+		final double[] deviations = new double[nanosPerRun.length];
+
+		for (int i = 0; i < nanosPerRun.length; i++) {
+			deviations[i] = Math.abs(nanosPerRun[i] - median);
+		}
+		final double maxDeviation = OUTLIER_DEVIATIONS * 1.4826 * median(deviations);
+
+		double sum = 0;
+		double sumOfSquares = 0;
+		int count = 0;
+
+		for (double sample : nanosPerRun) {
+			if (Math.abs(sample - median) <= maxDeviation) {
+				sum += sample;
+				sumOfSquares += sample * sample;
+				count++;
+			}
+		}
+		final double mean = sum / count;
+		final double variance = count > 1 ? Math.max(0, (sumOfSquares - sum * mean) / (count - 1)) : 0;
+		final double confidence = 1.96 * Math.sqrt(variance / count); // 95% confidence interval of the mean
+
+		return new CpuCalibration(Math.max(1, (long) (APPROXIMATE_CYCLES_ALLOWED * mean)),
+				(long) (APPROXIMATE_CYCLES_ALLOWED * confidence), count, nanosPerRun.length);
+	}
+
+	/**
+	 * Returns the CPU constant.
+	 *
+	 * @return the CPU constant in nanoseconds.
+	 */
+	long getCpuConstant() {
+		return cpuConstant;
+	}
+
+	/**
+	 * Returns the half width of the 95% confidence interval of the CPU constant.
+	 *
+	 * @return the half width of the confidence interval in nanoseconds.
+	 */
+	long getConfidenceInterval() {
+		return confidenceInterval;
+	}
+
+	/**
+	 * Returns the number of samples that the CPU constant is computed from, which are not outliers.
+	 *
+	 * @return the number of samples.
+	 */
+	int getSamples() {
+		return samples;
+	}
+
+	@Override
+	public String toString() {
+		return cpuConstant + " +/- " + confidenceInterval + " nanoseconds (95% confidence, " + samples + " of "
+				+ measuredSamples + " samples)";
+	}
+
+	/**
+	 * Returns a description of the Java VM and the CPU, which must be the same for a measured CPU constant to be
+	 * used again.
+	 *
+	 * @return the description of this system.
+	 */
+	static String getProfile() {
+		return System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + ", "
+				+ System.getProperty("os.name") + " " + System.getProperty("os.arch") + ", "
+				+ Runtime.getRuntime().availableProcessors() + " cores, " + getCpuModel();
+	}
+
+	private static String getCpuModel() {
+		final String identifier = System.getenv("PROCESSOR_IDENTIFIER"); // Windows
+
+		if (identifier != null) {
+			return identifier;
+		}
+		BufferedReader reader = null;
+
+		try {
+			reader = new BufferedReader(new FileReader("/proc/cpuinfo")); // Linux
+
+			for (String line; (line = reader.readLine()) != null;) {
+				if (line.startsWith("model name")) {
+					return line.substring(line.indexOf(':') + 1).trim();
+				}
+			}
+		} catch (IOException ignore) {// Not Linux
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException ignore) {}
+			}
+		}
+		return "unknown CPU";
+	}
+
+	// Returns the nanoseconds per run of the math
+	private static double runSample(int millis) {
+		long count = 0;
+		double d = 0;
+
+		final long start = System.nanoTime();
+		final long end = start + millis * 1000000L;
+		long now;
+
+		while ((now = System.nanoTime()) < end) {
+			d += Math.hypot(Math.sqrt(Math.abs(log(Math.atan(Math.random())))), Math.cbrt(Math.abs(Math.random() * 10))) / exp(Math.random());
+			count++;
+		}
+
+		// to cheat optimizer, almost never happen
+		if (d == 0.0) {
+			Logger.logMessage("bingo!");
+		}
+		return (double) (now - start) / Math.max(1, count);
+	}
+
+	private static double median(double[] values) {
+		final double[] sorted = values.clone();
+
+		Arrays.sort(sorted);
+
+		final int middle = sorted.length / 2;
+
+		return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+
+	// Work-around for bug #390
+	// The Java 9 Math.log(x) methods is much faster than in Java 8
+	private static double log(double x) {
+		if (JAVA_9) {
+			double d = 0;
+			for (int i = 0; i < 6; i++) {
+				d += Math.log(x);
+			}
+			return d;
+		} else {
+			return Math.log(x);
+		}
+	}
+
+	// Work-around for bug #390
+	// The Java 9 Math.exp(x) methods is much faster than in Java 8
+	private static double exp(double x) {
+		if (JAVA_9) {
+			double d = 0;
+			for (int i = 0; i < 62; i++) {
+				d += Math.exp(x);
+			}
+			return d;
+		} else {
+			return Math.exp(x);
+		}
+	}
+}
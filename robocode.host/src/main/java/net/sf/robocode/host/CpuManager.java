@@ -22,12 +22,7 @@ import net.sf.robocode.ui.IWindowManager;
  */
 public class CpuManager implements ICpuManager { // NO_UCD (use default)
 
-	private final static int APPROXIMATE_CYCLES_ALLOWED = 6250;
-	private final static int TEST_PERIOD_MILLIS = 5000;
-
-	private final static boolean JAVA_9 = System.getProperty("java.version").startsWith("9");
-
-	private long cpuConstant = -1;
+	private volatile long cpuConstant = -1;
 	private final ISettingsManager properties;
 
 	public CpuManager(ISettingsManager properties) { // NO_UCD (unused code)
@@ -36,44 +31,61 @@ public class CpuManager implements ICpuManager { // NO_UCD (use default)
 
 	public long getCpuConstant() {
 		if (cpuConstant == -1) {
-			cpuConstant = properties.getCpuConstant();
-			if (cpuConstant == -1) {
-				calculateCpuConstant();
+			synchronized (this) {
+				if (cpuConstant == -1) {
+					// A CPU constant without a profile has been set by hand or by an older version, and is kept
+					final String profile = properties.getCpuConstantProfile();
+
+					if (properties.getCpuConstant() == -1
+							|| (profile.length() > 0 && !profile.equals(CpuCalibration.getProfile()))) {
+						calculateCpuConstant();
+					} else {
+						cpuConstant = properties.getCpuConstant();
+					}
+				}
 			}
 		}
 		return cpuConstant;
 	}
 
-	public void calculateCpuConstant() {
+	public synchronized void calculateCpuConstant() {
 		setStatus("Estimating CPU speed, please wait...");
 
-		setCpuConstant();
-		Logger.logMessage(
-				"Each robot will be allowed a maximum of " + cpuConstant + " nanoseconds per turn on this system.");
-
-		properties.setCpuConstant(cpuConstant);
-		properties.saveProperties();
-
-		setStatus("");
-	}
-
-	private void setCpuConstant() {
-		long count = 0;
-		double d = 0;
-
-		long start = System.currentTimeMillis();
-
-		while (System.currentTimeMillis() - start < TEST_PERIOD_MILLIS) {
-			d += Math.hypot(Math.sqrt(Math.abs(log(Math.atan(Math.random())))), Math.cbrt(Math.abs(Math.random() * 10))) / exp(Math.random());
-			count++;
+		try {
+			final long start = System.currentTimeMillis();
+			final CpuCalibration calibration = CpuCalibration.measure();
+
+			cpuConstant = calibration.getCpuConstant();
+			Logger.logMessage(
+					"Each robot will be allowed a maximum of " + cpuConstant + " nanoseconds per turn on this system.");
+			Logger.logMessage(
+					"CPU constant: " + calibration + ", measured in " + (System.currentTimeMillis() - start) + " ms");
+
+			properties.setCpuConstant(cpuConstant);
+			properties.setCpuConstantProfile(CpuCalibration.getProfile());
+			properties.saveProperties();
+		} finally {
+			setStatus("");
 		}
+	}
 
-		// to cheat optimizer, almost never happen
-		if (d == 0.0) {
-			Logger.logMessage("bingo!");
-		}
+	public void refreshCpuConstant(final Runnable onRefreshed) {
+		final Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					calculateCpuConstant();
+				} catch (RuntimeException e) {
+					Logger.logError(e);
+				} finally {
+					if (onRefreshed != null) {
+						onRefreshed.run();
+					}
+				}
+			}
+		}, "CPU constant calculation");
 
-		cpuConstant = Math.max(1, (long) (1000000.0 * APPROXIMATE_CYCLES_ALLOWED * TEST_PERIOD_MILLIS / count));
+		thread.setDaemon(true);
+		thread.start();
 	}
 
 	private void setStatus(String message) {
@@ -83,32 +95,4 @@ public class CpuManager implements ICpuManager { // NO_UCD (use default)
 			windowManager.setStatus(message);
 		}
 	}
-
-	// Work-around for bug #390
-	// The Java 9 Math.log(x) methods is much faster than in Java 8
-	private static double log(double x) {
-		if (JAVA_9) {
-			double d = 0;
-			for (int i = 0; i < 6; i++) {
-				d += Math.log(x);
-			}
-			return d;
-		} else {
-			return Math.log(x);
-		}
-	}
-
-	// Work-around for bug #390
-	// The Java 9 Math.exp(x) methods is much faster than in Java 8
-	private static double exp(double x) {
-		if (JAVA_9) {
-			double d = 0;
-			for (int i = 0; i < 62; i++) {
-				d += Math.exp(x);
-			}
-			return d;
-		} else {
-			return Math.exp(x);
-		}
-	}
 }
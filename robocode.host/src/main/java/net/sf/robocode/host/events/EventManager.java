@@ -347,12 +347,9 @@ public final class EventManager implements IEventManager {
 			}
 		}
 
-		// Sort the events based on the time and priority of the events
-		eventQueue.sort();
-
-		// Process event queue here
+		// Process event queue here, which is ordered on the time and priority of the events
 		Event currentEvent;
-		while ((currentEvent = (eventQueue.size() > 0) ? eventQueue.get(0) : null) != null
+		while ((currentEvent = eventQueue.peek()) != null
 				&& currentEvent.getPriority() >= currentTopEventPriority) {
 
 			if (currentEvent.getPriority() == currentTopEventPriority) {
@@ -371,7 +368,7 @@ public final class EventManager implements IEventManager {
 			currentTopEventPriority = currentEvent.getPriority();
 			currentTopEvent = currentEvent;
 
-			eventQueue.remove(currentEvent);
+			eventQueue.poll();
 			try {
 				dispatch(currentEvent);
 
@@ -423,7 +420,7 @@ public final class EventManager implements IEventManager {
 				}
 			} catch (Exception ex) {
 				robotProxy.println("SYSTEM: " + ex.getClass().getName() + " occurred on " + event.getClass().getName());
-				ex.printStackTrace(robotProxy.getOut());
+				robotProxy.getOut().printStackTrace(ex);
 			}
 		}
 	}
@@ -11,43 +11,236 @@ package net.sf.robocode.host.events;
 import net.sf.robocode.security.HiddenAccess;
 import robocode.Event;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 
 /**
+ * Event queue of a robot, which is kept as a binary heap ordered by {@link Event#compareTo(Event)}.
+ * Events that compare as equal are ordered by the sequence in which they were added, so that the events
+ * are taken from the queue in the same order as a stable sort of the queue would give.
+ * <p>
+ * The arrays of the heap are kept when events are removed, so no memory is allocated for adding and taking
+ * events once the queue has grown to the number of events the robot receives.
+ *
  * @author Mathew A. Nelson (original)
  * @author Flemming N. Larsen (contributor)
  */
-@SuppressWarnings("serial")
-public class EventQueue extends ArrayList<Event> {
+public class EventQueue implements Iterable<Event> {
+
+	private Event[] events;
+	private long[] sequences;
+	private int size;
+	private long nextSequence;
+
+	// The events in the order they will be taken from the queue, or null if the queue has changed since
+	private Event[] sorted;
+
+	public EventQueue() {
+		events = new Event[32];
+		sequences = new long[32];
+	}
+
+	// Creates a copy of the heap of a queue, which is emptied to sort the events of the queue
+	private EventQueue(EventQueue queue) {
+		events = Arrays.copyOf(queue.events, queue.size);
+		sequences = Arrays.copyOf(queue.sequences, queue.size);
+		size = queue.size;
+	}
+
+	/**
+	 * Returns the number of events in the queue.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns {@code true} if there are no events in the queue.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an event to the queue. The time and priority of the event must not be changed while the event is
+	 * in the queue.
+	 */
+	public void add(Event event) {
+		if (size == events.length) {
+			events = Arrays.copyOf(events, size * 2);
+			sequences = Arrays.copyOf(sequences, size * 2);
+		}
+		events[size] = event;
+		sequences[size] = nextSequence++;
+		siftUp(size++);
+		sorted = null;
+	}
+
+	/**
+	 * Returns the first event of the queue without removing it, or {@code null} if the queue is empty.
+	 */
+	public Event peek() {
+		return (size == 0) ? null : events[0];
+	}
+
+	/**
+	 * Removes and returns the first event of the queue, or {@code null} if the queue is empty.
+	 */
+	public Event poll() {
+		if (size == 0) {
+			return null;
+		}
+		final Event first = events[0];
+
+		size--;
+		events[0] = events[size];
+		sequences[0] = sequences[size];
+		events[size] = null;
+		if (size > 0) {
+			siftDown(0);
+		}
+		sorted = null;
+		return first;
+	}
+
+	/**
+	 * Removes all events from the queue.
+	 */
+	public void clear() {
+		Arrays.fill(events, 0, size, null);
+		size = 0;
+		nextSequence = 0;
+		sorted = null;
+	}
 
 	public void clear(boolean includingSystemEvents) {
 		if (includingSystemEvents) {
-			super.clear();
+			clear();
+			return;
+		}
+		removeEvents(Long.MAX_VALUE);
+	}
+
+	public void clear(long clearTime) {
+		removeEvents(clearTime);
+	}
+
+	/**
+	 * Returns an iterator over the events in the order they will be taken from the queue.
+	 * The iterator works on a copy of the queue, hence events cannot be removed through it.
+	 * <p>
+	 * The copy is only sorted again when the queue has changed, as a robot usually reads the same events with
+	 * several of its getXXXEvents() methods during a turn.
+	 */
+	public Iterator<Event> iterator() {
+		if (sorted == null) {
+			final EventQueue heap = new EventQueue(this);
+
+			sorted = new Event[size];
+			for (int i = 0; i < sorted.length; i++) {
+				sorted[i] = heap.poll();
+			}
+		}
+		final Event[] sorted = this.sorted;
+
+		return new Iterator<Event>() {
+			private int index;
+
+			public boolean hasNext() {
+				return index < sorted.length;
+			}
+
+			public Event next() {
+				if (index >= sorted.length) {
+					throw new NoSuchElementException();
+				}
+				return sorted[index++];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Removes all events that are not critical, and which occurred at or before the specified time.
+	 */
+	private void removeEvents(long clearTime) {
+		int kept = 0;
+
+		for (int i = 0; i < size; i++) {
+			final Event e = events[i];
+
+			if ((e.getTime() > clearTime) || HiddenAccess.isCriticalEvent(e)) {
+				events[kept] = e;
+				sequences[kept] = sequences[i];
+				kept++;
+			}
+		}
+		if (kept == size) {
 			return;
 		}
+		Arrays.fill(events, kept, size, null);
+		size = kept;
+		sorted = null;
+
+		// Rebuild the heap from the kept events
+		for (int i = (size >>> 1) - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	private int compareAt(int i, int j) {
+		final int res = events[i].compareTo(events[j]);
+
+		if (res != 0) {
+			return res;
+		}
+		return (sequences[i] < sequences[j]) ? -1 : ((sequences[i] == sequences[j]) ? 0 : 1);
+	}
 
-		for (int i = 0; i < size(); i++) {
-			Event e = get(i);
+	private void siftUp(int index) {
+		while (index > 0) {
+			final int parent = (index - 1) >>> 1;
 
-			if (!HiddenAccess.isCriticalEvent(e)) {
-				remove(i--);
+			if (compareAt(index, parent) >= 0) {
+				break;
 			}
+			swap(index, parent);
+			index = parent;
 		}
 	}
 
-	public void clear(long clearTime) {
-		for (int i = 0; i < size(); i++) {
-			Event e = get(i);
+	private void siftDown(int index) {
+		final int half = size >>> 1;
 
-			if ((e.getTime() <= clearTime) && !HiddenAccess.isCriticalEvent(e)) {
-				remove(i--);
+		while (index < half) {
+			int child = 2 * index + 1;
+			final int right = child + 1;
+
+			if (right < size && compareAt(right, child) < 0) {
+				child = right;
+			}
+			if (compareAt(index, child) <= 0) {
+				break;
 			}
+			swap(index, child);
+			index = child;
 		}
 	}
 
-	void sort() {
-		Collections.sort(this);
+	private void swap(int i, int j) {
+		final Event event = events[i];
+
+		events[i] = events[j];
+		events[j] = event;
+
+		final long sequence = sequences[i];
+
+		sequences[i] = sequences[j];
+		sequences[j] = sequence;
 	}
 }
@@ -8,50 +8,89 @@
 package net.sf.robocode.host.io;
 
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
 
 /**
+ * File output stream for the data files of a robot, which checks the filesystem quota of the robot for every write.
+ * <p>
+ * Writes are collected in a buffer, so that robots writing a file a few bytes at a time do not make a system call
+ * for every write. The buffer is written to the file when it is full, when the stream is flushed or closed, and by
+ * the {@link RobotFileSystemManager} at the end of every round, so robots that never close their streams do not
+ * lose data. The {@link RobotFileSystemManager} also writes the buffer when the robot reads the file it is writing,
+ * so the robot reads what it has written.
+ *
  * @author Pavel Savara (original)
  */
 public class RobotFileOutputStream extends FileOutputStream {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private RobotFileSystemManager fileSystemManager;
 
+	private final File file;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int count;
+
 	public RobotFileOutputStream(String filename, boolean append, RobotFileSystemManager fileSystemManager) throws IOException {
-		super(filename, append);
+		this(new File(filename).getCanonicalFile(), append, fileSystemManager);
+	}
+
+	private RobotFileOutputStream(File file, boolean append, RobotFileSystemManager fileSystemManager) throws IOException {
+		super(file, append);
+		this.file = file;
 		this.fileSystemManager = fileSystemManager;
 		fileSystemManager.addStream(this);
 	}
 
+	/**
+	 * Returns the canonical file this stream writes to.
+	 */
+	File getFile() {
+		return file;
+	}
+
 	@Override
-	public final void close() throws IOException {
+	public final synchronized void close() throws IOException {
 		fileSystemManager.removeStream(this);
-		super.close();
+		try {
+			flushBuffer();
+		} finally {
+			super.close();
+		}
+	}
+
+	@Override
+	public final synchronized void flush() throws IOException {
+		flushBuffer();
+		super.flush();
 	}
 
 	@Override
 	public final void write(byte[] b) throws IOException {
-		try {
-			fileSystemManager.checkQuota(b.length);
-			super.write(b);
-		} catch (IOException e) {
-			try {
-				close();
-			} catch (IOException ignored) {}
-			throw e;
-		}
+		write(b, 0, b.length);
 	}
 
 	@Override
-	public final void write(byte[] b, int off, int len) throws IOException {
-		if (len < 0) {
+	public final synchronized void write(byte[] b, int off, int len) throws IOException {
+		if (len < 0 || off < 0 || off + len > b.length) {
 			throw new IndexOutOfBoundsException();
 		}
 		try {
 			fileSystemManager.checkQuota(len);
-			super.write(b, off, len);
+			if (len >= buffer.length) {
+				// Large writes are not copied into the buffer
+				flushBuffer();
+				super.write(b, off, len);
+				return;
+			}
+			if (len > buffer.length - count) {
+				flushBuffer();
+			}
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
 		} catch (IOException e) {
 			try {
 				close();
@@ -61,10 +100,13 @@ public class RobotFileOutputStream extends FileOutputStream {
 	}
 
 	@Override
-	public final void write(int b) throws IOException {
+	public final synchronized void write(int b) throws IOException {
 		try {
 			fileSystemManager.checkQuota(1);
-			super.write(b);
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			buffer[count++] = (byte) b;
 		} catch (IOException e) {
 			try {
 				close();
@@ -72,4 +114,13 @@ public class RobotFileOutputStream extends FileOutputStream {
 			throw e;
 		}
 	}
+
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			final int len = count;
+
+			count = 0;
+			super.write(buffer, 0, len);
+		}
+	}
 }
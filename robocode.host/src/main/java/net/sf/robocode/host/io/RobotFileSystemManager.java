@@ -59,6 +59,12 @@ public class RobotFileSystemManager {
 		if (s == null) {
 			throw new SecurityException("You may not add a null stream.");
 		}
+		synchronized (streams) {
+			addOpenStream(s);
+		}
+	}
+
+	private void addOpenStream(RobotFileOutputStream s) {
 		if (!streams.contains(s)) {
 			if (streams.size() < 5) {
 				streams.add(s);
@@ -128,6 +134,8 @@ public class RobotFileSystemManager {
 		final File parent = getWritableDirectory();
 		File file = new File(parent, filename);
 
+		flushStreams(file.getPath());
+
 		// TODO the file is never replaced from jar or directory after it was created
 		// TODO it would be good to replace it when it have bigger last modified date
 		if (!file.exists()) {
@@ -248,11 +256,60 @@ public class RobotFileSystemManager {
 		if (s == null) {
 			throw new SecurityException("You may not remove a null stream.");
 		}
-		if (streams.contains(s)) {
+		synchronized (streams) {
 			streams.remove(s);
 		}
 	}
 
+	/**
+	 * Writes the buffered data of the streams the robot has not closed to the data files.
+	 */
+	public void flushStreams() {
+		final RobotFileOutputStream[] openStreams;
+
+		synchronized (streams) {
+			openStreams = streams.toArray(new RobotFileOutputStream[streams.size()]);
+		}
+		for (RobotFileOutputStream stream : openStreams) {
+			try {
+				stream.flush();
+			} catch (IOException e) {
+				Logger.logError(e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the buffered data of the streams the robot has open on the given file, so the robot reads what it has
+	 * written to the file.
+	 */
+	public void flushStreams(String fileName) {
+		final File file;
+
+		try {
+			file = new File(fileName).getCanonicalFile();
+		} catch (IOException e) {
+			return;
+		}
+
+		final List<RobotFileOutputStream> fileStreams = new ArrayList<RobotFileOutputStream>();
+
+		synchronized (streams) {
+			for (RobotFileOutputStream stream : streams) {
+				if (stream.getFile().equals(file)) {
+					fileStreams.add(stream);
+				}
+			}
+		}
+		for (RobotFileOutputStream stream : fileStreams) {
+			try {
+				stream.flush();
+			} catch (IOException e) {
+				Logger.logError(e);
+			}
+		}
+	}
+
 	private void updateDataFiles() {
 		try {
 			if (rootPath.startsWith("jar:")) {
@@ -293,31 +350,45 @@ public class RobotFileSystemManager {
 					continue;
 				}
 
+				final File file = new File(parent, filename);
+
+				// The file is not copied again, if it has not been changed since it was copied from the jar
+				if (isCopyOf(file, jarEntry)) {
+					continue;
+				}
+
 				is = null;
 				os = null;
 				try {
 					is = jarFile.getInputStream(jarEntry);
-					os = new FileOutputStream(new File(parent, filename));
+					os = new FileOutputStream(file);
 					copyStream(is, os);
 				} finally {
 					FileUtil.cleanupStream(is);
 					FileUtil.cleanupStream(os);
 				}
+				if (jarEntry.getTime() > 0 && !file.setLastModified(jarEntry.getTime())) {
+					Logger.logWarning("Could not set the time of " + file);
+				}
 			}
 		}
 	}
 
-	private void copyStream(InputStream is, OutputStream os) throws IOException {
-		BufferedInputStream bis = new BufferedInputStream(is);
-		BufferedOutputStream bos = new BufferedOutputStream(os);
+	private static boolean isCopyOf(File file, JarEntry jarEntry) {
+		final long time = jarEntry.getTime();
+		final long size = jarEntry.getSize();
+
+		return time > 0 && size >= 0 && file.lastModified() == time && file.length() == size;
+	}
 
+	private void copyStream(InputStream is, OutputStream os) throws IOException {
 		byte[] buf = new byte[8192];
 		int len;
 
-		while ((len = bis.read(buf)) > 0) {
-			bos.write(buf, 0, len);
+		while ((len = is.read(buf)) > 0) {
+			os.write(buf, 0, len);
 		}
-		bos.flush();
+		os.flush();
 	}
 
 	private static Version toVersion(String vers) {
@@ -51,22 +51,29 @@ public class RobotOutputStream extends java.io.PrintStream {
 		}
 	}
 
+	// Must be called while holding the syncRoot
 	private boolean isOkToPrint() {
-		synchronized (syncRoot) {
-			if (RobocodeProperties.isDebuggingOn()) { // It is always allowed to print when debugging is enabled.
-				return true;
-			}
-			if (count > MAX_CHARS) {
-				if (!messaged) {
-					text.append(
-							"\nSYSTEM: This robot is printing too much between actions.  Output stopped until next action.\n");
-					messaged = true;
-				}
-				return false;
-			}
-			messaged = false;
+		if (RobocodeProperties.isRobotOutputOff()) { // The output of the robot is discarded before it is formatted
+			return false;
+		}
+		return isOkToPrintSystem();
+	}
+
+	// Must be called while holding the syncRoot. Messages of the game itself are kept when the robot output is off.
+	private boolean isOkToPrintSystem() {
+		if (RobocodeProperties.isDebuggingOn()) { // It is always allowed to print when debugging is enabled.
 			return true;
 		}
+		if (count > MAX_CHARS) {
+			if (!messaged) {
+				text.append(
+						"\nSYSTEM: This robot is printing too much between actions.  Output stopped until next action.\n");
+				messaged = true;
+			}
+			return false;
+		}
+		messaged = false;
+		return true;
 	}
 
 	@Override
@@ -250,12 +257,11 @@ public class RobotOutputStream extends java.io.PrintStream {
 		synchronized (syncRoot) {
 			if (isOkToPrint()) {
 				if (buf != null) {
-					int origLen = text.length();
-
+					text.ensureCapacity(text.length() + len);
 					for (int i = 0; i < len; i++) {
 						text.append((char) buf[off + i]);
 					}
-					count += text.length() - origLen;
+					count += len;
 				}
 			}
 		}
@@ -265,18 +271,39 @@ public class RobotOutputStream extends java.io.PrintStream {
 	public void write(int b) {
 		synchronized (syncRoot) {
 			if (isOkToPrint()) {
+				text.append((char) b);
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * Prints a line of the game itself, e.g. a SYSTEM: message, which is also printed when the console output of
+	 * the robot is discarded.
+	 *
+	 * @param s the line to print.
+	 */
+	public void printlnSystem(String s) {
+		synchronized (syncRoot) {
+			if (isOkToPrintSystem()) {
 				int origLen = text.length();
 
-				text.append((char) b);
+				text.append(s).append('\n');
 				count += text.length() - origLen;
 			}
 		}
 	}
 
+	/**
+	 * Prints the stack trace of an exception caught by the game, which is also printed when the console output of
+	 * the robot is discarded.
+	 *
+	 * @param t the exception to print.
+	 */
 	public void printStackTrace(Throwable t) {
 		if (t != null) {
 			synchronized (syncRoot) {
-				if (isOkToPrint()) {
+				if (isOkToPrintSystem()) {
 					StringWriter sw = new StringWriter();
 					final PrintWriter writer = new PrintWriter(sw);
 
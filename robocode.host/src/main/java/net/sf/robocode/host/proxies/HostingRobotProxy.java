@@ -86,12 +86,18 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 		robot = null;
 
 		// Remove the file system and the manager
+		if (robotFileSystemManager != null) {
+			robotFileSystemManager.flushStreams();
+		}
 		robotFileSystemManager = null;
 		if (out != null) {
 			out.close();
 			out = null;
 		}
 
+		if (threadManager != null) {
+			threadManager.removeThreadGroups(this);
+		}
 		if (robotThreadManager != null) {
 			robotThreadManager.cleanup();
 		}
@@ -109,11 +115,11 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 	}
 
 	public void println(String s) {
-		out.println(s);
+		out.printlnSystem(s);
 	}
 
 	private void println(Throwable ex) {
-		ex.printStackTrace(out);
+		out.printStackTrace(ex);
 	}
 
 	public RobotStatics getStatics() {
@@ -152,6 +158,10 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 			peer.punishBadBehavior(BadBehavior.UNSTOPPABLE);
 			peer.setRunning(false);
 		}
+		// Write the data the robot has written to streams it has not closed at the end of the round
+		if (robotFileSystemManager != null) {
+			robotFileSystemManager.flushStreams();
+		}
 	}
 
 	private void loadClassBattle() {
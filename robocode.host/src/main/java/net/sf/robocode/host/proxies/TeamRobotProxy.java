@@ -18,6 +18,7 @@ import robocode.MessageEvent;
 import robocode.robotinterfaces.peer.ITeamRobotPeer;
 
 import java.io.*;
+import java.util.Arrays;
 import java.util.List;
 
 
@@ -26,11 +27,13 @@ import java.util.List;
  */
 public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer {
 	private static final int MAX_MESSAGE_SIZE = 32768;
-	private final ByteArrayOutputStream byteStreamWriter;
+	private final MessageOutputStream byteStreamWriter;
+	private ObjectOutputStream objectStreamWriter;
+	private byte[] streamHeader;
 
 	public TeamRobotProxy(IRobotItem specification, IHostManager hostManager, IRobotPeer peer, RobotStatics statics) {
 		super(specification, hostManager, peer, statics);
-		byteStreamWriter = new ByteArrayOutputStream(MAX_MESSAGE_SIZE);
+		byteStreamWriter = new MessageOutputStream();
 	}
 
 	// team
@@ -69,24 +72,50 @@ public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer
 			if (!statics.isTeamRobot()) {
 				throw new IOException("You are not on a team.");
 			}
+			final byte[] bytes = serializeMessage(message);
+
+			commands.getTeamMessages().add(new TeamMessage(getName(), name, bytes));
+		} catch (IOException e) {
+			out.printStackTrace(e);
+			throw e;
+		}
+
+	}
+
+	/**
+	 * Serializes a message into a self-contained object stream, which is shared by all recipients of the message.
+	 * The object stream is reused for all messages sent by this robot, and is reset before each message, so the
+	 * bytes are the same as if the message was written by a new object stream.
+	 */
+	private byte[] serializeMessage(Serializable message) throws IOException {
+		boolean isSerialized = false;
+
+		try {
+			if (objectStreamWriter == null) {
+				byteStreamWriter.reset();
+				objectStreamWriter = new ObjectOutputStream(byteStreamWriter);
+				objectStreamWriter.flush();
+				streamHeader = byteStreamWriter.toByteArray();
+			}
+			objectStreamWriter.reset();
+			objectStreamWriter.flush();
+
 			byteStreamWriter.reset();
-			ObjectOutputStream objectStreamWriter = new ObjectOutputStream(byteStreamWriter);
+			byteStreamWriter.write(streamHeader);
 
 			objectStreamWriter.writeObject(message);
 			objectStreamWriter.flush();
-			byteStreamWriter.flush();
+
 			final byte[] bytes = byteStreamWriter.toByteArray();
 
-			objectStreamWriter.reset();
-			if (bytes.length > MAX_MESSAGE_SIZE) {
-				throw new IOException("Message too big. " + bytes.length + ">" + MAX_MESSAGE_SIZE);
+			isSerialized = true;
+			return bytes;
+		} finally {
+			if (!isSerialized) {
+				// The object stream might be left in the middle of an object, so a new one is used for the next message
+				objectStreamWriter = null;
 			}
-			commands.getTeamMessages().add(new TeamMessage(getName(), name, bytes));
-		} catch (IOException e) {
-			out.printStackTrace(e);
-			throw e;
 		}
-
 	}
 
 	@Override
@@ -96,9 +125,8 @@ public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer
 		}
 		for (TeamMessage teamMessage : teamMessages) {
 			try {
+				// Every recipient deserializes its own copy of the message with its own class loader
 				ByteArrayInputStream byteStreamReader = new ByteArrayInputStream(teamMessage.message);
-				byteStreamReader.reset();
-
 				RobocodeObjectInputStream objectStreamReader = null;
 				try {
 					objectStreamReader = new RobocodeObjectInputStream(byteStreamReader, (ClassLoader) robotClassLoader);
@@ -123,4 +151,39 @@ public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer
 		getCall();
 		return eventManager.getMessageEvents();
 	}
+
+	/**
+	 * Output stream for a message, which fails as soon as the message gets bigger than the maximum message size.
+	 */
+	private static final class MessageOutputStream extends OutputStream {
+		private final byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+		private int count;
+
+		@Override
+		public void write(int b) throws IOException {
+			ensureCapacity(1);
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ensureCapacity(len);
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
+		}
+
+		private void ensureCapacity(int len) throws IOException {
+			if (count + len > MAX_MESSAGE_SIZE) {
+				throw new IOException("Message too big. " + (count + len) + ">" + MAX_MESSAGE_SIZE);
+			}
+		}
+
+		void reset() {
+			count = 0;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(buffer, count);
+		}
+	}
 }
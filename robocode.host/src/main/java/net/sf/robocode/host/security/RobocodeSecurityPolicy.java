@@ -264,6 +264,8 @@ public class RobocodeSecurityPolicy extends Policy {
 		}
 		// If this is a writtable file, return.
 		if (fileSystemManager.isWritable(filePermission.getName())) {
+			// The robot must read the data it has written, but not written to the file yet
+			fileSystemManager.flushStreams(filePermission.getName());
 			return true;
 		}
 		// If this is a readable file, return.
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Cache of robot class files shared by all robot class loaders, so that a robot class loader of a new battle
+ * can define the classes of a robot without reading them from the robot jar or directory, and without
+ * analyzing the referenced classes again.
+ * <p>
+ * A class is keyed on the URL of the class file and the last modification time of the jar or class file,
+ * so that a class is read again when the robot has been changed. Only classes that have been defined
+ * successfully are put into the cache. The least recently used classes are removed from the cache when
+ * the total size of the cached class files exceeds {@link #MAX_CACHED_BYTES}.
+ *
+ * @see RobotClassLoader
+ */
+final class RobotClassCache {
+
+	static final long MAX_CACHED_BYTES = 32 * 1024 * 1024;
+
+	private static final Map<String, CachedClass> classes = new LinkedHashMap<String, CachedClass>(256, 0.75f, true);
+
+	private static long cachedBytes;
+
+	private RobotClassCache() {}
+
+	/**
+	 * Returns the cache key of the class file at the URL, or {@code null} if the class file cannot be cached,
+	 * as it is not stored in a local jar or directory.
+	 */
+	static String getKey(URL classUrl) {
+		final File file = getFile(classUrl);
+
+		if (file == null) {
+			return null;
+		}
+		final long lastModified = file.lastModified();
+
+		return (lastModified == 0) ? null : classUrl.toString() + '@' + lastModified;
+	}
+
+	static synchronized CachedClass get(String key) {
+		return (key == null) ? null : classes.get(key);
+	}
+
+	static synchronized void put(CachedClass cachedClass) {
+		if (cachedClass.key == null || cachedClass.bytes.length > MAX_CACHED_BYTES
+				|| classes.containsKey(cachedClass.key)) {
+			return;
+		}
+		classes.put(cachedClass.key, cachedClass);
+		cachedBytes += cachedClass.bytes.length;
+
+		final Iterator<CachedClass> leastRecentlyUsed = classes.values().iterator();
+
+		while (cachedBytes > MAX_CACHED_BYTES) {
+			cachedBytes -= leastRecentlyUsed.next().bytes.length;
+			leastRecentlyUsed.remove();
+		}
+	}
+
+	static synchronized long getCachedBytes() {
+		return cachedBytes;
+	}
+
+	static synchronized void clear() {
+		classes.clear();
+		cachedBytes = 0;
+	}
+
+	/**
+	 * Returns the jar file or class file of a class file URL, or {@code null} if it is not a local file.
+	 */
+	private static File getFile(URL classUrl) {
+		String spec = classUrl.toString();
+
+		if (spec.startsWith("jar:")) {
+			final int separator = spec.indexOf("!/");
+
+			if (separator < 0) {
+				return null;
+			}
+			spec = spec.substring("jar:".length(), separator);
+		}
+		if (!spec.startsWith("file:")) {
+			return null;
+		}
+		try {
+			return new File(new URI(spec));
+		} catch (URISyntaxException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The bytes of a class file, and the names of the classes referenced from it.
+	 */
+	static final class CachedClass {
+		final String key;
+		final byte[] bytes;
+
+		private Set<String> referencedClasses;
+
+		CachedClass(String key, byte[] bytes) {
+			this.key = key;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Returns the names of the classes referenced from the class, which are analyzed the first time
+		 * this method is called.
+		 */
+		synchronized Set<String> getReferencedClasses() {
+			if (referencedClasses == null) {
+				final Set<String> references = new HashSet<String>();
+
+				ClassAnalyzer.getReferencedClasses(ByteBuffer.wrap(bytes), references);
+				referencedClasses = Collections.unmodifiableSet(references);
+			}
+			return referencedClasses;
+		}
+	}
+}
@@ -11,6 +11,7 @@ package net.sf.robocode.host.security;
 import net.sf.robocode.core.Container;
 import net.sf.robocode.host.IHostedThread;
 import net.sf.robocode.host.IRobotClassLoader;
+import net.sf.robocode.host.security.RobotClassCache.CachedClass;
 import net.sf.robocode.io.FileUtil;
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.io.RobocodeProperties;
@@ -30,6 +31,7 @@ import java.nio.ByteBuffer;
 import java.security.*;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -134,13 +136,16 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 	private Class<?> loadRobotClassLocaly(String name, boolean resolve) throws ClassNotFoundException {
 		Class<?> result = findLoadedClass(name);
 		if (result == null) {
-			ByteBuffer resource = findLocalResource(name);
+			CachedClass resource = findLocalResource(name);
 			if (resource != null) {
-				result = defineClass(name, resource, codeSource);
+				result = defineClass(name, resource.bytes, 0, resource.bytes.length, codeSource);
 				if (resolve) {
 					resolveClass(result);
 				}
-				ClassAnalyzer.getReferencedClasses(resource, referencedClasses);
+				referencedClasses.addAll(resource.getReferencedClasses());
+
+				// the class is valid, so robot class loaders of other battles can use it as well
+				RobotClassCache.put(resource);
 			}
 		}
 		return result;
@@ -148,9 +153,9 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 
 	// this whole fun is there to be able to provide defineClass with bytes
 	// we need to call defineClass to be able to set codeSource to untrustedLocation  
-	private ByteBuffer findLocalResource(final String name) {
-		return AccessController.doPrivileged(new PrivilegedAction<ByteBuffer>() {
-			public ByteBuffer run() {
+	private CachedClass findLocalResource(final String name) {
+		return AccessController.doPrivileged(new PrivilegedAction<CachedClass>() {
+			public CachedClass run() {
 				// try to find it in robot's class path
 				// this is URL, don't change to File.pathSeparator
 				String path = name.replace('.', '/').concat(".class");
@@ -160,6 +165,12 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 				BufferedInputStream bis = null;
 
 				if (url != null) {
+					final String key = RobotClassCache.getKey(url);
+					final CachedClass cached = RobotClassCache.get(key);
+
+					if (cached != null) {
+						return cached;
+					}
 					try {
 						URLConnection connection = URLJarCollector.openConnection(url);
 
@@ -185,6 +196,7 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 							}
 						} while (!done);
 
+						return new CachedClass(key, Arrays.copyOf(result.array(), result.limit()));
 					} catch (IOException e) {
 						Logger.logError(e);
 						return null;
@@ -193,7 +205,7 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 						FileUtil.cleanupStream(is);
 					}
 				}
-				return result;
+				return null;
 			}
 		});
 	}
@@ -342,7 +354,7 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 		// Write out warnings to the robot console
 		if (robotProxy != null) {
 			for (String line : staticRobotInstanceWarning) {
-				robotProxy.getOut().println("SYSTEM: " + line);
+				robotProxy.println("SYSTEM: " + line);
 			}
 		}
 	}
@@ -31,8 +31,13 @@ import java.util.Map;
  */
 public class RobotThreadManager {
 
+	private static final long STOP_WAIT_MILLIS = 500;
+
 	private final IHostedThread robotProxy;
-	private Thread runThread;
+	// Keeps the thread of a robot alive between the rounds of a battle, instead of starting a new thread every round
+	private final boolean isReusingThreads = System.getProperty("REUSETHREADS", "false").equals("true");
+	private volatile Thread runThread;
+	private volatile RoundRunner roundRunner;
 	private ThreadGroup runThreadGroup;
 	private Object awtForThreadGroup;
 	private final Map<Thread, Disposal> disposeAppContextThreadMap = new HashMap<Thread, Disposal>();
@@ -43,6 +48,11 @@ public class RobotThreadManager {
 	}
 
 	public void cleanup() {
+		if (roundRunner != null) {
+			roundRunner.close();
+			roundRunner = null;
+			join(runThread, STOP_WAIT_MILLIS);
+		}
 		try {
 			if (runThread == null || !runThread.isAlive()) {
 				if (!discardAWT()) {
@@ -86,6 +96,10 @@ public class RobotThreadManager {
 		try {
 			threadManager.addThreadGroup(runThreadGroup, robotProxy);
 
+			if (isReusingThreads) {
+				startRound();
+				return;
+			}
 			runThread = new Thread(runThreadGroup, robotProxy, robotProxy.getStatics().getName());
 			runThread.setDaemon(true);
 			runThread.setPriority(Thread.NORM_PRIORITY - 1);
@@ -96,16 +110,45 @@ public class RobotThreadManager {
 		}
 	}
 
+	private void startRound() {
+		// A new thread is needed for the first round, and when the thread has been stopped or is still busy
+		if (roundRunner == null || runThread == null || !runThread.isAlive() || roundRunner.isRoundRunning()) {
+			if (roundRunner != null) {
+				roundRunner.close();
+			}
+			roundRunner = new RoundRunner();
+			roundRunner.startRound();
+
+			runThread = new Thread(runThreadGroup, roundRunner, robotProxy.getStatics().getName());
+			runThread.setDaemon(true);
+			runThread.setPriority(Thread.NORM_PRIORITY - 1);
+			runThread.setContextClassLoader(this.robotProxy.getRobotClassloader());
+			runThread.start();
+		} else {
+			roundRunner.startRound();
+		}
+	}
+
 	/**
 	 * @return true as peaceful stop
 	 */
 	public boolean waitForStop() {
 		boolean isAlive = false;
 
-		if (runThread != null && runThread.isAlive()) {
-			runThread.interrupt();
-			waitForStop(runThread);
-			isAlive = runThread.isAlive();
+		// The robot thread can discard its runner and itself meanwhile by forcing its own stop
+		final Thread stoppingThread = runThread;
+		final RoundRunner runner = roundRunner;
+
+		if (stoppingThread != null && stoppingThread.isAlive()) {
+			stoppingThread.interrupt();
+			if (runner != null) {
+				// The thread stays alive, so we wait for the round to end on the thread instead
+				waitForRoundEnd(runner);
+				isAlive = runner.isRoundRunning();
+			} else {
+				waitForStop(stoppingThread);
+				isAlive = stoppingThread.isAlive();
+			}
 		}
 
 		Thread[] threads = new Thread[100];
@@ -113,7 +156,7 @@ public class RobotThreadManager {
 		runThreadGroup.enumerate(threads);
 
 		for (Thread thread : threads) {
-			if (thread != null && thread != runThread && thread.isAlive()) {
+			if (thread != null && thread != stoppingThread && thread.isAlive()) {
 				thread.interrupt();
 				waitForStop(thread);
 				isAlive |= thread.isAlive();
@@ -140,14 +183,25 @@ public class RobotThreadManager {
 	 * @return true as peaceful stop
 	 */
 	public boolean forceStop() {
-		int res = stopSteps(runThread);
+		final Thread stoppedThread = runThread;
+		final RoundRunner runner = roundRunner;
+
+		// The round runner is discarded before the threads are stopped, as the robot thread can be stopping itself,
+		// e.g. when it has skipped too many turns, in which case this method never returns
+		roundRunner = null;
+		runThread = null;
+		if (runner != null) {
+			runner.close();
+		}
+
+		int res = stopSteps(stoppedThread);
 
 		Thread[] threads = new Thread[100];
 
 		runThreadGroup.enumerate(threads);
 
 		for (Thread thread : threads) {
-			if (thread != null && thread != runThread && thread.isAlive()) {
+			if (thread != null && thread != stoppedThread && thread.isAlive()) {
 				res += stopSteps(thread);
 			}
 		}
@@ -157,7 +211,6 @@ public class RobotThreadManager {
 			// recycle thread group
 			createThreadGroup();
 		}
-		runThread = null;
 		return res == 0;
 	}
 
@@ -174,7 +227,7 @@ public class RobotThreadManager {
 			if (t.isAlive()) {
 				// noinspection deprecation
 				// t.suspend();
-				logWarning("Unable to stop thread: " + runThread.getName());
+				logWarning("Unable to stop thread: " + t.getName());
 			} else {
 				logMessage(robotProxy.getStatics().getName() + " has been stopped.");
 			}
@@ -215,21 +268,35 @@ public class RobotThreadManager {
 	}
 
 	private void waitForStop(Thread thread) {
-		for (int j = 0; j < 100 && thread.isAlive(); j++) {
-			if (j == 50) {
-				logMessage(
-						"Waiting for robot " + robotProxy.getStatics().getName() + " to stop thread " + thread.getName());
-			}
-			try {
-				Thread.sleep(10);
-			} catch (InterruptedException e) {
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-				break; // We are in a loop
-			}
+		if (!join(thread, STOP_WAIT_MILLIS)) {
+			logMessage("Waiting for robot " + robotProxy.getStatics().getName() + " to stop thread " + thread.getName());
+			join(thread, STOP_WAIT_MILLIS);
+		}
+	}
+
+	private void waitForRoundEnd(RoundRunner runner) {
+		if (!runner.waitForRoundEnd(STOP_WAIT_MILLIS)) {
+			logMessage("Waiting for robot " + robotProxy.getStatics().getName() + " to end the round");
+			runner.waitForRoundEnd(STOP_WAIT_MILLIS);
 		}
 	}
 
+	/**
+	 * @return true if the thread has stopped
+	 */
+	private static boolean join(Thread thread, long millis) {
+		if (thread == null) {
+			return true;
+		}
+		try {
+			thread.join(millis);
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+		}
+		return !thread.isAlive();
+	}
+
 	private void createThreadGroup() {
 		runThreadGroup = new ThreadGroup(robotProxy.getStatics().getName());
 
@@ -340,4 +407,71 @@ public class RobotThreadManager {
 	private static class Disposal {
 		boolean isDisposing;
 	}
+
+	/**
+	 * Runs the rounds of a robot on the same thread. The robot itself is still created again for every round by
+	 * the robot proxy, so only the thread is kept.
+	 */
+	private final class RoundRunner implements Runnable {
+		private boolean isRoundStarted;
+		private boolean isRoundRunning;
+		private boolean isClosed;
+
+		public void run() {
+			while (waitForRoundStart()) {
+				try {
+					robotProxy.run();
+				} finally {
+					synchronized (this) {
+						isRoundRunning = false;
+						notifyAll();
+					}
+				}
+			}
+		}
+
+		private synchronized boolean waitForRoundStart() {
+			while (!isRoundStarted && !isClosed) {
+				try {
+					wait();
+				} catch (InterruptedException ignore) {// The robot is interrupted at the end of every round
+				}
+			}
+			isRoundStarted = false;
+
+			// Clear an interrupt from the end of the previous round, which must not end the new round
+			Thread.interrupted();
+			return !isClosed;
+		}
+
+		synchronized void startRound() {
+			isRoundStarted = true;
+			isRoundRunning = true;
+			notifyAll();
+		}
+
+		synchronized boolean isRoundRunning() {
+			return isRoundRunning;
+		}
+
+		synchronized boolean waitForRoundEnd(long millis) {
+			final long deadline = System.currentTimeMillis() + millis;
+
+			try {
+				for (long remaining = millis; isRoundRunning && remaining > 0;) {
+					wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+			} catch (InterruptedException e) {
+				// Immediately reasserts the exception by interrupting the caller thread itself
+				Thread.currentThread().interrupt();
+			}
+			return !isRoundRunning;
+		}
+
+		synchronized void close() {
+			isClosed = true;
+			notifyAll();
+		}
+	}
 }
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Checks the CPU constant computed from fixed samples, with the outliers rejected.
+ */
+public class CpuCalibrationTest {
+
+	// The CPU constant is the nanoseconds per run of the math times the cycles allowed
+	private static final int CYCLES = 6250;
+
+	@Test
+	public void equalSamples() {
+		final CpuCalibration calibration = CpuCalibration.fromSamples(new double[] { 100, 100, 100, 100, 100 });
+
+		Assert.assertEquals(100 * CYCLES, calibration.getCpuConstant());
+		Assert.assertEquals(0, calibration.getConfidenceInterval());
+		Assert.assertEquals(5, calibration.getSamples());
+	}
+
+	@Test
+	public void confidenceInterval() {
+		final CpuCalibration calibration = CpuCalibration.fromSamples(new double[] { 50, 10, 40, 20, 30 });
+
+		// The mean is 30 and the variance 250, so the half width of the interval is 1.96 * sqrt(250 / 5)
+		Assert.assertEquals(30 * CYCLES, calibration.getCpuConstant());
+		Assert.assertEquals(1.96 * Math.sqrt(50) * CYCLES, calibration.getConfidenceInterval(), 1);
+		Assert.assertEquals(5, calibration.getSamples());
+	}
+
+	@Test
+	public void outliersAreRejected() {
+		// The median is 100 and the median absolute deviation 2, so samples beyond 100 +/- 8.9 are outliers
+		final CpuCalibration calibration = CpuCalibration.fromSamples(
+				new double[] { 98, 102, 1000, 100, 96, 104, 100, 10, 98, 102, 150 });
+
+		Assert.assertEquals(100 * CYCLES, calibration.getCpuConstant());
+		Assert.assertEquals(8, calibration.getSamples());
+	}
+
+	@Test
+	public void outliersWithoutDeviation() {
+		// Most samples are equal, so the median absolute deviation is 0, and any other sample is an outlier
+		final CpuCalibration calibration = CpuCalibration.fromSamples(
+				new double[] { 100, 100, 100, 130, 100, 100, 100, 70 });
+
+		Assert.assertEquals(100 * CYCLES, calibration.getCpuConstant());
+		Assert.assertEquals(0, calibration.getConfidenceInterval());
+		Assert.assertEquals(6, calibration.getSamples());
+	}
+
+	@Test
+	public void medianOfEvenSamples() {
+		// The median is 101 and the median absolute deviation 4, so 130 is an outlier but 94 is not
+		final CpuCalibration calibration = CpuCalibration.fromSamples(new double[] { 106, 94, 130, 100, 98, 102 });
+
+		Assert.assertEquals(100 * CYCLES, calibration.getCpuConstant());
+		Assert.assertEquals(5, calibration.getSamples());
+	}
+
+	@Test
+	public void minimumCpuConstant() {
+		Assert.assertEquals(1, CpuCalibration.fromSamples(new double[] { 0, 0, 0 }).getCpuConstant());
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.DeathEvent;
+import robocode.Event;
+import robocode.WinEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * Checks the order in which the events are taken from the queue, and which events are kept when it is cleared.
+ */
+public class EventQueueTest {
+
+	@BeforeClass
+	public static void init() {
+		HiddenAccess.init();
+	}
+
+	@Test
+	public void orderByTimeAndPriority() {
+		final EventQueue queue = new EventQueue();
+		final Event late = createEvent(5, 90);
+		final Event low = createEvent(3, 10);
+		final Event high = createEvent(3, 60);
+		final Event early = createEvent(1, 20);
+
+		add(queue, late, low, high, early);
+
+		assertOrder(queue, early, high, low, late);
+		assertPolled(queue, early, high, low, late);
+	}
+
+	@Test
+	public void insertionOrderOfEqualEvents() {
+		final EventQueue queue = new EventQueue();
+		final List<Event> added = new ArrayList<Event>();
+
+		// More events than the initial capacity of the queue, with the same time and priority
+		for (int i = 0; i < 100; i++) {
+			final Event event = createEvent(7, 50);
+
+			added.add(event);
+			queue.add(event);
+		}
+
+		final Event[] expected = added.toArray(new Event[added.size()]);
+
+		assertOrder(queue, expected);
+		assertPolled(queue, expected);
+	}
+
+	@Test
+	public void iteratorAfterChanges() {
+		final EventQueue queue = new EventQueue();
+		final Event first = createEvent(1, 50);
+		final Event second = createEvent(2, 50);
+		final Event third = createEvent(3, 50);
+
+		add(queue, second, third);
+
+		final Iterator<Event> iterator = queue.iterator();
+
+		// The iterator does not see the events added after it was created, but a new iterator does
+		queue.add(first);
+		Assert.assertSame(second, iterator.next());
+		Assert.assertSame(third, iterator.next());
+		Assert.assertFalse(iterator.hasNext());
+		assertOrder(queue, first, second, third);
+
+		Assert.assertSame(first, queue.poll());
+		assertOrder(queue, second, third);
+
+		queue.clear(2);
+		assertOrder(queue, third);
+
+		queue.clear();
+		assertOrder(queue);
+	}
+
+	@Test
+	public void clearKeepsCriticalEvents() {
+		final EventQueue queue = new EventQueue();
+		final Event death = new DeathEvent();
+		final Event win = new WinEvent();
+		final Event old = createEvent(1, 50);
+		final Event recent = createEvent(4, 50);
+
+		HiddenAccess.setEventTime(death, 2);
+		HiddenAccess.setEventTime(win, 3);
+		add(queue, recent, death, old, win);
+
+		queue.clear(3);
+		assertOrder(queue, death, win, recent);
+
+		queue.clear(false);
+		assertOrder(queue, death, win);
+
+		queue.clear(true);
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertNull(queue.poll());
+	}
+
+	private static Event createEvent(long time, int priority) {
+		final Event event = new Event() {
+			private static final long serialVersionUID = 1L;
+		};
+
+		event.setTime(time);
+		event.setPriority(priority);
+		return event;
+	}
+
+	private static void add(EventQueue queue, Event... events) {
+		for (Event event : events) {
+			queue.add(event);
+		}
+	}
+
+	private static void assertOrder(EventQueue queue, Event... expected) {
+		final Iterator<Event> iterator = queue.iterator();
+
+		for (Event event : expected) {
+			Assert.assertTrue(iterator.hasNext());
+			Assert.assertSame(event, iterator.next());
+		}
+		Assert.assertFalse(iterator.hasNext());
+		Assert.assertEquals(expected.length, queue.size());
+	}
+
+	private static void assertPolled(EventQueue queue, Event... expected) {
+		for (Event event : expected) {
+			Assert.assertSame(event, queue.peek());
+			Assert.assertSame(event, queue.poll());
+		}
+		Assert.assertTrue(queue.isEmpty());
+	}
+}
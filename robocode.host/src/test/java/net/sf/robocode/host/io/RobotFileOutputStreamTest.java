@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host.io;
+
+
+import net.sf.robocode.host.IHostedThread;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+
+/**
+ * Checks the buffering of the data file writes of a robot, and the copying of the data files from the robot jar.
+ */
+public class RobotFileOutputStreamTest {
+
+	private static final long TIME = 1500000000000L;
+
+	private File dir;
+	private File jar;
+	private RobotFileSystemManager fileSystemManager;
+
+	@BeforeClass
+	public static void initHiddenAccess() {
+		HiddenAccess.init();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("robotfiles", "");
+		if (!dir.delete() || !dir.mkdir()) {
+			throw new IOException("Could not create " + dir);
+		}
+		jar = new File(dir, "Writer.jar");
+		writeJar("first");
+
+		fileSystemManager = new RobotFileSystemManager(createRobotProxy(), 100000, dir.getPath(), dir.getPath(),
+				"jar:" + jar.toURI() + "!/");
+		fileSystemManager.initialize();
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	@Test
+	public void writesAreBuffered() throws IOException {
+		final File file = fileSystemManager.getDataFile("buffered.dat");
+		final RobotFileOutputStream out = new RobotFileOutputStream(file.getPath(), false, fileSystemManager);
+
+		try {
+			out.write(1);
+			out.write(new byte[100]);
+			Assert.assertEquals(0, file.length());
+
+			fileSystemManager.flushStreams();
+			Assert.assertEquals(101, file.length());
+
+			out.write(new byte[20000]); // larger than the buffer
+			Assert.assertEquals(20101, file.length());
+
+			out.write(2);
+			Assert.assertEquals(20101, file.length());
+		} finally {
+			out.close();
+		}
+		Assert.assertEquals(20102, file.length());
+		Assert.assertEquals(20102, fileSystemManager.getQuotaUsed());
+	}
+
+	@Test
+	public void readsSeeBufferedWrites() throws IOException {
+		final File file = fileSystemManager.getDataFile("read.dat");
+		final File other = fileSystemManager.getDataFile("other.dat");
+		final RobotFileOutputStream out = new RobotFileOutputStream(file.getPath(), false, fileSystemManager);
+		final RobotFileOutputStream otherOut = new RobotFileOutputStream(other.getPath(), false, fileSystemManager);
+
+		try {
+			out.write(new byte[10]);
+			otherOut.write(new byte[10]);
+
+			fileSystemManager.flushStreams(file.getPath());
+			Assert.assertEquals(10, file.length());
+			Assert.assertEquals(0, other.length());
+
+			out.write(new byte[10]);
+			Assert.assertEquals(20, fileSystemManager.getDataFile("read.dat").length());
+		} finally {
+			out.close();
+			otherOut.close();
+		}
+	}
+
+	@Test
+	public void unchangedDataFilesAreNotCopied() throws IOException {
+		final File file = new File(fileSystemManager.getWritableDirectory(), "data.txt");
+
+		Assert.assertEquals("first", read(file));
+		Assert.assertEquals(TIME, file.lastModified());
+
+		// Same size and time as the jar entry, so the file is taken to be the copy of it
+		write(file, "FIRST");
+		Assert.assertTrue(file.setLastModified(TIME));
+		fileSystemManager.initialize();
+		Assert.assertEquals("FIRST", read(file));
+
+		// Changed by the robot
+		write(file, "changed");
+		fileSystemManager.initialize();
+		Assert.assertEquals("first", read(file));
+
+		// Changed in the jar
+		writeJar("second");
+		fileSystemManager.initialize();
+		Assert.assertEquals("second", read(file));
+	}
+
+	private void writeJar(String data) throws IOException {
+		final JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+
+		try {
+			final JarEntry entry = new JarEntry("sample/Writer.data/data.txt");
+
+			entry.setTime(TIME);
+			out.putNextEntry(entry);
+			out.write(data.getBytes("UTF-8"));
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void write(File file, String data) throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+
+		try {
+			out.write(data.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	private static String read(File file) throws IOException {
+		final InputStream in = file.toURI().toURL().openStream();
+
+		try {
+			final byte[] data = new byte[(int) file.length()];
+			int len = 0;
+
+			while (len < data.length) {
+				len += in.read(data, len, data.length - len);
+			}
+			return new String(data, "UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void delete(File file) {
+		final File[] files = file.listFiles();
+
+		if (files != null) {
+			for (File child : files) {
+				delete(child);
+			}
+		}
+		if (!file.delete()) {
+			file.deleteOnExit();
+		}
+	}
+
+	private static IHostedThread createRobotProxy() {
+		final IRobotItem robotItem = (IRobotItem) createProxy(IRobotItem.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("getShortClassName")) {
+					return "Writer";
+				}
+				if (method.getName().equals("getRobocodeVersion")) {
+					return "1.9.3.0";
+				}
+				if (method.getReturnType() == boolean.class) {
+					return false;
+				}
+				return method.getReturnType() == String.class ? "sample.Writer" : null;
+			}
+		});
+		final RobotStatics statics = new RobotStatics(
+				HiddenAccess.createSpecification(robotItem, "sample.Writer", null, null, null, null, null, null, null), -1,
+				false, null, null, null, 0, 0);
+
+		return (IHostedThread) createProxy(IHostedThread.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				return method.getName().equals("getStatics") ? statics : null;
+			}
+		});
+	}
+
+	private static Object createProxy(Class<?> type, InvocationHandler handler) {
+		return Proxy.newProxyInstance(RobotFileOutputStreamTest.class.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+}
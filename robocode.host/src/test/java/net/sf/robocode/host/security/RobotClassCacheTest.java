@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import net.sf.robocode.host.security.RobotClassCache.CachedClass;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+
+
+/**
+ * Checks the keys of the classes in the {@link RobotClassCache}, and which classes are removed when it is full.
+ */
+public class RobotClassCacheTest {
+
+	// Eight classes of this size fill the cache
+	private static final int CLASS_SIZE = (int) (RobotClassCache.MAX_CACHED_BYTES / 8);
+
+	private File dir;
+
+	@Before
+	public void setup() throws IOException {
+		RobotClassCache.clear();
+
+		dir = File.createTempFile("robotclasscache", "");
+		Assert.assertTrue(dir.delete() && new File(dir, "classes/sample").mkdirs());
+	}
+
+	@After
+	public void tearDown() {
+		RobotClassCache.clear();
+
+		delete(dir);
+	}
+
+	@Test
+	public void leastRecentlyUsedAreRemoved() {
+		for (int i = 0; i < 8; i++) {
+			RobotClassCache.put(new CachedClass("class" + i, new byte[CLASS_SIZE]));
+		}
+		Assert.assertEquals(RobotClassCache.MAX_CACHED_BYTES, RobotClassCache.getCachedBytes());
+
+		// class0 is used again, so class1 is the least recently used class
+		Assert.assertNotNull(RobotClassCache.get("class0"));
+
+		RobotClassCache.put(new CachedClass("class8", new byte[CLASS_SIZE]));
+		Assert.assertNull(RobotClassCache.get("class1"));
+
+		RobotClassCache.put(new CachedClass("class9", new byte[CLASS_SIZE]));
+		Assert.assertNull(RobotClassCache.get("class2"));
+		Assert.assertNotNull(RobotClassCache.get("class0"));
+		for (int i = 3; i < 10; i++) {
+			Assert.assertNotNull("class" + i, RobotClassCache.get("class" + i));
+		}
+		Assert.assertEquals(RobotClassCache.MAX_CACHED_BYTES, RobotClassCache.getCachedBytes());
+	}
+
+	@Test
+	public void sizeIsLimited() {
+		final CachedClass first = new CachedClass("first", new byte[CLASS_SIZE]);
+
+		RobotClassCache.put(first);
+		RobotClassCache.put(new CachedClass("first", new byte[CLASS_SIZE])); // Already cached, and ignored
+		Assert.assertSame(first, RobotClassCache.get("first"));
+		Assert.assertEquals(CLASS_SIZE, RobotClassCache.getCachedBytes());
+
+		// A class larger than the cache is not cached, and does not remove the cached classes
+		RobotClassCache.put(new CachedClass("huge", new byte[(int) RobotClassCache.MAX_CACHED_BYTES + 1]));
+		Assert.assertNull(RobotClassCache.get("huge"));
+		Assert.assertSame(first, RobotClassCache.get("first"));
+
+		// A class that fills the cache on its own removes all other classes
+		RobotClassCache.put(new CachedClass("full", new byte[(int) RobotClassCache.MAX_CACHED_BYTES]));
+		Assert.assertNotNull(RobotClassCache.get("full"));
+		Assert.assertNull(RobotClassCache.get("first"));
+		Assert.assertEquals(RobotClassCache.MAX_CACHED_BYTES, RobotClassCache.getCachedBytes());
+
+		RobotClassCache.put(new CachedClass("small", new byte[10]));
+		Assert.assertNull(RobotClassCache.get("full"));
+		Assert.assertEquals(10, RobotClassCache.getCachedBytes());
+	}
+
+	@Test
+	public void codeSourcesDoNotShareClasses() throws IOException {
+		final File jar1 = createFile("robot1.jar");
+		final File jar2 = createFile("robot2.jar");
+		final File classFile = createFile("classes/sample/Robot.class");
+
+		// Equal modification times, so only the code source tells the classes apart
+		final long lastModified = jar1.lastModified();
+
+		Assert.assertTrue(jar2.setLastModified(lastModified) && classFile.setLastModified(lastModified));
+
+		final String key1 = RobotClassCache.getKey(getClassUrl(jar1));
+		final String key2 = RobotClassCache.getKey(getClassUrl(jar2));
+		final String dirKey = RobotClassCache.getKey(classFile.toURI().toURL());
+
+		Assert.assertNotNull(key1);
+		Assert.assertNotNull(key2);
+		Assert.assertNotNull(dirKey);
+		Assert.assertFalse(key1.equals(key2));
+		Assert.assertFalse(key1.equals(dirKey));
+
+		final CachedClass cached = new CachedClass(key1, new byte[10]);
+
+		RobotClassCache.put(cached);
+		Assert.assertSame(cached, RobotClassCache.get(RobotClassCache.getKey(getClassUrl(jar1))));
+		Assert.assertNull(RobotClassCache.get(key2));
+		Assert.assertNull(RobotClassCache.get(dirKey));
+
+		// A changed robot jar has a new key, so its classes are read again
+		Assert.assertTrue(jar1.setLastModified(lastModified + 2000));
+		Assert.assertFalse(key1.equals(RobotClassCache.getKey(getClassUrl(jar1))));
+		Assert.assertNull(RobotClassCache.get(RobotClassCache.getKey(getClassUrl(jar1))));
+	}
+
+	@Test
+	public void remoteClassesAreNotCached() throws IOException {
+		Assert.assertNull(RobotClassCache.getKey(new URL("http://robocode.sourceforge.net/sample/Robot.class")));
+		Assert.assertNull(
+				RobotClassCache.getKey(new URL("jar:http://robocode.sourceforge.net/robot.jar!/sample/Robot.class")));
+		Assert.assertNull(RobotClassCache.getKey(new File(dir, "missing.jar").toURI().toURL()));
+
+		RobotClassCache.put(new CachedClass(null, new byte[10]));
+		Assert.assertNull(RobotClassCache.get(null));
+		Assert.assertEquals(0, RobotClassCache.getCachedBytes());
+	}
+
+	private File createFile(String name) throws IOException {
+		final File file = new File(dir, name);
+		final FileOutputStream out = new FileOutputStream(file);
+
+		out.write(1);
+		out.close();
+		return file;
+	}
+
+	private static URL getClassUrl(File jar) throws IOException {
+		return new URL("jar:" + jar.toURI().toURL() + "!/sample/Robot.class");
+	}
+
+	private static void delete(File file) {
+		final File[] files = file.listFiles();
+
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		if (!file.delete()) {
+			file.deleteOnExit();
+		}
+	}
+}
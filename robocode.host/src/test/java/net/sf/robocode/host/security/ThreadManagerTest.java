@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import net.sf.robocode.host.IHostedThread;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+
+/**
+ * Checks the lookup of the robot that a thread belongs to, which is done on every security check.
+ */
+public class ThreadManagerTest {
+
+	@Test
+	public void robotProxyByThreadGroup() throws InterruptedException {
+		final ThreadManager threadManager = new ThreadManager();
+		final IHostedThread robot1 = createRobotProxy();
+		final IHostedThread robot2 = createRobotProxy();
+		final ThreadGroup group1 = new ThreadGroup("sample.Robot1");
+		final ThreadGroup group2 = new ThreadGroup("sample.Robot2");
+
+		threadManager.addThreadGroup(group1, robot1);
+		threadManager.addThreadGroup(group2, robot2);
+		threadManager.addThreadGroup(group1, robot2); // Ignored, as the group is already added
+
+		Assert.assertSame(robot1, lookup(threadManager, group1));
+		Assert.assertSame(robot2, lookup(threadManager, group2));
+		Assert.assertNull(threadManager.getRobotProxy(Thread.currentThread()));
+
+		threadManager.removeThreadGroups(robot1);
+
+		Assert.assertNull(lookup(threadManager, group1));
+		Assert.assertSame(robot2, lookup(threadManager, group2));
+
+		threadManager.reset();
+
+		Assert.assertNull(lookup(threadManager, group2));
+	}
+
+	@Test
+	public void safeThreadGroup() throws InterruptedException {
+		final ThreadManager threadManager = new ThreadManager();
+		final ThreadGroup safeGroup = new ThreadGroup("safe");
+		final boolean[] isSafe = new boolean[2];
+
+		threadManager.addSafeThreadGroup(safeGroup);
+
+		final Thread thread = new Thread(safeGroup, new Runnable() {
+			public void run() {
+				isSafe[0] = threadManager.isSafeThread(); // found by its group
+				isSafe[1] = threadManager.isSafeThread(); // found as a safe thread
+			}
+		});
+
+		thread.start();
+		thread.join();
+
+		Assert.assertTrue(isSafe[0] && isSafe[1]);
+		Assert.assertFalse(threadManager.isSafeThread());
+	}
+
+	// Benchmark of looking up the robot of a thread for a number of robots
+	// @Test
+	public void robotProxyLookupSpeed() throws InterruptedException {
+		for (int robots : new int[] { 1, 10, 60 }) {
+			final ThreadManager threadManager = new ThreadManager();
+			ThreadGroup group = null;
+
+			for (int i = 0; i < robots; i++) {
+				group = new ThreadGroup("sample.Robot" + i);
+				threadManager.addThreadGroup(group, createRobotProxy());
+			}
+
+			final long[] time = new long[1];
+			final Thread thread = new Thread(group, new Runnable() {
+				public void run() {
+					final Thread current = Thread.currentThread();
+					final int lookups = 10000000;
+					final long start = System.nanoTime();
+
+					for (int i = 0; i < lookups; i++) {
+						if (threadManager.isSafeThread(current) || threadManager.getLoadedOrLoadingRobotProxy(current) == null) {
+							throw new AssertionError();
+						}
+					}
+					time[0] = (System.nanoTime() - start) / lookups;
+				}
+			});
+
+			thread.start();
+			thread.join();
+			System.out.println(robots + " robots: " + time[0] + " ns per security check lookup");
+		}
+	}
+
+	private static IHostedThread lookup(final ThreadManager threadManager, ThreadGroup group)
+		throws InterruptedException {
+		final IHostedThread[] robotProxy = new IHostedThread[1];
+		final Thread thread = new Thread(group, new Runnable() {
+			public void run() {
+				robotProxy[0] = threadManager.getLoadedOrLoadingRobotProxy(Thread.currentThread());
+			}
+		});
+
+		thread.start();
+		thread.join();
+		return robotProxy[0];
+	}
+
+	private static IHostedThread createRobotProxy() {
+		return (IHostedThread) Proxy.newProxyInstance(ThreadManagerTest.class.getClassLoader(),
+				new Class<?>[] { IHostedThread.class }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				return null;
+			}
+		});
+	}
+}
@@ -102,4 +102,21 @@ public interface IRepository {
 	 * @param root is the repository root containing the items to remove.
 	 */
 	void removeItemsFromRoot(IRepositoryRoot root);
+
+	/**
+	 * Marks that a repository root has read its items again, so that the repository must be saved to keep the
+	 * items and the state of the root, even when the number of items has not changed.
+	 *
+	 * @see #isRootUpdated()
+	 */
+	void setRootUpdated();
+
+	/**
+	 * Checks if a repository root has read its items again since the repository was loaded or saved.
+	 *
+	 * @return true if a repository root has read its items again; false otherwise.
+	 *
+	 * @see #setRootUpdated()
+	 */
+	boolean isRootUpdated();
 }
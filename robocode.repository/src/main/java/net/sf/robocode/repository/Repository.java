@@ -41,6 +41,8 @@ class Repository implements IRepository {
 	private Map<String, IRepositoryItem> repositoryItems = new ConcurrentHashMap<String, IRepositoryItem>();
 	private Map<String, IRepositoryItem> removedItems = new ConcurrentHashMap<String, IRepositoryItem>();
 
+	private volatile boolean isRootUpdated;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -61,6 +63,8 @@ class Repository implements IRepository {
 			oos = new ObjectOutputStream(out);
 			oos.writeObject(uniqueRoots);
 			oos.writeObject(uniqueItems);
+			oos.flush();
+			isRootUpdated = false;
 		} catch (IOException e) {
 			Logger.logError("Can't save robot database", e);
 		} finally {
@@ -106,7 +110,7 @@ class Repository implements IRepository {
 	/**
 	 * {@inheritDoc}
 	 */
-	public void addOrUpdateItem(IRepositoryItem repositoryItem) {
+	public synchronized void addOrUpdateItem(IRepositoryItem repositoryItem) {
 		Collection<String> friendlyUrls = repositoryItem.getFriendlyURLs();
 		if (friendlyUrls != null) {
 			// Add or update the item so it can be found using later using any friendly URL
@@ -158,7 +162,7 @@ class Repository implements IRepository {
 	/**
 	 * {@inheritDoc}
 	 */
-	public void removeItemsFromRoot(IRepositoryRoot root) {
+	public synchronized void removeItemsFromRoot(IRepositoryRoot root) {
 		Collection<Map.Entry<String, IRepositoryItem>> itemsToRemove = new ArrayList<Map.Entry<String, IRepositoryItem>>();
 
 		for (Map.Entry<String, IRepositoryItem> entry : repositoryItems.entrySet()) {
@@ -175,6 +179,20 @@ class Repository implements IRepository {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setRootUpdated() {
+		isRootUpdated = true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean isRootUpdated() {
+		return isRootUpdated;
+	}
+
 	/**
 	 * Replaces the repository roots with new repository roots.
 	 *
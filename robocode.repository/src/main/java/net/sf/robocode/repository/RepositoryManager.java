@@ -25,6 +25,8 @@ import net.sf.robocode.settings.ISettingsManager;
 import net.sf.robocode.ui.IWindowManager;
 import robocode.control.RobotSpecification;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -32,10 +34,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -88,10 +90,21 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 	}
 
 	public boolean refresh(boolean force) {
+		final long start = System.nanoTime();
+
 		boolean refreshed = update(getRobotsDirectory(), getDevelDirectories(), force);
-		if (refreshed) {
+
+		// Also save the database when jar files have been read again, so they are not read again on the next start
+		if (refreshed || repository.isRootUpdated()) {
+			final long updated = System.nanoTime();
+
 			setStatus("Saving robot database");
 			save();
+
+			Logger.logMessage(
+					"Updated robot database with " + repository.getItems().size() + " entries from "
+					+ repository.getRoots().size() + " roots in " + (updated - start) / 1000000 + " ms (saved in "
+					+ (System.nanoTime() - updated) / 1000000 + " ms)");
 		}
 
 		setStatus("");
@@ -105,7 +118,8 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 
 		RootHandler.openHandlers();
 		try {
-			Map<String, IRepositoryRoot> newRoots = new HashMap<String, IRepositoryRoot>();
+			// the roots are put into the map by several scan threads
+			Map<String, IRepositoryRoot> newRoots = new ConcurrentHashMap<String, IRepositoryRoot>();
 	
 			RootHandler.visitDirectories(robotsDir, false, newRoots, repository, force);
 			for (File dir : devDirs) {
@@ -129,31 +143,51 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 	}
 
 	private void save() {
+		// The database is written to a temporary file first, so the database is not lost if writing it fails
+		final File file = new File(getRobotsDirectory(), DATABASE_FILENAME);
+		final File tempFile = new File(getRobotsDirectory(), DATABASE_FILENAME + ".tmp");
+
 		FileOutputStream fos = null;
+		BufferedOutputStream bos = null;
 		try {
-			fos = new FileOutputStream(new File(getRobotsDirectory(), DATABASE_FILENAME));
-			repository.save(fos);
+			fos = new FileOutputStream(tempFile);
+			bos = new BufferedOutputStream(fos);
+			repository.save(bos);
 		} catch (IOException e) {
 			Logger.logError("Can't save robot database", e);
+			return;
 		} finally {
+			FileUtil.cleanupStream(bos);
 			FileUtil.cleanupStream(fos);
 		}
+		if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+			Logger.logError("Can't save robot database: " + file);
+		}
 	}
 
 	private Repository load() {
 		Repository repository = new Repository();
 		
 		FileInputStream fis = null;
+		BufferedInputStream bis = null;
 		try {
 			File file = new File(getRobotsDirectory(), DATABASE_FILENAME);
 			if (file.exists()) {
+				final long start = System.nanoTime();
+
 				fis = new FileInputStream(file);
-				repository.load(fis);
+				bis = new BufferedInputStream(fis);
+				repository.load(bis);
+
+				Logger.logMessage(
+						"Read robot database with " + repository.getItems().size() + " entries in "
+						+ (System.nanoTime() - start) / 1000000 + " ms");
 			}
 		} catch (IOException e) {
 			Logger.logError("Can't load robot database", e);
 			repository = null;
 		} finally {
+			FileUtil.cleanupStream(bis);
 			FileUtil.cleanupStream(fis);
 		}
 		return repository;
@@ -69,6 +69,7 @@ public final class JarRoot extends BaseRoot implements IRepositoryRoot {
 
 		if (lastModified > this.lastModified) {
 			repository.removeItemsFromRoot(this);
+			repository.setRootUpdated();
 			this.lastModified = lastModified;
 
 			List<IRepositoryItem> repositoryItems = new ArrayList<IRepositoryItem>();
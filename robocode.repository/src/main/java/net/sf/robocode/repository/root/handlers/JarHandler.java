@@ -17,14 +17,46 @@ import net.sf.robocode.io.URLJarCollector;
 import java.io.File;
 import java.io.FileFilter;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 /**
+ * Handler for registering JAR roots.
+ * <p>
+ * When more than one scan thread is used, see {@link #getScanThreads()}, the JAR files are read at the same
+ * time by a pool of threads, which lives from {@link #open()} until {@link #close()}. The JAR connections are
+ * closed after all JAR files in the directory have been read.
+ *
  * @author Pavel Savara (original)
  */
 public class JarHandler extends RootHandler {
-	public void visitDirectory(File dir, boolean isDevel, Map<String, IRepositoryRoot> newRoots, IRepository repository, boolean force) {
+
+	private ExecutorService scanExecutor;
+
+	@Override
+	public void open() {
+		final int scanThreads = getScanThreads();
+
+		if (scanThreads > 1) {
+			scanExecutor = Executors.newFixedThreadPool(scanThreads);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (scanExecutor != null) {
+			scanExecutor.shutdown();
+			scanExecutor = null;
+		}
+	}
+
+	public void visitDirectory(File dir, boolean isDevel, Map<String, IRepositoryRoot> newRoots, IRepository repository, final boolean force) {
 		if (!isDevel) {
 			// find jar files
 			final File[] jars = dir.listFiles(new FileFilter() {
@@ -38,8 +70,10 @@ public class JarHandler extends RootHandler {
 				return; // Avoid NPE by returning
 			}
 
+			final List<Future<?>> updates = new ArrayList<Future<?>>();
+
 			// update jar files
-			for (File jar : jars) {
+			for (final File jar : jars) {
 				String key;
 
 				try {
@@ -54,17 +88,63 @@ public class JarHandler extends RootHandler {
 				} else {
 					repository.removeRoot(key);
 				}
-
-				root.updateItems(force);
 				newRoots.put(key, root);
 
+				if (scanExecutor == null) {
+					root.updateItems(force);
+					closeJarURLConnection(jar);
+					URLJarCollector.gc();
+				} else {
+					final IRepositoryRoot jarRoot = root;
+
+					updates.add(scanExecutor.submit(new Runnable() {
+						public void run() {
+							jarRoot.updateItems(force);
+						}
+					}));
+				}
+			}
+
+			// wait for the jar files read by the scan threads
+			for (Future<?> update : updates) {
 				try {
-					URLJarCollector.closeJarURLConnection(jar.toURI().toURL());
-				} catch (MalformedURLException e) {
-					Logger.logError(e);
+					update.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				} catch (ExecutionException e) {
+					Logger.logError(e.getCause());
+				}
+			}
+			if (!updates.isEmpty()) {
+				// the jar connections are closed when no scan thread is opening jar connections anymore
+				for (File jar : jars) {
+					closeJarURLConnection(jar);
 				}
 				URLJarCollector.gc();
 			}
 		}
 	}
+
+	private static void closeJarURLConnection(File jar) {
+		try {
+			URLJarCollector.closeJarURLConnection(jar.toURI().toURL());
+		} catch (MalformedURLException e) {
+			Logger.logError(e);
+		}
+	}
+
+	/**
+	 * Returns the number of threads used for reading JAR files, which is set with the SCANTHREADS system property,
+	 * and is the number of available processors by default. JAR files are read one by one when this number is 1.
+	 */
+	private static int getScanThreads() {
+		final int processors = Runtime.getRuntime().availableProcessors();
+
+		try {
+			return Math.max(1, Integer.parseInt(System.getProperty("SCANTHREADS", "" + processors)));
+		} catch (NumberFormatException e) {
+			return processors;
+		}
+	}
 }
@@ -14,6 +14,7 @@ import robocode.control.*;
 import robocode.control.events.BattleAdaptor;
 import robocode.control.events.BattleCompletedEvent;
 import robocode.control.events.BattleErrorEvent;
+import robocode.control.events.IBattleListener;
 
 import java.io.*;
 import java.util.*;
@@ -23,6 +24,8 @@ import java.util.*;
  * The BattlesRunner is running battles.
  * Reads a file with the battles to be runned and outputs the results in another file.
  * Controlled by properties files.
+ * <p>
+ * The battles are run one by one, or several at the same time when the BATTLETHREADS property is not 1.
  *
  * @author Albert Prez (original)
  * @author Flemming N. Larsen (contributor)
@@ -35,6 +38,8 @@ public class BattlesRunner {
 	private final int fieldhei;
 	private final String outfile;
 	private final String user;
+	private final int battlethreads;
+	private int battlesFought;
 	private String game;
 	private static RobotResults[] lastResults;
 	private static IRobocodeEngine engine;
@@ -49,6 +54,7 @@ public class BattlesRunner {
 		fieldhei = Integer.parseInt(parameters.getProperty("FIELDH", "600"));
 		outfile = parameters.getProperty("OUTPUT", "");
 		user = parameters.getProperty("USER", "");
+		battlethreads = Integer.parseInt(parameters.getProperty("BATTLETHREADS", "1"));
 
 		game = propertiesfile;
 		while (game.indexOf("/") != -1) {
@@ -87,6 +93,14 @@ public class BattlesRunner {
 			return;
 		}
 
+		final long start = System.currentTimeMillis();
+
+		battlesFought = 0;
+
+		// battles and the last parameter of the battles, which are run concurrently
+		final List<BattleSpecification> battles = new ArrayList<BattleSpecification>();
+		final List<String> lasts = new ArrayList<String>();
+
 		// run battle
 		int index = 0;
 
@@ -107,10 +121,15 @@ public class BattlesRunner {
 					final BattleSpecification specification = new BattleSpecification(battle.getNumRounds(),
 							battle.getBattlefield(), robotsList);
 
-					lastResults = null;
-					engine.runBattle(specification, true);
-					if (lastResults != null && lastResults.length > 1) {
-						dumpResults(outtxt, lastResults, param[param.length - 1], melee);
+					if (battlethreads == 1) {
+						lastResults = null;
+						engine.runBattle(specification, true);
+						if (lastResults != null && lastResults.length > 1) {
+							dumpResults(outtxt, lastResults, param[param.length - 1], melee);
+						}
+					} else {
+						battles.add(specification);
+						lasts.add(param[param.length - 1]);
 					}
 				}
 			} else {
@@ -119,10 +138,52 @@ public class BattlesRunner {
 			index++;
 		}
 
+		if (battles.size() > 0) {
+			runConcurrentBattles(outtxt, battles, lasts, melee);
+		}
+
+		final long time = System.currentTimeMillis() - start;
+
+		if (battlesFought > 0 && time > 0) {
+			System.out.println(
+					"Fought " + battlesFought + " battles in " + time / 1000 + " seconds ("
+					+ battlesFought * 3600000L / time + " battles/hour)");
+		}
+
 		// close
 		outtxt.close();
 	}
 
+	/**
+	 * Runs the battles with at most BATTLETHREADS battles at the same time, where the results of every battle are
+	 * written to the output file as soon as the battle has completed.
+	 */
+	private void runConcurrentBattles(final PrintStream outtxt, List<BattleSpecification> battles,
+			final List<String> lasts, final boolean melee) {
+		final IBattleListener[] listeners = new IBattleListener[battles.size()];
+
+		for (int i = 0; i < listeners.length; i++) {
+			final String last = lasts.get(i);
+
+			listeners[i] = new BattleAdaptor() {
+				@Override
+				public void onBattleError(final BattleErrorEvent event) {
+					Logger.realErr.println(event.getError());
+				}
+
+				@Override
+				public void onBattleCompleted(final BattleCompletedEvent event) {
+					final RobotResults[] results = RobotResults.convertResults(event.getSortedResults());
+
+					if (results.length > 1) {
+						dumpResults(outtxt, results, last, melee);
+					}
+				}
+			};
+		}
+		engine.runBattles(battles.toArray(new BattleSpecification[battles.size()]), listeners, battlethreads);
+	}
+
 	private String getEnemies(boolean melee, String[] param) {
 		String enemies;
 
@@ -179,6 +240,11 @@ public class BattlesRunner {
 	private void dumpResults(PrintStream outtxt, RobotResults[] results, String last, boolean melee) {
 		final String BOT_INDEX_PATTERN = "\\[.*\\]";
 
+		// The results of a battle are written at once, so that the results of battles completing at the same time
+		// are not mixed, and the output file only contains the results of completed battles
+		final StringWriter battleResults = new StringWriter();
+		final PrintWriter battleOut = new PrintWriter(battleResults);
+
 		for (int i = 0; i < results.length; i++) {
 			for (int j = 0; j < results.length; j++) {
 				if (i < j) {
@@ -198,14 +264,21 @@ public class BattlesRunner {
 					int survival1 = results[i].getFirsts();
 					int survival2 = results[j].getFirsts();
 
-					outtxt.println(
+					battleOut.println(
 							game + "," + numrounds + "," + fieldlen + "x" + fieldhei + "," + user + ","
 							+ System.currentTimeMillis() + "," + last);
-					outtxt.println(name1 + "," + points1 + "," + bullets1 + "," + survival1);
-					outtxt.println(name2 + "," + points2 + "," + bullets2 + "," + survival2);
+					battleOut.println(name1 + "," + points1 + "," + bullets1 + "," + survival1);
+					battleOut.println(name2 + "," + points2 + "," + bullets2 + "," + survival2);
 				}
 			}
 		}
+		battleOut.close();
+
+		synchronized (outtxt) {
+			outtxt.print(battleResults.toString());
+			outtxt.flush();
+			battlesFought++;
+		}
 		if (melee) {
 			System.out.println(
 					"RESULT = " + results[0].getRobot().getNameAndVersion() + " wins, "
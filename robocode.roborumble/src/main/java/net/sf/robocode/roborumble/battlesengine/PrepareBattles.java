@@ -8,14 +8,20 @@
 package net.sf.robocode.roborumble.battlesengine;
 
 
+import net.sf.robocode.roborumble.util.RatingsFile;
 import static net.sf.robocode.roborumble.util.ExcludesUtil.*;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
 
 
 /**
@@ -34,13 +40,16 @@ public class PrepareBattles {
 	private final int numbattles;
 	private final CompetitionsSelector size;
 	private final String runonly;
-	private final Properties generalratings;
-	private final Properties miniratings;
-	private final Properties microratings;
-	private final Properties nanoratings;
+	private final RatingsFile generalratings;
+	private final RatingsFile miniratings;
+	private final RatingsFile microratings;
+	private final RatingsFile nanoratings;
 	private final String priority;
 	private final int prioritynum;
 	private final int meleebots;
+
+	// The robot jar files in the robot repository, which are listed the first time a robot is looked up
+	private Set<String> robotJars;
 	
 	private final static Random RANDOM = new Random(); 
 
@@ -58,10 +67,10 @@ public class PrepareBattles {
 		runonly = parameters.getProperty("RUNONLY", "GENERAL");
 		prioritynum = Integer.parseInt(parameters.getProperty("BATTLESPERBOT", "500"));
 		meleebots = Integer.parseInt(parameters.getProperty("MELEEBOTS", "10"));
-		generalratings = getProperties(parameters.getProperty("RATINGS.GENERAL", ""));
-		miniratings = getProperties(parameters.getProperty("RATINGS.MINIBOTS", ""));
-		microratings = getProperties(parameters.getProperty("RATINGS.MICROBOTS", ""));
-		nanoratings = getProperties(parameters.getProperty("RATINGS.NANOBOTS", ""));
+		generalratings = new RatingsFile(parameters.getProperty("RATINGS.GENERAL", ""));
+		miniratings = new RatingsFile(parameters.getProperty("RATINGS.MINIBOTS", ""));
+		microratings = new RatingsFile(parameters.getProperty("RATINGS.MICROBOTS", ""));
+		nanoratings = new RatingsFile(parameters.getProperty("RATINGS.NANOBOTS", ""));
 		priority = parameters.getProperty("PRIORITYBATTLESFILE", "");
 
 		// Read and prepare exclude filters
@@ -88,10 +97,7 @@ public class PrepareBattles {
 					if (isExcluded(name)) {
 						continue; // ignore excluded participant
 					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
-
-					if (exists) {
+					if (isInRepository(name)) {
 						if ((runonly.equals("MINI") && size.checkCompetitorForSize(name, 1500))
 								|| (runonly.equals("MICRO") && size.checkCompetitorForSize(name, 750))
 								|| (runonly.equals("NANO") && size.checkCompetitorForSize(name, 250))
@@ -141,6 +147,7 @@ public class PrepareBattles {
 
 	public boolean createSmartBattlesList() {
 		List<String> namesAll = new ArrayList<String>();
+		Set<String> participants = new HashSet<String>();
 		List<String> namesMini = new ArrayList<String>();
 		List<String> namesMicro = new ArrayList<String>();
 		List<String> namesNano = new ArrayList<String>();
@@ -150,7 +157,7 @@ public class PrepareBattles {
 		List<String> priorityMicro = new ArrayList<String>();
 		List<String> priorityNano = new ArrayList<String>();
 
-		List<String> priorityBattles = new ArrayList<String>();
+		Set<String> priorityBattles = new LinkedHashSet<String>();
 
 		// Read participants
 
@@ -169,30 +176,32 @@ public class PrepareBattles {
 					if (isExcluded(name)) {
 						continue; // ignore excluded participant
 					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
+					if (isInRepository(name)) {
+						final boolean isMini = size.checkCompetitorForSize(name, 1500);
+						final boolean isMicro = isMini && size.checkCompetitorForSize(name, 750);
+						final boolean isNano = isMicro && size.checkCompetitorForSize(name, 250);
 
-					if (exists) {
 						namesAll.add(name);
-						if (size.checkCompetitorForSize(name, 1500)) {
+						participants.add(name);
+						if (isMini) {
 							namesMini.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 750)) {
+						if (isMicro) {
 							namesMicro.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 250)) {
+						if (isNano) {
 							namesNano.add(name);
 						}
 						if (robotHasPriority(name, generalratings)) {
 							priorityAll.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
+						if (isMini && robotHasPriority(name, miniratings)) {
 							priorityMini.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
+						if (isMicro && robotHasPriority(name, microratings)) {
 							priorityMicro.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
+						if (isNano && robotHasPriority(name, nanoratings)) {
 							priorityNano.add(name);
 						}
 						if (!isRobotInRatings(name)) {
@@ -228,15 +237,11 @@ public class PrepareBattles {
 
 				if (items.length == 3) {
 					// Check that competitors exist
-					String jar1 = items[0].replace(' ', '_') + ".jar";
-					boolean exists1 = (new File(botsrepository + jar1)).exists() && namesAll.contains(items[0]);
-					String jar2 = items[1].replace(' ', '_') + ".jar";
-					boolean exists2 = (new File(botsrepository + jar2)).exists() && namesAll.contains(items[1]);
-
-					// Add battles to priority battles list
-					if (exists1 && exists2 && !priorityBattles.contains(record)) {
-						priorityBattles.add(record);
-					} else {
+					boolean exists1 = participants.contains(items[0]);
+					boolean exists2 = participants.contains(items[1]);
+
+					// Add battles to priority battles list, unless it is already in the list
+					if (!(exists1 && exists2 && priorityBattles.add(record))) {
 						System.out.println("Ignoring: " + record);
 					}
 				}
@@ -273,8 +278,8 @@ public class PrepareBattles {
 		int count = 0;
 
 		// Add priority battles
-		while (count < numbattles && count < priorityBattles.size()) {
-			String battle = priorityBattles.get(count);
+		for (Iterator<String> battles = priorityBattles.iterator(); count < numbattles && battles.hasNext();) {
+			String battle = battles.next();
 			outtxt.println(battle);
 			count++;
 		}
@@ -325,40 +330,51 @@ public class PrepareBattles {
 		return bots;
 	}
 
-	private boolean robotHasPriority(String name, Properties ratings) {
+	private boolean robotHasPriority(String name, RatingsFile ratings) {
 		if (name == null || ratings == null) {
 			return false;
 		}
-		String bot = name.replaceAll(" ", "_");
-		String values = ratings.getProperty(bot);
+		RatingsFile.Rating rating = ratings.getRating(name);
 
-		if (values == null) {
+		if (rating == null) {
 			return false; // must be false (Bug 3474173)
 		}
-		String[] value = values.split(",");
-		double battles = Double.parseDouble(value[1]);
-
-		return (battles < prioritynum);
+		return (rating.getBattles() < prioritynum);
 	}
 
 	private boolean isRobotInRatings(String name) {
 		if (name == null || name.trim().length() == 0) {
 			return false;
 		}
-		String bot = name.replaceAll(" ", "_");
-		
-		Properties[] ratingLists = new Properties[] { generalratings, miniratings, microratings, nanoratings };
+		RatingsFile[] ratingLists = new RatingsFile[] { generalratings, miniratings, microratings, nanoratings };
 		
-		for (Properties ratings : ratingLists) {
-			if (ratings.getProperty(bot) != null) {
+		for (RatingsFile ratings : ratingLists) {
+			if (ratings.contains(name)) {
 				return true;
 			}
 		}
 		return false;
 	}
+
+	/**
+	 * Checks if the jar file of a robot is in the robot repository, where the jar files are only listed once.
+	 */
+	private boolean isInRepository(String name) {
+		if (robotJars == null) {
+			robotJars = new HashSet<String>();
+
+			String[] files = new File(botsrepository.length() == 0 ? "." : botsrepository).list();
+
+			if (files != null) {
+				robotJars.addAll(Arrays.asList(files));
+			}
+		}
+		return robotJars.contains(name.replace(' ', '_') + ".jar");
+	}
 	
 	public boolean createMeleeBattlesList() {
 		List<String> namesAll = new ArrayList<String>();
+		Set<String> participants = new HashSet<String>();
 		List<String> namesMini = new ArrayList<String>();
 		List<String> namesMicro = new ArrayList<String>();
 		List<String> namesNano = new ArrayList<String>();
@@ -387,30 +403,32 @@ public class PrepareBattles {
 					if (isExcluded(name)) {
 						continue; // ignore excluded participant
 					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
+					if (isInRepository(name)) {
+						final boolean isMini = size.checkCompetitorForSize(name, 1500);
+						final boolean isMicro = isMini && size.checkCompetitorForSize(name, 750);
+						final boolean isNano = isMicro && size.checkCompetitorForSize(name, 250);
 
-					if (exists) {
 						namesAll.add(name);
-						if (size.checkCompetitorForSize(name, 1500)) {
+						participants.add(name);
+						if (isMini) {
 							namesMini.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 750)) {
+						if (isMicro) {
 							namesMicro.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 250)) {
+						if (isNano) {
 							namesNano.add(name);
 						}
 						if (robotHasPriority(name, generalratings)) {
 							priorityAll.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
+						if (isMini && robotHasPriority(name, miniratings)) {
 							priorityMini.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
+						if (isMicro && robotHasPriority(name, microratings)) {
 							priorityMicro.add(name);
 						}
-						if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
+						if (isNano && robotHasPriority(name, nanoratings)) {
 							priorityNano.add(name);
 						}
 						if (!isRobotInRatings(name)) {
@@ -446,10 +464,8 @@ public class PrepareBattles {
 
 				if (items.length == 3) {
 					// Check that competitors exist
-					String jar1 = items[0].replace(' ', '_') + ".jar";
-					boolean exists1 = (new File(botsrepository + jar1)).exists() && namesAll.contains(items[0]);
-					String jar2 = items[1].replace(' ', '_') + ".jar";
-					boolean exists2 = (new File(botsrepository + jar2)).exists() && namesAll.contains(items[1]);
+					boolean exists1 = participants.contains(items[0]);
+					boolean exists2 = participants.contains(items[1]);
 
 					// Add battles to priority battles vector
 					if (exists1 && exists2 && !priorityPairs.contains(items)) {
@@ -19,11 +19,19 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -32,12 +40,18 @@ import java.util.zip.ZipEntry;
  * Class used for downloading participating robots from the Internet.
  * Manages the download operations (participants and JAR files).
  * Controlled by properties files.
+ * <p>
+ * Missing robots are downloaded by a pool of download threads, see {@link FileTransfer#getDownloadThreads()},
+ * whereas the downloaded JAR files are checked and saved into the robot repository by the calling thread.
  *
  * @author Albert Prez (original)
  * @author Flemming N. Larsen (contributor)
  */
 public class BotsDownload {
 
+	// The delay before the first retry of a failed download in milliseconds, which is doubled for every retry
+	private final static long RETRY_DELAY = 1000;
+
 	// private String internetrepository;
 	private final String botsrepository;
 	private final String participantsfile;
@@ -58,6 +72,8 @@ public class BotsDownload {
 	private final String nanobotsfile;
 	private final String removeboturl;
 
+	private String repositorySessionId;
+
 	public BotsDownload(String propertiesfile) {
 		// Read parameters
 		Properties parameters = getProperties(propertiesfile);
@@ -272,19 +288,57 @@ public class BotsDownload {
 		}
 
 		// check if the file exists in the repository and download if not present
+		final List<Callable<BotDownload>> downloads = new ArrayList<Callable<BotDownload>>();
+		final Set<String> missingJars = new HashSet<String>();
+
 		for (int i = 0; i < jars.size(); i++) {
-			String botjar = jars.get(i);
-			String botid = ids.get(i);
-			String botname = names.get(i);
+			final String botjar = jars.get(i);
+			final String botid = ids.get(i);
+			final String botname = names.get(i);
 			String botpath = botsrepository + botjar;
 			boolean exists = (new File(botpath)).exists();
 
-			if (!exists) {
-				boolean downloaded = downloadBot(botname, botjar, botid, botsrepository, tempdir);
-				if (!downloaded) {
-					System.out.println("Could not download " + botjar);
+			if (!exists && missingJars.add(botjar)) {
+				downloads.add(new Callable<BotDownload>() {
+					public BotDownload call() {
+						return downloadBot(botname, botjar, botid, tempdir);
+					}
+				});
+			}
+		}
+		if (downloads.isEmpty()) {
+			return;
+		}
+
+		// The bots are downloaded by a pool of download threads, while this thread checks the downloaded bots
+		// and saves them into the repository in the order the downloads complete
+		final ExecutorService downloadExecutor = Executors.newFixedThreadPool(
+				Math.min(FileTransfer.getDownloadThreads(), downloads.size()));
+		final CompletionService<BotDownload> completedDownloads = new ExecutorCompletionService<BotDownload>(
+				downloadExecutor);
+
+		try {
+			for (Callable<BotDownload> download : downloads) {
+				completedDownloads.submit(download);
+			}
+			for (int i = 0; i < downloads.size(); i++) {
+				final BotDownload download;
+
+				try {
+					download = completedDownloads.take().get();
+				} catch (ExecutionException e) {
+					Logger.logError(e.getCause());
+					continue;
+				}
+				if (!installBot(download, botsrepository)) {
+					System.out.println("Could not download " + download.file);
 				}
 			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+		} finally {
+			downloadExecutor.shutdownNow();
 		}
 	}
 
@@ -312,17 +366,25 @@ public class BotsDownload {
 		}
 	}
 
-	private boolean downloadBot(String botname, String file, String id, String destination, String tempdir) {
-		String tempFileName = tempdir + file;
-		String repositoryFileName = destination + file;
-
-		// check if the bot exists in the repository
-
-		boolean exists = (new File(repositoryFileName)).exists();
-		if (exists) {
-			System.out.println("The bot already exists in the repository.");
-			return false;
+	/**
+	 * A bot downloaded into the temp directory, which must be checked before it is saved into the repository.
+	 */
+	private static final class BotDownload {
+		final String botname;
+		final String file;
+		final String url;
+		final DownloadStatus status;
+
+		BotDownload(String botname, String file, String url, DownloadStatus status) {
+			this.botname = botname;
+			this.file = file;
+			this.url = url;
+			this.status = status;
 		}
+	}
+
+	private BotDownload downloadBot(String botname, String file, String id, String tempdir) {
+		String tempFileName = tempdir + file;
 
 		// Download the bot
 
@@ -332,38 +394,76 @@ public class BotsDownload {
 		if (id.indexOf("://") == -1) {
 			url = "http://robocoderepository.com/Controller.jsp?submitAction=downloadClass&id=" + id;
 
-			sessionId = FileTransfer.getSessionId(
-					"http://robocoderepository.com/BotSearch.jsp?botName=''&authorName=''&uploadDate=");
+			sessionId = getRepositorySessionId();
 		} else {
 			url = id;
 		}
 
 		DownloadStatus downloadStatus = FileTransfer.download(url, tempFileName, sessionId);
 
-		if (downloadStatus == DownloadStatus.FILE_NOT_FOUND) {
-			System.out.println("Could not find " + botname + " from " + url);
+		// Retry a download that could not connect, with a doubled delay for every retry
+		for (int retry = 0; retry < FileTransfer.getDownloadRetries()
+				&& downloadStatus == DownloadStatus.COULD_NOT_CONNECT; retry++) {
+			try {
+				Thread.sleep(RETRY_DELAY << retry);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			System.out.println("Retrying download of " + botname + " from " + url);
+			downloadStatus = FileTransfer.download(url, tempFileName, sessionId);
+		}
+		return new BotDownload(botname, file, url, downloadStatus);
+	}
+
+	private boolean installBot(BotDownload download, String destination) {
+		String tempFileName = tempdir + download.file;
+		String repositoryFileName = destination + download.file;
+
+		// check if the bot exists in the repository
+
+		boolean exists = (new File(repositoryFileName)).exists();
+		if (exists) {
+			System.out.println("The bot already exists in the repository.");
 			return false;
-		} else if (downloadStatus == DownloadStatus.COULD_NOT_CONNECT) {
-			System.out.println("Could not connect to " + url);
+		}
+
+		if (download.status == DownloadStatus.FILE_NOT_FOUND) {
+			System.out.println("Could not find " + download.botname + " from " + download.url);
+			return false;
+		} else if (download.status == DownloadStatus.COULD_NOT_CONNECT) {
+			System.out.println("Could not connect to " + download.url);
 			return false;
 		}
 
 		// Check the bot and save it into the repository
 
-		if (checkJarFile(tempFileName, botname)) {
+		if (checkJarFile(tempFileName, download.botname)) {
 			if (!FileTransfer.copy(tempFileName, repositoryFileName)) {
 				System.out.println("Unable to copy " + tempFileName + " into the repository");
 				return false;
 			}
 		} else {
-			System.out.println("Downloaded file is wrong or corrupted: " + file);
+			System.out.println("Downloaded file is wrong or corrupted: " + download.file);
 			return false;
 		}
 
-		System.out.println("Downloaded " + botname + " into " + repositoryFileName);
+		System.out.println("Downloaded " + download.botname + " into " + repositoryFileName);
 		return true;
 	}
 
+	/**
+	 * Returns the session id used for downloading bots from the Robocode Repository, which is only requested once
+	 * for all the downloaded bots.
+	 */
+	private synchronized String getRepositorySessionId() {
+		if (repositorySessionId == null) {
+			repositorySessionId = FileTransfer.getSessionId(
+					"http://robocoderepository.com/BotSearch.jsp?botName=''&authorName=''&uploadDate=");
+		}
+		return repositorySessionId;
+	}
+
 	private boolean checkJarFile(String file, String botname) {
 		if (botname.indexOf(" ") == -1) {
 			System.out.println("Are you sure " + botname + " is a bot/team? Can't download it.");
@@ -29,10 +29,16 @@ public class FileTransfer {
 	private final static int DEFAULT_CONNECTION_TIMEOUT = 10000; // 10 seconds
 	private final static int DEFAULT_READ_TIMEOUT = 10000; // 10 seconds
 	private final static int DEFAULT_SESSION_TIMEOUT = 10000; // 10 seconds
+	private final static int DEFAULT_DOWNLOAD_THREADS = 4;
+	private final static int DEFAULT_DOWNLOAD_RETRIES = 2;
+	private final static int DEFAULT_UPLOAD_THREADS = 2;
 
 	private static int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
 	private static int readTimeout = DEFAULT_READ_TIMEOUT;
 	private static int sessionTimeout = DEFAULT_SESSION_TIMEOUT;
+	private static int downloadThreads = DEFAULT_DOWNLOAD_THREADS;
+	private static int downloadRetries = DEFAULT_DOWNLOAD_RETRIES;
+	private static int uploadThreads = DEFAULT_UPLOAD_THREADS;
 
 	static {
 		readProperties();
@@ -158,7 +164,11 @@ public class FileTransfer {
 
 	/**
 	 * Downloads a file from a HTTP site.
-	 * 
+	 * <p>
+	 * The download is done by the calling thread, where the connection and read timeouts of the connection prevent
+	 * it from hanging. The connection is left open for reuse by the next download from the same site, unless the
+	 * download failed.
+	 *
 	 * @param url is the url of the HTTP site to download the file from.
 	 * @param filename is the filename of the destination file.
 	 * @param sessionId is an optional session id if the download is session based.
@@ -167,296 +177,104 @@ public class FileTransfer {
 	 */
 	public static DownloadStatus download(String url, String filename, String sessionId) {
 		HttpURLConnection conn = null;
+		InputStream in = null;
+		OutputStream out = null;
+
+		DownloadStatus status = DownloadStatus.COULD_NOT_CONNECT; // Default error
 
 		try {
 			// Create connection
 			conn = connectToHttpInputConnection(new URL(url), sessionId);
-			if (conn == null) {
-				throw new IOException("Could not open connection to: " + url);
-			}
-
-			// Begin the download
-			final DownloadThread downloadThread = new DownloadThread(conn, filename);
 
-			downloadThread.start();
+			final int responseCode = conn.getResponseCode();
 
-			// Wait for the download to complete
-			synchronized (downloadThread.monitor) {
-				while (!downloadThread.isFinished) {
-					try {
-						downloadThread.monitor.wait();
-					} catch (InterruptedException e) {
-						return DownloadStatus.COULD_NOT_CONNECT;
-					}
-				}
-			}
-
-			// Return the download status
-			return downloadThread.status;
-
-		} catch (final IOException e) {
-			return DownloadStatus.COULD_NOT_CONNECT;
-		} finally {
-			// Make sure the connection is disconnected.
-			// This will cause threads using the connection to throw an exception
-			// and thereby terminate if they were hanging.
-			try {
-				if (conn != null) {
-					conn.disconnect();
-				}
-			} catch (Throwable ignore) {// we expect this, right ?
+			if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+				// Terminate if the HTTP page containing the file was not found
+				status = DownloadStatus.FILE_NOT_FOUND;
+				return status;
+			} else if (responseCode != HttpURLConnection.HTTP_OK) {
+				// Generally, terminate if did not receive a OK response
+				return status;
 			}
-		}
-	}
-
-	/**
-	 * Worker thread used for downloading a file from an already open HTTP connection.
-	 */
-	private final static class DownloadThread extends WorkerThread {
-
-		// The download status to be read out
-		DownloadStatus status = DownloadStatus.COULD_NOT_CONNECT; // Default error
-
-		final HttpURLConnection conn;
-		final String filename;
-
-		InputStream in;
-		OutputStream out;
-
-		DownloadThread(HttpURLConnection conn, String filename) {
-			super("FileTransfer: Download");
-			this.conn = conn;
-			this.filename = filename;
-		}
-
-		@Override
-		public void run() {
-			try {
-				// Start getting the response code
-				final GetResponseCodeThread responseThread = new GetResponseCodeThread(conn);
-
-				responseThread.start();
-
-				// Wait for the response to finish
-				synchronized (responseThread.monitor) {
-					while (!responseThread.isFinished) {
-						try {
-							responseThread.monitor.wait(sessionTimeout);
-							responseThread.interrupt();
-						} catch (InterruptedException e) {
-							notifyFinish();
-							return;
-						}
-					}
-				}
-
-				final int responseCode = responseThread.responseCode;
-
-				if (responseCode == -1) {
-					// Terminate if we did not get the response code
-					notifyFinish();
-					return;
-
-				} else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
-					// Terminate if the HTTP page containing the file was not found
-					status = DownloadStatus.FILE_NOT_FOUND;
-					notifyFinish();
-					return;
-
-				} else if (responseCode != HttpURLConnection.HTTP_OK) {
-					// Generally, terminate if did not receive a OK response
-					notifyFinish();
-					return;
-				}
-
-				// Start getting the size of the file to download
-				final GetContentLengthThread contentLengthThread = new GetContentLengthThread(conn);
-
-				contentLengthThread.start();
-
-				// Wait for the file size
-				synchronized (contentLengthThread.monitor) {
-					while (!contentLengthThread.isFinished) {
-						try {
-							contentLengthThread.monitor.wait(sessionTimeout);
-							contentLengthThread.interrupt();
-						} catch (InterruptedException e) {
-							notifyFinish();
-							return;
-						}
-					}
-				}
-
-				final int size = contentLengthThread.contentLength;
-
-				if (size == -1) {
-					// Terminate if we did not get the content length
-					notifyFinish();
-					return;
-				}
-
-				// Get the input stream from the connection
-				in = getInputStream(conn);
-
-				// Prepare the output stream for the file output
-				out = new FileOutputStream(filename);
-
-				// Download the file
-
-				final byte[] buf = new byte[4096];
 
-				int totalRead = 0;
-				int bytesRead;
+			// The size of the file to download, which is -1 if it is not known, e.g. with a chunked transfer
+			final int size = conn.getContentLength();
 
-				// Start thread for reading bytes into the buffer
+			// Get the input stream from the connection
+			in = getInputStream(conn);
 
-				while (totalRead < size) {
-					// Start reading bytes into the buffer
-					final ReadInputStreamToBufferThread readThread = new ReadInputStreamToBufferThread(in, buf);
+			// Prepare the output stream for the file output
+			out = new FileOutputStream(filename);
 
-					readThread.start();
-
-					// Wait for the reading to finish
-					synchronized (readThread.monitor) {
-						while (!readThread.isFinished) {
-							try {
-								readThread.monitor.wait(sessionTimeout);
-								readThread.interrupt();
-							} catch (InterruptedException e) {
-								notifyFinish();
-								return;
-							}
-						}
-					}
-
-					bytesRead = readThread.bytesRead;
-					if (bytesRead == -1) {
-						// Read completed has completed
-						notifyFinish();
-						break;
-					}
+			// Download the file
+			final byte[] buf = new byte[4096];
 
-					// Write the byte buffer to the output
-					out.write(buf, 0, bytesRead);
+			long totalRead = 0;
 
-					totalRead += bytesRead;
-				}
+			for (int bytesRead; (bytesRead = in.read(buf)) != -1;) {
+				out.write(buf, 0, bytesRead);
+				totalRead += bytesRead;
+			}
 
-				// If we reached this point, the download was successful
+			// The download was successful if the whole file was received
+			if (size == -1 || totalRead >= size || conn.getContentEncoding() != null) {
 				status = DownloadStatus.OK;
+			}
+			return status;
 
-				notifyFinish();
-
-			} catch (final IOException e) {
-				status = DownloadStatus.COULD_NOT_CONNECT;
-			} finally {
-				// Make sure the input stream is closed
-				if (in != null) {
-					try {
-						in.close();
-					} catch (final IOException e) {
-						e.printStackTrace();
-					}
+		} catch (final IOException e) {
+			return DownloadStatus.COULD_NOT_CONNECT;
+		} finally {
+			// Make sure the streams are closed. Closing the fully read input stream keeps the connection alive
+			if (in != null) {
+				try {
+					in.close();
+				} catch (final IOException e) {
+					e.printStackTrace();
 				}
-				// Make sure the output stream is closed
-				if (out != null) {
-					try {
-						out.close();
-					} catch (final IOException e) {
-						e.printStackTrace();
-					}
+			}
+			if (out != null) {
+				try {
+					out.close();
+				} catch (final IOException e) {
+					e.printStackTrace();
+				}
+			}
+			// Make sure a failed connection is disconnected, so that it is not reused
+			if (status != DownloadStatus.OK && conn != null) {
+				try {
+					conn.disconnect();
+				} catch (Throwable ignore) {// we expect this, right ?
 				}
 			}
 		}
 	}
 
-
 	/**
-	 * Worker thread used for getting the response code of an already open HTTP connection.
+	 * Returns the number of files that are downloaded at the same time, which is controlled by properties.
+	 *
+	 * @return the number of download threads.
 	 */
-	final static class GetResponseCodeThread extends WorkerThread {
-
-		// The response code to read out
-		int responseCode;
-
-		final HttpURLConnection conn;
-
-		GetResponseCodeThread(HttpURLConnection conn) {
-			super("FileTransfer: Get response code");
-			this.conn = conn;
-		}
-
-		@Override
-		public void run() {
-			try {
-				// Get the response code
-				responseCode = conn.getResponseCode();
-			} catch (final Exception e) {
-				responseCode = -1;
-			}
-			// Notify that this thread is finish
-			notifyFinish();
-		}
+	public static int getDownloadThreads() {
+		return downloadThreads;
 	}
 
-
 	/**
-	 * Worker thread used for getting the content length of an already open HTTP connection.
+	 * Returns the number of times a download that could not connect is retried, which is controlled by properties.
+	 *
+	 * @return the number of download retries.
 	 */
-	final static class GetContentLengthThread extends WorkerThread {
-
-		// The content length to read out
-		int contentLength;
-
-		final HttpURLConnection conn;
-
-		GetContentLengthThread(HttpURLConnection conn) {
-			super("FileTransfer: Get content length");
-			this.conn = conn;
-		}
-
-		@Override
-		public void run() {
-			try {
-				// Get the content length
-				contentLength = conn.getContentLength();
-			} catch (final Exception e) {
-				contentLength = -1;
-			}
-			// Notify that this thread is finish
-			notifyFinish();
-		}
+	public static int getDownloadRetries() {
+		return downloadRetries;
 	}
 
-
 	/**
-	 * Worker thread used for reading bytes from an already open input stream into a byte buffer.
+	 * Returns the number of results that are uploaded at the same time, which is controlled by properties.
+	 *
+	 * @return the number of upload threads.
 	 */
-	final static class ReadInputStreamToBufferThread extends WorkerThread {
-
-		int bytesRead;
-
-		final InputStream in;
-
-		final byte[] buf;
-
-		ReadInputStreamToBufferThread(InputStream in, byte[] buf) {
-			super("FileTransfer: Read input stream to buffer");
-			this.in = in;
-			this.buf = buf;
-		}
-
-		@Override
-		public void run() {
-			try {
-				// Read bytes into the buffer
-				bytesRead = in.read(buf);
-			} catch (final Exception e) {
-				bytesRead = -1;
-			}
-			// Notify that this thread is finish
-			notifyFinish();
-		}
+	public static int getUploadThreads() {
+		return uploadThreads;
 	}
 
 	/**
@@ -653,5 +471,29 @@ public class FileTransfer {
 				sessionTimeout = Integer.parseInt(value);
 			} catch (NumberFormatException ignore) {}
 		}
+
+		// Get number of files downloaded at the same time
+		value = props.getProperty("download.threads");
+		if (value != null) {
+			try {
+				downloadThreads = Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException ignore) {}
+		}
+
+		// Get number of times a failed download is retried
+		value = props.getProperty("download.retries");
+		if (value != null) {
+			try {
+				downloadRetries = Math.max(0, Integer.parseInt(value));
+			} catch (NumberFormatException ignore) {}
+		}
+
+		// Get number of results uploaded at the same time
+		value = props.getProperty("upload.threads");
+		if (value != null) {
+			try {
+				uploadThreads = Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException ignore) {}
+		}
 	}
 }
@@ -14,19 +14,36 @@ import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
-import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * Class used for uploading results to a server.
  * Controlled by properties files.
+ * <p>
+ * The results file is read while the results are uploaded by a pool of upload threads, see
+ * {@link FileTransfer#getUploadThreads()}. The number of uploaded results is written to a checkpoint file in the
+ * temp directory, so an upload that has been stopped is resumed without sending the uploaded results again.
+ * The checkpoint also holds the length of the temp file with the results that could not be uploaded, which only
+ * contains the results before the checkpoint, and is cut back to that length when the upload is resumed.
  *
  * @author Albert Prez (original)
  * @author Flemming N. Larsen (contributor)
  */
 public class ResultsUpload {
 
+	// The file in the temp directory with the number of results in the results file that have been uploaded
+	static final String CHECKPOINT_FILENAME = "results.checkpoint";
+
 	private final String client;
 	private final String resultsfile;
 	private final String resultsurl;
@@ -43,6 +60,19 @@ public class ResultsUpload {
 	private final String teams;
 	private final String melee;
 
+	// The results that have been uploaded with the lines to save for them, as they could not be uploaded, where the
+	// results before uploadedResults are saved and written to the checkpoint
+	private final Map<Integer, List<String>> completedResults = new HashMap<Integer, List<String>>();
+	private final Map<Integer, String> uploadedMatches = new HashMap<Integer, String>();
+	private int uploadedResults;
+
+	// The length of the errors file, which is read from the checkpoint
+	private long checkpointErrorsLength;
+
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger successfulResults = new AtomicInteger();
+	private volatile boolean errorsfound;
+
 	public ResultsUpload(String propertiesfile, String clientVersion) {
 		// Read parameters
 		Properties parameters = getProperties(propertiesfile);
@@ -73,57 +103,52 @@ public class ResultsUpload {
 	}
 
 	public void uploadResults() {
+		final long start = System.currentTimeMillis();
 
-		boolean errorsfound = false;
+		errorsfound = false;
 
-		// Read the results file
+		// Find the results that have been uploaded by a previous upload that did not complete
+		final int checkpoint = readCheckpoint();
 
-		Vector<String> results = new Vector<String>();
-		String match = "";
-		String bot1 = "";
-		String bot2;
-		int status = 0;
-		BufferedReader br = null;
+		if (checkpoint > 0) {
+			System.out.println("Resuming upload after " + checkpoint + " results");
+		}
 
-		try {
-			FileReader fr = new FileReader(resultsfile);
+		// The results file is read while the results are uploaded
 
-			br = new BufferedReader(fr);
-			String record;
+		BufferedReader br;
 
-			while ((record = br.readLine()) != null) {
-				if (record.indexOf(game) != -1) {
-					match = record;
-					status = 0;
-				} else if (status == 0) {
-					bot1 = record;
-					status = 1;
-				} else if (status == 1) {
-					bot2 = record;
-					results.add(match);
-					results.add(bot1);
-					results.add(bot2);
-				}
-			}
+		try {
+			br = new BufferedReader(new FileReader(resultsfile));
 		} catch (IOException e) {
 			System.out.println("Can't open result file for upload");
 			return;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
+		}
+
+		// Open the temp file to put the unuploaded results, which is continued when resuming an upload
+		final File errorsfile = getErrorsFile();
+		final boolean resume = checkpoint > 0 && errorsfile.exists();
+
+		if (resume) {
+			// Remove the results saved after the checkpoint was written, as they are uploaded again
+			if (!truncate(errorsfile, checkpointErrorsLength)) {
+				closeReader(br);
+				return;
+			}
+			if (checkpointErrorsLength > 0) {
+				errorsfound = true;
 			}
 		}
 
-		// Open the temp file to put the unuploaded results
 		PrintStream outtxt;
 
 		try {
-			outtxt = new PrintStream(new BufferedOutputStream(new FileOutputStream(tempdir + "results.txt")), false);
+			outtxt = new PrintStream(new BufferedOutputStream(new FileOutputStream(errorsfile, resume)), false);
 		} catch (IOException e) {
 			System.out.println("Not able to open output file ... Aborting");
 			System.out.println(e);
+
+			closeReader(br);
 			return;
 		}
 
@@ -136,6 +161,7 @@ public class ResultsUpload {
 			System.out.println("Not able to open battles number file ... Aborting");
 			System.out.println(e);
 
+			closeReader(br);
 			outtxt.close();
 			return;
 		}
@@ -149,60 +175,76 @@ public class ResultsUpload {
 			System.out.println("Not able to open priorities file ... Aborting");
 			System.out.println(e);
 
+			closeReader(br);
 			outtxt.close();
 			battlesnum.close();
 			return;
 		}
 
-		// Post the results
+		// Post the results, where at most two results per upload thread are waiting to be uploaded
 
-		for (int i = 0; i < results.size() / 3; i++) {
+		final int uploadThreads = FileTransfer.getUploadThreads();
+		final ExecutorService uploadExecutor = Executors.newFixedThreadPool(uploadThreads);
+		final Semaphore pendingResults = new Semaphore(uploadThreads * 2);
 
-			// Create the parameters String
-			String[] header = results.get(i * 3).split(",");
-			String[] first = results.get(i * 3 + 1).split(",");
-			String[] second = results.get(i * 3 + 2).split(",");
+		uploadedResults = checkpoint;
+		completedResults.clear();
+		uploadedMatches.clear();
+		requests.set(0);
+		successfulResults.set(0);
 
-			// find the match mode
-			String matchtype = "GENERAL";
-
-			if (header.length >= 6) {
-				matchtype = header[5];
-			}
-
-			// if the match mode was general, then send the results to all competitions (assuming codesize is used).
-			// if its not, then send results only to smaller size competitions
+		String match = "";
+		String bot1 = "";
+		String bot2;
+		int status = 0;
+		int index = 0;
+		boolean isRead = false;
 
-			final String commonData = "&version=1" + "&client=" + client + "&teams=" + teams + "&melee=" + melee
-					+ "&rounds=" + header[1] + "&field=" + header[2] + "&user=" + user + "&time=" + header[4] + "&fname="
-					+ first[0] + "&fscore=" + first[1] + "&fbulletd=" + first[2] + "&fsurvival=" + first[3] + "&sname="
-					+ second[0] + "&sscore=" + second[1] + "&sbulletd=" + second[2] + "&ssurvival=" + second[3];
+		try {
+			String record;
 
-			String data = "game=" + game + commonData;
+			while ((record = br.readLine()) != null) {
+				if (record.indexOf(game) != -1) {
+					match = record;
+					status = 0;
+				} else if (status == 0) {
+					bot1 = record;
+					status = 1;
+				} else if (status == 1) {
+					bot2 = record;
 
-			if (matchtype.equals("GENERAL") || matchtype.equals("SERVER")) {
-				errorsfound = errorsfound | senddata(game, data, outtxt, true, results, i, battlesnum, prioritybattles);
-			}
+					if (index >= checkpoint) {
+						final BattleResult result = new BattleResult(index, match, bot1, bot2);
+						final List<String[]> uploads = getUploads(result);
 
-			if (sizesfile.length() != 0) { // upload also related competitions
-				if (minibots.length() != 0 && !matchtype.equals("NANO") && !matchtype.equals("MICRO")
-						&& size.checkCompetitorsForSize(first[0], second[0], 1500)) {
-					data = "game=" + minibots + commonData;
-					errorsfound = errorsfound
-							| senddata(minibots, data, outtxt, true, results, i, battlesnum, prioritybattles);
-				}
-				if (microbots.length() != 0 && !matchtype.equals("NANO")
-						&& size.checkCompetitorsForSize(first[0], second[0], 750)) {
-					data = "game=" + microbots + commonData;
-					errorsfound = errorsfound
-							| senddata(microbots, data, outtxt, true, results, i, battlesnum, prioritybattles);
-				}
-				if (nanobots.length() != 0 && size.checkCompetitorsForSize(first[0], second[0], 250)) {
-					data = "game=" + nanobots + commonData;
-					errorsfound = errorsfound
-							| senddata(nanobots, data, outtxt, true, results, i, battlesnum, prioritybattles);
+						synchronized (this) {
+							uploadedMatches.put(index, match);
+						}
+						pendingResults.acquire();
+						uploadExecutor.execute(
+								new ResultUpload(result, uploads, outtxt, battlesnum, prioritybattles, pendingResults));
+					}
+					index++;
 				}
 			}
+			isRead = true;
+		} catch (IOException e) {
+			System.out.println("Can't read result file for upload");
+			System.out.println(e);
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+		} finally {
+			closeReader(br);
+
+			// Wait for the uploads to complete
+			uploadExecutor.shutdown();
+			try {
+				uploadExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				isRead = false;
+			}
 		}
 
 		// close files
@@ -210,32 +252,287 @@ public class ResultsUpload {
 		battlesnum.close();
 		prioritybattles.close();
 
-		// delete results file
-		File r = new File(resultsfile);
-		boolean b = r.delete();
+		final long time = System.currentTimeMillis() - start;
+		final int uploaded = successfulResults.get();
+
+		if (uploaded > 0) {
+			System.out.println(
+					"Uploaded " + uploaded + " results with " + requests.get() + " requests in " + time / 1000
+					+ " seconds (" + (time > 0 ? uploaded * 1000L / time : uploaded) + " results/second)");
+		}
 
-		if (!b) {
-			System.out.println("Unable to delete results file.");
+		if (!isRead || uploadedResults < index) {
+			// Keep the results file and the checkpoint, so the upload is resumed next time
+			return;
 		}
 
-		// copy temp file into results file if there was some error
 		if (errorsfound) {
+			// copy temp file into results file if there was some error
 			if (!FileTransfer.copy(tempdir + "results.txt", resultsfile)) {
 				System.out.println("Error when copying results errors file.");
 			}
+		} else {
+			// delete results file
+			File r = new File(resultsfile);
+			boolean b = r.delete();
+
+			if (!b) {
+				System.out.println("Unable to delete results file.");
+			}
+		}
+
+		// the results file does not contain uploaded results anymore
+		deleteCheckpoint();
+	}
+
+	/**
+	 * Returns the (game, data) pairs to send to the server for a battle result.
+	 * The code sizes are checked by the reading thread, as the code size file is not safe for concurrent updates.
+	 */
+	private List<String[]> getUploads(BattleResult result) {
+		final List<String[]> uploads = new ArrayList<String[]>();
+
+		// Create the parameters String
+		String[] header = result.match.split(",");
+		String[] first = result.bot1.split(",");
+		String[] second = result.bot2.split(",");
+
+		// find the match mode
+		String matchtype = "GENERAL";
+
+		if (header.length >= 6) {
+			matchtype = header[5];
+		}
+
+		// if the match mode was general, then send the results to all competitions (assuming codesize is used).
+		// if its not, then send results only to smaller size competitions
+
+		final String commonData = "&version=1" + "&client=" + client + "&teams=" + teams + "&melee=" + melee
+				+ "&rounds=" + header[1] + "&field=" + header[2] + "&user=" + user + "&time=" + header[4] + "&fname="
+				+ first[0] + "&fscore=" + first[1] + "&fbulletd=" + first[2] + "&fsurvival=" + first[3] + "&sname="
+				+ second[0] + "&sscore=" + second[1] + "&sbulletd=" + second[2] + "&ssurvival=" + second[3];
+
+		if (matchtype.equals("GENERAL") || matchtype.equals("SERVER")) {
+			uploads.add(new String[] { game, "game=" + game + commonData });
+		}
+
+		if (sizesfile.length() != 0) { // upload also related competitions
+			if (minibots.length() != 0 && !matchtype.equals("NANO") && !matchtype.equals("MICRO")
+					&& size.checkCompetitorsForSize(first[0], second[0], 1500)) {
+				uploads.add(new String[] { minibots, "game=" + minibots + commonData });
+			}
+			if (microbots.length() != 0 && !matchtype.equals("NANO")
+					&& size.checkCompetitorsForSize(first[0], second[0], 750)) {
+				uploads.add(new String[] { microbots, "game=" + microbots + commonData });
+			}
+			if (nanobots.length() != 0 && size.checkCompetitorsForSize(first[0], second[0], 250)) {
+				uploads.add(new String[] { nanobots, "game=" + nanobots + commonData });
+			}
+		}
+		return uploads;
+	}
+
+	/**
+	 * A battle result read from the results file, where index is the number of results before it in the file.
+	 */
+	private static final class BattleResult {
+		final int index;
+		final String match;
+		final String bot1;
+		final String bot2;
+
+		BattleResult(int index, String match, String bot1, String bot2) {
+			this.index = index;
+			this.match = match;
+			this.bot1 = bot1;
+			this.bot2 = bot2;
+		}
+	}
+
+	/**
+	 * Uploads a battle result to all the competitions it belongs to, and moves the checkpoint when done.
+	 */
+	private final class ResultUpload implements Runnable {
+		final BattleResult result;
+		final List<String[]> uploads;
+		final PrintStream outtxt;
+		final PrintStream battlesnum;
+		final PrintStream prioritybattles;
+		final Semaphore pendingResults;
+
+		ResultUpload(BattleResult result, List<String[]> uploads, PrintStream outtxt, PrintStream battlesnum,
+				PrintStream prioritybattles, Semaphore pendingResults) {
+			this.result = result;
+			this.uploads = uploads;
+			this.outtxt = outtxt;
+			this.battlesnum = battlesnum;
+			this.prioritybattles = prioritybattles;
+			this.pendingResults = pendingResults;
+		}
+
+		public void run() {
+			final List<String> errors = new ArrayList<String>();
+
+			try {
+				for (String[] upload : uploads) {
+					requests.incrementAndGet();
+					if (senddata(upload[0], upload[1], errors, true, result, battlesnum, prioritybattles)) {
+						errorsfound = true;
+					}
+				}
+				if (errors.isEmpty()) {
+					successfulResults.incrementAndGet();
+				}
+				completed(result.index, errors, outtxt);
+			} finally {
+				pendingResults.release();
+			}
+		}
+	}
+
+	/**
+	 * Marks a result as uploaded, and writes the checkpoint when all the results before it have been uploaded too.
+	 * The lines of the results that could not be uploaded are only saved to the temp file when the checkpoint is
+	 * moved past them, and are flushed before the checkpoint is written, so the temp file never contains results
+	 * that are uploaded again when the upload is resumed.
+	 */
+	private synchronized void completed(int index, List<String> errors, PrintStream outtxt) {
+		completedResults.put(index, errors);
+
+		String match = null;
+
+		while (completedResults.containsKey(uploadedResults)) {
+			for (String line : completedResults.remove(uploadedResults)) {
+				outtxt.println(line);
+			}
+			match = uploadedMatches.remove(uploadedResults);
+			uploadedResults++;
+		}
+		if (match != null) {
+			outtxt.flush();
+			writeCheckpoint(uploadedResults, match, getErrorsFile().length());
+		}
+	}
+
+	private File getErrorsFile() {
+		return new File(tempdir + "results.txt");
+	}
+
+	// Cuts a file back to the given length
+	private static boolean truncate(File file, long length) {
+		RandomAccessFile raf = null;
+
+		try {
+			raf = new RandomAccessFile(file, "rw");
+			raf.setLength(length);
+			return true;
+		} catch (IOException e) {
+			System.out.println("Unable to resume upload: " + e);
+			return false;
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException ignored) {}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of results at the beginning of the results file that have already been uploaded, which is
+	 * only trusted if the last of these results is the one written into the checkpoint file, and if the errors file
+	 * is not shorter than the length written into the checkpoint file.
+	 */
+	private int readCheckpoint() {
+		final File file = new File(tempdir + CHECKPOINT_FILENAME);
+
+		if (!file.exists()) {
+			return 0;
+		}
+		BufferedReader br = null;
+
+		try {
+			br = new BufferedReader(new FileReader(file));
+
+			final int count = Integer.parseInt(br.readLine());
+			final String lastMatch = br.readLine();
+			final long errorsLength = Long.parseLong(br.readLine());
+
+			if (errorsLength < 0 || errorsLength > getErrorsFile().length()) {
+				return 0;
+			}
+			checkpointErrorsLength = errorsLength;
+
+			closeReader(br);
+			br = new BufferedReader(new FileReader(resultsfile));
+
+			int index = 0;
+			int status = 0;
+			String match = "";
+
+			for (String record; (record = br.readLine()) != null && index < count;) {
+				if (record.indexOf(game) != -1) {
+					match = record;
+					status = 0;
+				} else if (status == 0) {
+					status = 1;
+				} else if (status == 1) {
+					if (++index == count && match.equals(lastMatch)) {
+						return count;
+					}
+				}
+			}
+		} catch (IOException ignored) {// the results are uploaded from the beginning
+		} catch (NumberFormatException ignored) {// the results are uploaded from the beginning
+		} finally {
+			closeReader(br);
+		}
+		return 0;
+	}
+
+	private void writeCheckpoint(int count, String lastMatch, long errorsLength) {
+		PrintStream out = null;
+
+		try {
+			out = new PrintStream(new FileOutputStream(tempdir + CHECKPOINT_FILENAME), false);
+			out.println(count);
+			out.println(lastMatch);
+			out.println(errorsLength);
+		} catch (IOException e) {
+			System.out.println("Unable to write upload checkpoint: " + e);
+		} finally {
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+
+	private void deleteCheckpoint() {
+		final File file = new File(tempdir + CHECKPOINT_FILENAME);
+
+		if (file.exists() && !file.delete()) {
+			System.out.println("Unable to delete upload checkpoint.");
+		}
+	}
+
+	private static void closeReader(Reader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException ignored) {}
 		}
 	}
 
-	private void saveError(PrintStream outtxt, String match, String bot1, String bot2, boolean saveonerror) {
+	private void saveError(List<String> errors, String match, String bot1, String bot2, boolean saveonerror) {
 		if (saveonerror) {
-			outtxt.println(match);
-			outtxt.println(bot1);
-			outtxt.println(bot2);
+			errors.add(match);
+			errors.add(bot1);
+			errors.add(bot2);
 		}
 		System.out.println("Unable to upload results " + match + " " + bot1 + " " + bot2);
 	}
 
-	private boolean senddata(String game, String data, PrintStream outtxt, boolean saveonerror, Vector<String> results, int i, PrintStream battlesnum, PrintStream prioritybattles) {
+	private boolean senddata(String game, String data, List<String> errors, boolean saveonerror, BattleResult result, PrintStream battlesnum, PrintStream prioritybattles) {
 		boolean errorsfound = false;
 		OutputStream out = null;
 		OutputStreamWriter outputStreamWriter = null;
@@ -270,10 +567,10 @@ public class ResultsUpload {
 				} else if (line.indexOf("<") != -1 && line.indexOf(">") != -1) {
 					// System.out.println(line);
 					// Save the number of battles for the bots into battlesnum !!!!!!!!!!!!!
-					String bot1 = results.get(i * 3 + 1);
+					String bot1 = result.bot1;
 
 					bot1 = bot1.substring(0, bot1.indexOf(","));
-					String bot2 = results.get(i * 3 + 2);
+					String bot2 = result.bot2;
 
 					bot2 = bot2.substring(0, bot2.indexOf(","));
 					line = line.replaceAll("<", "");
@@ -281,8 +578,10 @@ public class ResultsUpload {
 					String[] b = line.split(" ");
 
 					if (b.length == 2) {
-						battlesnum.println(game + "," + bot1 + "," + b[0]);
-						battlesnum.println(game + "," + bot2 + "," + b[1]);
+						synchronized (battlesnum) {
+							battlesnum.println(game + "," + bot1 + "," + b[0]);
+							battlesnum.println(game + "," + bot2 + "," + b[1]);
+						}
 					}
 				} else if (line.indexOf("[") != -1 && line.indexOf("]") != -1) {
 					line = line.substring(1);
@@ -302,7 +601,7 @@ public class ResultsUpload {
 				}
 			}
 			if (!ok) {
-				saveError(outtxt, results.get(i * 3), results.get(i * 3 + 1), results.get(i * 3 + 2), saveonerror);
+				saveError(errors, result.match, result.bot1, result.bot2, saveonerror);
 				if (saveonerror) {
 					errorsfound = true;
 				}
@@ -312,7 +611,7 @@ public class ResultsUpload {
 			if (saveonerror) {
 				errorsfound = true;
 			}
-			saveError(outtxt, results.get(i * 3), results.get(i * 3 + 1), results.get(i * 3 + 2), saveonerror);
+			saveError(errors, result.match, result.bot1, result.bot2, saveonerror);
 		} finally {
 			if (wr != null) {
 				wr.close();
@@ -8,8 +8,8 @@
 package net.sf.robocode.roborumble.netengine;
 
 
+import net.sf.robocode.roborumble.util.RatingsFile;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
-import static net.sf.robocode.roborumble.util.PropertiesUtil.storeProperties;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -85,46 +85,32 @@ public class UpdateRatingFiles {
 		}
 
 		// read the ratings files
-		Properties all = getProperties(generalratings);
-		Properties mini = getProperties(miniratings);
-		Properties micro = getProperties(microratings);
-		Properties nano = getProperties(nanoratings);
+		RatingsFile all = new RatingsFile(generalratings);
+		RatingsFile mini = new RatingsFile(miniratings);
+		RatingsFile micro = new RatingsFile(microratings);
+		RatingsFile nano = new RatingsFile(nanoratings);
 
 		// update #battles
 		for (String battle : battles) {
 			String[] battleSpec = battle.split(",");
 
-			battleSpec[1] = battleSpec[1].replaceAll(" ", "_");
 			double num = Double.parseDouble(battleSpec[2]);
 
 			if (battleSpec[0].equals(game)) {
-				updateRecord(battleSpec[1], num, all);
-			} else if (battleSpec[0].equals(minibots) && mini != null) {
-				updateRecord(battleSpec[1], num, mini);
-			} else if (battleSpec[0].equals(microbots) && micro != null) {
-				updateRecord(battleSpec[1], num, micro);
-			} else if (battleSpec[0].equals(nanobots) && nano != null) {
-				updateRecord(battleSpec[1], num, nano);
+				all.setBattles(battleSpec[1], num);
+			} else if (battleSpec[0].equals(minibots)) {
+				mini.setBattles(battleSpec[1], num);
+			} else if (battleSpec[0].equals(microbots)) {
+				micro.setBattles(battleSpec[1], num);
+			} else if (battleSpec[0].equals(nanobots)) {
+				nano.setBattles(battleSpec[1], num);
 			}
 		}
 
 		// save ratings files
-		return storeProperties(all, generalratings, "General ratings updated with new battles number")
-				&& storeProperties(all, miniratings, "Mini ratings updated with new battles number")
-				&& storeProperties(all, microratings, "Micro ratings updated with new battles number")
-				&& storeProperties(all, nanoratings, "Nano ratings updated with new battles number");
-	}
-
-	private void updateRecord(String bot, double battles, Properties ratings) {
-		String values = ratings.getProperty(bot);
-
-		if (values == null) {
-			return;
-		}
-
-		String[] value = values.split(",");
-
-		values = value[0] + "," + Double.toString(battles) + "," + value[2];
-		ratings.setProperty(bot, values);
+		return all.store("General ratings updated with new battles number")
+				&& mini.store("Mini ratings updated with new battles number")
+				&& micro.store("Micro ratings updated with new battles number")
+				&& nano.store("Nano ratings updated with new battles number");
 	}
 }
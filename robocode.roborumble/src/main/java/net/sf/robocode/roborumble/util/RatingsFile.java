@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.util;
+
+
+import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
+import static net.sf.robocode.roborumble.util.PropertiesUtil.storeProperties;
+
+import java.io.File;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * A ratings file of a competition, which is parsed once when it is read.
+ * <p>
+ * Every line of a ratings file is a property, where the key is the name and version of a robot separated by an
+ * underscore, and the value contains the rating, the number of battles, and the date of the last battle separated
+ * by commas. The file is only written when a number of battles has been changed, where the lines of other robots
+ * are written as they were read. The file is replaced at once, so the ratings file is never left half written.
+ */
+public class RatingsFile {
+
+	private final String filename;
+	private final Properties properties;
+	private final Map<String, Rating> ratings = new HashMap<String, Rating>();
+	private boolean isChanged;
+
+	/**
+	 * Reads a ratings file.
+	 *
+	 * @param filename the filename of the ratings file, which might be empty if the competition has no ratings file.
+	 */
+	public RatingsFile(String filename) {
+		this.filename = filename;
+
+		properties = getProperties(filename);
+
+		for (Enumeration<?> e = properties.propertyNames(); e.hasMoreElements();) {
+			String bot = (String) e.nextElement();
+			Rating rating = Rating.parse(properties.getProperty(bot));
+
+			if (rating != null) {
+				ratings.put(bot, rating);
+			}
+		}
+	}
+
+	/**
+	 * Returns the rating of a robot.
+	 *
+	 * @param name the name and version of the robot, which are separated by a space or an underscore.
+	 * @return the rating, or null if the robot has no rating.
+	 */
+	public Rating getRating(String name) {
+		return ratings.get(name.replace(' ', '_'));
+	}
+
+	/**
+	 * Checks if a robot has a rating.
+	 *
+	 * @param name the name and version of the robot, which are separated by a space or an underscore.
+	 * @return true if the robot has a rating; false otherwise.
+	 */
+	public boolean contains(String name) {
+		return ratings.containsKey(name.replace(' ', '_'));
+	}
+
+	/**
+	 * Sets the number of battles of a robot, if the robot has a rating.
+	 *
+	 * @param name the name and version of the robot, which are separated by a space or an underscore.
+	 * @param battles the number of battles.
+	 */
+	public void setBattles(String name, double battles) {
+		String bot = name.replace(' ', '_');
+		Rating rating = ratings.get(bot);
+
+		if (rating != null && rating.battles != battles) {
+			rating.battles = battles;
+			properties.setProperty(bot, rating.toString());
+			isChanged = true;
+		}
+	}
+
+	/**
+	 * Writes the ratings file if a number of battles has been changed. The ratings are written into a temporary
+	 * file, which replaces the ratings file.
+	 *
+	 * @param comments comments to include in the ratings file.
+	 * @return true if the ratings file is up to date; false if it could not be written, or there is no ratings file.
+	 */
+	public boolean store(String comments) {
+		if (filename == null || filename.trim().length() == 0) {
+			return false;
+		}
+		if (!isChanged) {
+			return true;
+		}
+
+		File file = new File(filename);
+		File tempFile = new File(filename + ".tmp");
+
+		if (!storeProperties(properties, tempFile.getPath(), comments)) {
+			return false;
+		}
+		if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+			System.err.println("Could not store properties to file: " + filename);
+			return false;
+		}
+		isChanged = false;
+		return true;
+	}
+
+	/**
+	 * The rating of a robot in a ratings file.
+	 */
+	public static final class Rating {
+		private final String rating;
+		private final String date;
+		private double battles;
+
+		private Rating(String rating, double battles, String date) {
+			this.rating = rating;
+			this.battles = battles;
+			this.date = date;
+		}
+
+		static Rating parse(String value) {
+			String[] values = value.split(",");
+
+			if (values.length < 2) {
+				return null;
+			}
+			try {
+				return new Rating(values[0], Double.parseDouble(values[1]), values.length > 2 ? values[2] : null);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		public double getBattles() {
+			return battles;
+		}
+
+		@Override
+		public String toString() {
+			return rating + "," + Double.toString(battles) + (date != null ? "," + date : "");
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Assert;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A temporary directory for the files of a RoboRumble test, with a local HTTP server in place of the RoboRumble
+ * server if the test needs one. The directory is deleted and the server is stopped by {@link #close()}.
+ */
+public final class RumbleTestFixture {
+
+	private final File dir;
+	private HttpServer server;
+
+	/**
+	 * Creates a temporary directory.
+	 *
+	 * @param prefix the prefix of the name of the directory.
+	 * @param subdirs the directories to create in the directory.
+	 */
+	public RumbleTestFixture(String prefix, String... subdirs) throws IOException {
+		dir = File.createTempFile(prefix, "");
+		Assert.assertTrue(dir.delete() && dir.mkdir());
+		for (String subdir : subdirs) {
+			Assert.assertTrue(new File(dir, subdir).mkdirs());
+		}
+	}
+
+	/**
+	 * Returns a file in the temporary directory.
+	 */
+	public File getFile(String name) {
+		return new File(dir, name);
+	}
+
+	/**
+	 * Starts a local HTTP server that handles the requests with the given handler.
+	 *
+	 * @return the URL of the server, ending with a slash.
+	 */
+	public String startServer(HttpHandler handler) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", handler);
+		server.start();
+
+		return "http://localhost:" + server.getAddress().getPort() + "/";
+	}
+
+	/**
+	 * Stops the server, and deletes the temporary directory.
+	 */
+	public void close() {
+		if (server != null) {
+			server.stop(0);
+		}
+		delete(dir);
+	}
+
+	/**
+	 * Returns the path of a file as written into the properties files, where a directory ends with a slash.
+	 */
+	public static String path(File file) {
+		return file.getPath().replace('\\', '/') + (file.isDirectory() ? "/" : "");
+	}
+
+	public static void writeLines(File file, String... lines) throws IOException {
+		final PrintStream out = new PrintStream(new FileOutputStream(file));
+
+		for (String line : lines) {
+			out.println(line);
+		}
+		out.close();
+	}
+
+	public static List<String> readLines(File file) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		final BufferedReader in = new BufferedReader(new FileReader(file));
+
+		for (String line; (line = in.readLine()) != null;) {
+			lines.add(line);
+		}
+		in.close();
+		return lines;
+	}
+
+	/**
+	 * Sends a response from the local HTTP server.
+	 */
+	public static void send(HttpExchange exchange, int responseCode, byte[] body) throws IOException {
+		exchange.sendResponseHeaders(responseCode, body.length == 0 ? -1 : body.length);
+
+		final OutputStream out = exchange.getResponseBody();
+
+		out.write(body);
+		out.close();
+	}
+
+	private static void delete(File file) {
+		final File[] files = file.listFiles();
+
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		if (!file.delete()) {
+			file.deleteOnExit();
+		}
+	}
+}
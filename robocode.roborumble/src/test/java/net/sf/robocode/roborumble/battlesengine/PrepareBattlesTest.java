@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import net.sf.robocode.roborumble.RumbleTestFixture;
+import static net.sf.robocode.roborumble.RumbleTestFixture.path;
+import static net.sf.robocode.roborumble.RumbleTestFixture.readLines;
+import static net.sf.robocode.roborumble.RumbleTestFixture.writeLines;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.List;
+
+
+/**
+ * Checks the battles lists created from the participants, the ratings and the priority battles.
+ */
+public class PrepareBattlesTest {
+
+	private RumbleTestFixture fixture;
+
+	@Before
+	public void createDir() throws IOException {
+		fixture = new RumbleTestFixture("preparebattles", "robots");
+	}
+
+	@After
+	public void deleteDir() {
+		fixture.close();
+	}
+
+	@Test
+	public void smartBattlesList() throws IOException {
+		final File properties = createRumble(3, 20);
+
+		// A participant without a jar file must never fight
+		append(fixture.getFile("participants.txt"), "sample.Missing 1.0,1");
+
+		// Bot0 has too few battles, and must have priority
+		writeLines(fixture.getFile("ratings.txt"), "sample.Bot0_1.0=1600,100,2017-01-01",
+				"sample.Bot1_1.0=1600,1000,2017-01-01", "sample.Bot2_1.0=1600,1000,2017-01-01");
+		writeLines(fixture.getFile("priority.txt"), "sample.Bot1 1.0,sample.Bot2 1.0,SERVER",
+				"sample.Bot1 1.0,sample.Bot2 1.0,SERVER", "sample.Bot1 1.0,sample.Missing 1.0,SERVER");
+
+		Assert.assertTrue(new PrepareBattles(path(properties)).createSmartBattlesList());
+
+		final List<String> battles = readLines(fixture.getFile("battles.txt"));
+
+		Assert.assertEquals(20, battles.size());
+		Assert.assertEquals("sample.Bot1 1.0,sample.Bot2 1.0,SERVER", battles.get(0));
+		for (int i = 1; i < battles.size(); i++) {
+			final String[] bots = battles.get(i).split(",");
+
+			Assert.assertEquals("Duplicated priority battle: " + battles.get(i), "sample.Bot0 1.0", bots[0]);
+			Assert.assertFalse(bots[0].equals(bots[1]));
+			Assert.assertFalse(battles.get(i).contains("sample.Missing"));
+		}
+		Assert.assertFalse("Priority battles must be deleted", fixture.getFile("priority.txt").exists());
+	}
+
+	// Benchmark of creating a list of 10000 battles for 1000 participants
+	// @Test
+	public void smartBattlesListSpeed() throws IOException {
+		final File properties = createRumble(1000, 10000);
+		final String[] ratings = new String[1000];
+
+		for (int i = 0; i < ratings.length; i++) {
+			ratings[i] = "sample.Bot" + i + "_1.0=1600," + (i % 2 == 0 ? 100 : 1000) + ",2017-01-01";
+		}
+		writeLines(fixture.getFile("ratings.txt"), ratings);
+
+		final int runs = 20;
+		final long start = System.nanoTime();
+
+		for (int i = 0; i < runs; i++) {
+			new PrepareBattles(path(properties)).createSmartBattlesList();
+		}
+		System.out.println("Smart battles list: " + (System.nanoTime() - start) / runs / 1000000 + " ms");
+	}
+
+	private File createRumble(int bots, int battles) throws IOException {
+		final String[] participants = new String[bots];
+		final String[] sizes = new String[bots];
+
+		for (int i = 0; i < bots; i++) {
+			participants[i] = "sample.Bot" + i + " 1.0," + i;
+			sizes[i] = "sample.Bot" + i + "_1.0=2000";
+			writeLines(fixture.getFile("robots/sample.Bot" + i + "_1.0.jar"));
+		}
+		writeLines(fixture.getFile("participants.txt"), participants);
+		writeLines(fixture.getFile("sizes.txt"), sizes);
+
+		final File properties = fixture.getFile("roborumble.txt");
+
+		writeLines(properties, "BOTSREP=" + path(fixture.getFile("robots")),
+				"PARTICIPANTSFILE=" + path(fixture.getFile("participants.txt")),
+				"INPUT=" + path(fixture.getFile("battles.txt")), "NUMBATTLES=" + battles,
+				"CODESIZEFILE=" + path(fixture.getFile("sizes.txt")), "RUNONLY=SERVER",
+				"RATINGS.GENERAL=" + path(fixture.getFile("ratings.txt")),
+				"PRIORITYBATTLESFILE=" + path(fixture.getFile("priority.txt")));
+		return properties;
+	}
+
+	private static void append(File file, String line) throws IOException {
+		final PrintStream out = new PrintStream(new FileOutputStream(file, true));
+
+		out.println(line);
+		out.close();
+	}
+}
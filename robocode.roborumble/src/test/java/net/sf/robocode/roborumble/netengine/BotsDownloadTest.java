@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.netengine;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.sf.robocode.roborumble.RumbleTestFixture;
+import static net.sf.robocode.roborumble.RumbleTestFixture.path;
+import static net.sf.robocode.roborumble.RumbleTestFixture.send;
+import static net.sf.robocode.roborumble.RumbleTestFixture.writeLines;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+
+/**
+ * Downloads robots from a local HTTP server, and checks that the downloaded robots are checked before they are
+ * saved into the robot repository.
+ */
+public class BotsDownloadTest {
+
+	private RumbleTestFixture fixture;
+	private String baseUrl;
+
+	private final AtomicInteger flakyRequests = new AtomicInteger();
+
+	@Before
+	public void startServer() throws IOException {
+		fixture = new RumbleTestFixture("botsdownload", "robots", "temp");
+
+		final byte[] goodJar = createRobotJar("sample.Good", "1.0");
+		final byte[] flakyJar = createRobotJar("sample.Flaky", "1.0");
+		final byte[] wrongJar = createRobotJar("sample.Wrong", "0.9");
+
+		baseUrl = fixture.startServer(new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				final String path = exchange.getRequestURI().getPath();
+
+				if (path.equals("/good.jar")) {
+					send(exchange, 200, goodJar);
+				} else if (path.equals("/wrong.jar")) {
+					send(exchange, 200, wrongJar);
+				} else if (path.equals("/flaky.jar") && flakyRequests.incrementAndGet() > 1) {
+					send(exchange, 200, flakyJar);
+				} else if (path.equals("/flaky.jar")) {
+					send(exchange, 503, new byte[0]);
+				} else {
+					send(exchange, 404, new byte[0]);
+				}
+			}
+		});
+	}
+
+	@After
+	public void stopServer() {
+		fixture.close();
+	}
+
+	@Test
+	public void downloadMissingBots() throws IOException {
+		final File participants = fixture.getFile("participants.txt");
+
+		writeLines(participants, "sample.Good 1.0," + baseUrl + "good.jar", "sample.Flaky 1.0," + baseUrl + "flaky.jar",
+				"sample.Wrong 1.0," + baseUrl + "wrong.jar", "sample.Missing 1.0," + baseUrl + "missing.jar");
+
+		final File properties = fixture.getFile("roborumble.txt");
+
+		writeLines(properties, "BOTSREP=" + path(fixture.getFile("robots")),
+				"TEMP=" + path(fixture.getFile("temp")), "PARTICIPANTSFILE=" + path(participants));
+
+		new BotsDownload(path(properties)).downloadMissingBots();
+
+		final File robots = fixture.getFile("robots");
+
+		Assert.assertTrue("Downloaded robot must be saved", new File(robots, "sample.Good_1.0.jar").exists());
+		Assert.assertTrue("Failed download must be retried", new File(robots, "sample.Flaky_1.0.jar").exists());
+		Assert.assertEquals(2, flakyRequests.get());
+		Assert.assertFalse("Robot with wrong version must not be saved",
+				new File(robots, "sample.Wrong_1.0.jar").exists());
+		Assert.assertFalse(new File(robots, "sample.Missing_1.0.jar").exists());
+	}
+
+	private static byte[] createRobotJar(String classname, String version) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final JarOutputStream jar = new JarOutputStream(bytes);
+
+		jar.putNextEntry(new ZipEntry(classname.replace('.', '/') + ".properties"));
+		jar.write(("robot.classname=" + classname + "\nrobot.version=" + version + "\n").getBytes("ISO-8859-1"));
+		jar.closeEntry();
+		jar.close();
+
+		return bytes.toByteArray();
+	}
+}
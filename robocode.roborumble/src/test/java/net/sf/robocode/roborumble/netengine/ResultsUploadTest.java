@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.netengine;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.sf.robocode.roborumble.RumbleTestFixture;
+import static net.sf.robocode.roborumble.RumbleTestFixture.path;
+import static net.sf.robocode.roborumble.RumbleTestFixture.readLines;
+import static net.sf.robocode.roborumble.RumbleTestFixture.send;
+import static net.sf.robocode.roborumble.RumbleTestFixture.writeLines;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Uploads results to a local HTTP server, and checks that results which could not be uploaded are kept, and that
+ * an upload is resumed from its checkpoint.
+ */
+public class ResultsUploadTest {
+
+	private RumbleTestFixture fixture;
+	private File resultsFile;
+	private File propertiesFile;
+
+	private final List<String> uploads = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void startServer() throws IOException {
+		fixture = new RumbleTestFixture("resultsupload", "temp");
+
+		final String url = fixture.startServer(new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				final BufferedReader in = new BufferedReader(new InputStreamReader(exchange.getRequestBody()));
+				final String data = in.readLine();
+
+				in.close();
+				uploads.add(data);
+
+				send(exchange, 200, (data.indexOf("fname=sample.Fail") >= 0 ? "ERROR" : "OK").getBytes("ISO-8859-1"));
+			}
+		});
+
+		resultsFile = fixture.getFile("results.txt");
+		propertiesFile = fixture.getFile("roborumble.txt");
+
+		writeLines(propertiesFile, "OUTPUT=" + path(resultsFile), "RESULTSURL=" + url + "upload",
+				"TEMP=" + path(fixture.getFile("temp")), "USER=test",
+				"BATTLESNUMFILE=" + path(fixture.getFile("battlesnum.txt")),
+				"PRIORITYBATTLESFILE=" + path(fixture.getFile("priority.txt")));
+	}
+
+	@After
+	public void stopServer() {
+		fixture.close();
+	}
+
+	@Test
+	public void uploadResults() throws IOException {
+		writeResults("sample.Good", "sample.Fail", "sample.Other");
+
+		new ResultsUpload(path(propertiesFile), "1").uploadResults();
+
+		Assert.assertEquals(3, uploads.size());
+		Assert.assertEquals("Only the result that failed must be kept", 3, readLines(resultsFile).size());
+		Assert.assertTrue(readLines(resultsFile).get(1).startsWith("sample.Fail"));
+		Assert.assertFalse(getCheckpointFile().exists());
+	}
+
+	@Test
+	public void resumeUpload() throws IOException {
+		writeResults("sample.Good", "sample.Second", "sample.Other");
+		writeLines(getCheckpointFile(), "1", readLines(resultsFile).get(0), "0");
+
+		new ResultsUpload(path(propertiesFile), "1").uploadResults();
+
+		Assert.assertEquals("Results before the checkpoint must not be uploaded again", 2, uploads.size());
+		for (String upload : uploads) {
+			Assert.assertTrue(upload.indexOf("fname=sample.Good") < 0);
+		}
+		Assert.assertFalse(resultsFile.exists());
+	}
+
+	@Test
+	public void resumeUploadAfterCrash() throws IOException {
+		writeResults("sample.Fail", "sample.Good", "sample.Fail", "sample.Other");
+
+		final List<String> results = readLines(resultsFile);
+
+		// The first result could not be uploaded before the checkpoint, and the third one after the checkpoint
+		final File errorsFile = fixture.getFile("temp/results.txt");
+		final PrintStream errors = new PrintStream(new FileOutputStream(errorsFile));
+
+		for (String line : results.subList(0, 3)) {
+			errors.println(line);
+		}
+		final long errorsLength = errorsFile.length();
+
+		for (String line : results.subList(6, 9)) {
+			errors.println(line);
+		}
+		errors.close();
+
+		writeLines(getCheckpointFile(), "2", results.get(3), String.valueOf(errorsLength));
+
+		new ResultsUpload(path(propertiesFile), "1").uploadResults();
+
+		Assert.assertEquals(2, uploads.size());
+
+		final List<String> kept = readLines(resultsFile);
+
+		Assert.assertEquals("Every result that failed must be kept once", 6, kept.size());
+		Assert.assertEquals(results.subList(0, 3), kept.subList(0, 3));
+		Assert.assertEquals(results.subList(6, 9), kept.subList(3, 6));
+	}
+
+	@Test
+	public void failedResultsInOrder() throws IOException {
+		final String[] bots = new String[20];
+
+		for (int i = 0; i < bots.length; i++) {
+			bots[i] = (i % 3 == 0 ? "sample.Fail" : "sample.Good") + i;
+		}
+		writeResults(bots);
+
+		final List<String> results = readLines(resultsFile);
+
+		new ResultsUpload(path(propertiesFile), "1").uploadResults();
+
+		final List<String> expected = new ArrayList<String>();
+
+		for (int i = 0; i < bots.length; i += 3) {
+			expected.addAll(results.subList(i * 3, i * 3 + 3));
+		}
+		Assert.assertEquals("The results that failed must be kept in the order of the results file", expected,
+				readLines(resultsFile));
+	}
+
+	@Test
+	public void checkpointWithoutErrorsLength() throws IOException {
+		writeResults("sample.Good", "sample.Second", "sample.Other");
+		writeLines(getCheckpointFile(), "1", readLines(resultsFile).get(0));
+
+		new ResultsUpload(path(propertiesFile), "1").uploadResults();
+
+		Assert.assertEquals("An incomplete checkpoint must not be trusted", 3, uploads.size());
+		Assert.assertFalse(resultsFile.exists());
+	}
+
+	private void writeResults(String... bots) throws IOException {
+		final PrintStream out = new PrintStream(new FileOutputStream(resultsFile));
+
+		for (int i = 0; i < bots.length; i++) {
+			out.println("roborumble,35,800x600,test," + (1000 + i) + ",GENERAL");
+			out.println(bots[i] + " 1.0,5000,3000,30");
+			out.println("sample.Enemy 1.0,1000,500,5");
+		}
+		out.close();
+	}
+
+	private File getCheckpointFile() {
+		return fixture.getFile("temp/" + ResultsUpload.CHECKPOINT_FILENAME);
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.util;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Properties;
+
+
+/**
+ * Checks that a ratings file is read, updated and written again.
+ */
+public class RatingsFileTest {
+
+	private File file;
+
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("ratings", ".txt");
+
+		final PrintStream out = new PrintStream(new FileOutputStream(file));
+
+		out.println("sample.Fire_1.0=1650.3,120,2017-01-01");
+		out.println("sample.Crazy_1.0=1540.0,700,2017-01-02");
+		out.println("sample.Broken_1.0=broken");
+		out.close();
+	}
+
+	@After
+	public void deleteFile() {
+		Assert.assertTrue(file.delete());
+	}
+
+	@Test
+	public void readRatings() {
+		final RatingsFile ratings = new RatingsFile(file.getPath());
+
+		Assert.assertTrue(ratings.contains("sample.Fire 1.0"));
+		Assert.assertTrue(ratings.contains("sample.Crazy_1.0"));
+		Assert.assertFalse(ratings.contains("sample.Broken 1.0"));
+		Assert.assertFalse(ratings.contains("sample.Walls 1.0"));
+		Assert.assertEquals(120, ratings.getRating("sample.Fire 1.0").getBattles(), 0);
+		Assert.assertNull(ratings.getRating("sample.Walls 1.0"));
+	}
+
+	@Test
+	public void storeBattles() {
+		final RatingsFile ratings = new RatingsFile(file.getPath());
+		final long lastModified = file.lastModified();
+
+		ratings.setBattles("sample.Fire 1.0", 120);
+		Assert.assertTrue(ratings.store("unchanged"));
+		Assert.assertEquals("Unchanged ratings must not be written", lastModified, file.lastModified());
+
+		ratings.setBattles("sample.Fire 1.0", 121);
+		ratings.setBattles("sample.Walls 1.0", 10);
+		Assert.assertTrue(ratings.store("changed"));
+
+		final Properties properties = PropertiesUtil.getProperties(file.getPath());
+
+		Assert.assertEquals("1650.3,121.0,2017-01-01", properties.getProperty("sample.Fire_1.0"));
+		Assert.assertEquals("1540.0,700,2017-01-02", properties.getProperty("sample.Crazy_1.0"));
+		Assert.assertEquals("broken", properties.getProperty("sample.Broken_1.0"));
+		Assert.assertNull(properties.getProperty("sample.Walls_1.0"));
+		Assert.assertFalse(new File(file.getPath() + ".tmp").exists());
+
+		Assert.assertEquals(121, new RatingsFile(file.getPath()).getRating("sample.Fire_1.0").getBattles(), 0);
+	}
+
+	@Test
+	public void noRatingsFile() {
+		final RatingsFile ratings = new RatingsFile("");
+
+		Assert.assertFalse(ratings.contains("sample.Fire 1.0"));
+		Assert.assertFalse(ratings.store("none"));
+	}
+}
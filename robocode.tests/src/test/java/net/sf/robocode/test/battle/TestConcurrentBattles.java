@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.test.battle;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import robocode.BattleResults;
+import robocode.control.BattleSpecification;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.IBattleListener;
+import robocode.control.events.TurnEndedEvent;
+
+
+/**
+ * Runs several battles at the same time, and checks that every battle reports its own results to its own listener.
+ */
+public class TestConcurrentBattles extends RobocodeTestBed {
+
+	private static final int BATTLES = 6;
+	private static final int CONCURRENT_BATTLES = 3;
+
+	private final BattleResults[][] results = new BattleResults[BATTLES][];
+	private final int[] completed = new int[BATTLES];
+	private final int[] turns = new int[BATTLES];
+
+	private int turnsOfDefaultListener;
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.Crazy";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 2;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+		turnsOfDefaultListener++;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final RobotSpecification[] robotSpecifications = engine.getLocalRepository(robotList);
+
+		Assert.assertEquals("Robot were not loaded", 2, robotSpecifications.length);
+
+		final BattleSpecification[] battles = new BattleSpecification[BATTLES];
+		final IBattleListener[] listeners = new IBattleListener[BATTLES];
+
+		for (int i = 0; i < BATTLES; i++) {
+			final int battle = i;
+
+			battles[i] = new BattleSpecification(numRounds, battleFieldSpec, robotSpecifications);
+			listeners[i] = new BattleAdaptor() {
+				@Override
+				public void onTurnEnded(TurnEndedEvent event) {
+					turns[battle]++;
+				}
+
+				@Override
+				public void onBattleCompleted(BattleCompletedEvent event) {
+					completed[battle]++;
+					results[battle] = event.getIndexedResults();
+				}
+			};
+		}
+		engine.runBattles(battles, listeners, CONCURRENT_BATTLES);
+	}
+
+	@Override
+	protected void runTeardown() {
+		for (int i = 0; i < BATTLES; i++) {
+			Assert.assertEquals("Battle " + i + " must complete once", 1, completed[i]);
+			Assert.assertEquals(2, results[i].length);
+			Assert.assertTrue("Battle " + i + " must have turns", turns[i] > 0);
+		}
+		Assert.assertEquals("Concurrent battles must not be sent to the engine listeners", 0, turnsOfDefaultListener);
+	}
+}
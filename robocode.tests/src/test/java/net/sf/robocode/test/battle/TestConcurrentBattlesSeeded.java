@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.test.battle;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import robocode.control.BattleSpecification;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.IBattleListener;
+import robocode.control.events.RoundStartedEvent;
+import robocode.control.snapshot.IRobotSnapshot;
+
+
+/**
+ * Runs the same battle several times at the same time with a deterministic seed, and checks that every battle
+ * places the robots at the same random positions, as every battle draws from its own random number generator.
+ */
+public class TestConcurrentBattlesSeeded extends RobocodeTestBed {
+
+	private static final int BATTLES = 4;
+
+	private final double[][] positions = new double[BATTLES][];
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.Crazy,sample.Walls";
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final RobotSpecification[] robotSpecifications = engine.getLocalRepository(robotList);
+
+		Assert.assertEquals("Robot were not loaded", 3, robotSpecifications.length);
+
+		final BattleSpecification[] battles = new BattleSpecification[BATTLES];
+		final IBattleListener[] listeners = new IBattleListener[BATTLES];
+
+		for (int i = 0; i < BATTLES; i++) {
+			final int battle = i;
+
+			battles[i] = new BattleSpecification(numRounds, battleFieldSpec, robotSpecifications);
+			listeners[i] = new BattleAdaptor() {
+				@Override
+				public void onRoundStarted(RoundStartedEvent event) {
+					if (event.getRound() == 0) {
+						positions[battle] = toPositions(event.getStartSnapshot().getRobots());
+					}
+				}
+			};
+		}
+		engine.runBattles(battles, listeners, BATTLES);
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertNotNull(positions[0]);
+		for (int i = 1; i < BATTLES; i++) {
+			Assert.assertArrayEquals("Battle " + i + " must place the robots like battle 0", positions[0], positions[i],
+					0);
+		}
+	}
+
+	private static double[] toPositions(IRobotSnapshot[] robots) {
+		final double[] positions = new double[robots.length * 3];
+
+		for (int i = 0; i < robots.length; i++) {
+			positions[i * 3] = robots[i].getX();
+			positions[i * 3 + 1] = robots[i].getY();
+			positions[i * 3 + 2] = robots[i].getBodyHeading();
+		}
+		return positions;
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2001-2017 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ */
+package net.sf.robocode.test.battle;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import robocode.BattleResults;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleStartedEvent;
+import robocode.control.events.RoundEndedEvent;
+import robocode.control.events.RoundStartedEvent;
+
+
+/**
+ * Runs a battle of several rounds with every turn handoff, with and without reusing the robot threads, and checks
+ * that the rounds start without waiting for the robots until the start time is up.
+ */
+public class TestRoundStart extends RobocodeTestBed {
+
+	private static final String[] TURN_HANDOFFS = { "monitor", "park", "spin" };
+
+	private static final int ROUNDS = 10;
+
+	// Far below the time the battle waits for a robot to start, which is 300 times the CPU constant
+	private static final long MAX_AVERAGE_START_MILLIS = 200;
+
+	private long roundEndedMillis;
+	private long startMillis;
+	private int roundsStarted;
+	private BattleResults[] results;
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.Crazy";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return ROUNDS;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	public void onBattleStarted(BattleStartedEvent event) {
+		roundEndedMillis = System.currentTimeMillis();
+	}
+
+	@Override
+	public void onRoundStarted(RoundStartedEvent event) {
+		startMillis += System.currentTimeMillis() - roundEndedMillis;
+		roundsStarted++;
+	}
+
+	@Override
+	public void onRoundEnded(RoundEndedEvent event) {
+		roundEndedMillis = System.currentTimeMillis();
+	}
+
+	@Override
+	public void onBattleCompleted(BattleCompletedEvent event) {
+		results = event.getIndexedResults();
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		for (String turnHandoff : TURN_HANDOFFS) {
+			for (boolean isReusingThreads : new boolean[] { false, true }) {
+				System.setProperty("TURNHANDOFF", turnHandoff);
+				System.setProperty("REUSETHREADS", String.valueOf(isReusingThreads));
+				try {
+					runBattle(turnHandoff + (isReusingThreads ? " and reused threads" : ""), robotList, numRounds,
+							initialPositions);
+				} finally {
+					System.clearProperty("TURNHANDOFF");
+					System.clearProperty("REUSETHREADS");
+				}
+			}
+		}
+	}
+
+	private void runBattle(String mode, String robotList, int numRounds, String initialPositions) {
+		startMillis = 0;
+		roundsStarted = 0;
+		results = null;
+
+		super.runBattle(robotList, numRounds, initialPositions);
+
+		Assert.assertEquals("All rounds must be started with " + mode, numRounds, roundsStarted);
+		Assert.assertTrue("The rounds take " + startMillis / numRounds + " ms to start with " + mode,
+				startMillis / numRounds < MAX_AVERAGE_START_MILLIS);
+
+		Assert.assertNotNull("The battle must complete with " + mode, results);
+		for (BattleResults result : results) {
+			Assert.assertTrue(result.getTeamLeaderName() + " must have started with " + mode, result.getScore() > 0);
+		}
+	}
+}
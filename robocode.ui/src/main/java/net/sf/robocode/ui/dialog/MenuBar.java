@@ -893,17 +893,24 @@ public class MenuBar extends JMenuBar {
 				"Recalculate CPU constant", JOptionPane.YES_NO_OPTION);
 
 		if (ok == JOptionPane.YES_OPTION) {
-			try {
-				robocodeFrame.setBusyPointer(true);
-				cpuManager.calculateCpuConstant();
-			} finally {
-				robocodeFrame.setBusyPointer(false);
-			}
-
-			long cpuConstant = cpuManager.getCpuConstant();
-
-			JOptionPane.showMessageDialog(this, "CPU constant: " + cpuConstant + " nanoseconds per turn",
-					"New CPU constant", JOptionPane.INFORMATION_MESSAGE);
+			robocodeFrame.setBusyPointer(true);
+
+			// The CPU constant is calculated in the background, so the GUI is not blocked meanwhile
+			cpuManager.refreshCpuConstant(new Runnable() {
+				public void run() {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							robocodeFrame.setBusyPointer(false);
+
+							long cpuConstant = cpuManager.getCpuConstant();
+
+							JOptionPane.showMessageDialog(MenuBar.this,
+									"CPU constant: " + cpuConstant + " nanoseconds per turn", "New CPU constant",
+									JOptionPane.INFORMATION_MESSAGE);
+						}
+					});
+				}
+			});
 		}
 	}
 